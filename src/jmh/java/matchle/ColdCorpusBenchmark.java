@@ -0,0 +1,88 @@
+package matchle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks scoring guesses a corpus has not scored before.
+ * <p>
+ * Each measured shot runs on a corpus built for it, whose index and partition
+ * scorer are built during setup, so no memoized score is reused and their
+ * one-time construction is not counted. A shot of the per-guess benchmarks scores
+ * {@value #BATCH} distinct guesses, the smallest corpus size, so the reported
+ * time is per batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ColdCorpusBenchmark {
+    /** Number of guesses scored by one shot of the per-guess benchmarks */
+    static final int BATCH = 100;
+
+    @Param({"100", "1000", "5000", "15000"})
+    int corpusSize;
+
+    @Param({"5", "8"})
+    int wordLength;
+
+    private List<NGram> words;
+    private Corpus corpus;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        words = Corpora.words(corpusSize, wordLength);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        corpus = Corpora.corpus(words);
+        corpus.prepare();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public long scoreWorstCase() {
+        long total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            total += corpus.scoreWorstCase(words.get(i));
+        }
+        return total;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public double scoreAverageCase() {
+        double total = 0;
+        for (int i = 0; i < BATCH; i++) {
+            total += corpus.scoreAverageCase(words.get(i));
+        }
+        return total;
+    }
+
+    /**
+     * Finds the best worst-case guess, scoring every word; a shot takes seconds
+     * on the largest corpora, so there are few of them.
+     */
+    @Benchmark
+    @Warmup(iterations = 1, batchSize = 1)
+    @Measurement(iterations = 3, batchSize = 1)
+    public NGram bestWorstCaseGuess() {
+        return corpus.bestWorstCaseGuess();
+    }
+}
@@ -0,0 +1,59 @@
+package matchle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible random word lists for the benchmarks.
+ */
+final class Corpora {
+    /** Seed of every generated word list, so that runs compare the same words */
+    static final long SEED = 42;
+
+    private Corpora() {
+    }
+
+    /**
+     * Generates distinct random words of the letters {@code a} to {@code z}.
+     *
+     * @param size The number of words
+     * @param wordLength The length of each word
+     * @return The words as strings, in generation order
+     */
+    static List<String> strings(int size, int wordLength) {
+        Random random = new Random(SEED);
+        Set<String> words = new LinkedHashSet<>();
+        char[] letters = new char[wordLength];
+        while (words.size() < size) {
+            for (int i = 0; i < wordLength; i++) {
+                letters[i] = (char) ('a' + random.nextInt(26));
+            }
+            words.add(new String(letters));
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Generates distinct random words as n-grams.
+     *
+     * @param size The number of words
+     * @param wordLength The length of each word
+     * @return The words, in generation order
+     */
+    static List<NGram> words(int size, int wordLength) {
+        return strings(size, wordLength).stream().map(NGram::from).toList();
+    }
+
+    /**
+     * Builds a new corpus of words, sharing no cache with any other corpus.
+     *
+     * @param words The words
+     * @return The corpus
+     */
+    static Corpus corpus(List<NGram> words) {
+        return Corpus.Builder.of().addAll(words).build();
+    }
+}
@@ -0,0 +1,87 @@
+package matchle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the corpus operations a game makes every round, in steady state.
+ * <p>
+ * {@link Corpus#score}, {@link Corpus#scoreWorstCase} and
+ * {@link Corpus#scoreAverageCase} memoize their results, so after warmup these
+ * measure a game replaying positions it has already scored, as the shared
+ * caches make it do; the cost of scoring a guess the first time is measured by
+ * {@link ColdCorpusBenchmark}. Inputs rotate through the corpus words by a
+ * stride coprime with every size, so consecutive calls hit different words.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorpusBenchmark {
+    /** Stride between consecutive inputs, a prime not dividing any corpus size */
+    private static final int STRIDE = 7919;
+
+    @Param({"100", "1000", "5000", "15000"})
+    int corpusSize;
+
+    @Param({"5", "8"})
+    int wordLength;
+
+    private NGram[] words;
+    private Corpus corpus;
+    private GameLogic gameLogic;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<NGram> list = Corpora.words(corpusSize, wordLength);
+        words = list.toArray(new NGram[0]);
+        corpus = Corpora.corpus(list);
+        gameLogic = new GameLogic();
+    }
+
+    private NGram nextWord() {
+        next = (next + STRIDE) % words.length;
+        return words[next];
+    }
+
+    @Benchmark
+    public long score() {
+        return corpus.score(nextWord(), nextWord());
+    }
+
+    @Benchmark
+    public long scoreWorstCase() {
+        return corpus.scoreWorstCase(nextWord());
+    }
+
+    @Benchmark
+    public double scoreAverageCase() {
+        return corpus.scoreAverageCase(nextWord());
+    }
+
+    /**
+     * Starts a game and plays one guess, which narrows the whole corpus down;
+     * starting the game only resets the candidate set.
+     */
+    @Benchmark
+    public Filter processGuess() {
+        gameLogic.initialize(corpus, nextWord());
+        return gameLogic.processGuess(nextWord());
+    }
+}
@@ -0,0 +1,63 @@
+package matchle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks matching a guess against a key and testing words against the
+ * resulting filter. The pairs rotate through a fixed list so that neither the
+ * JIT nor the branch predictor sees a single input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatcherBenchmark {
+    private static final int PAIRS = 1024;
+
+    @Param({"5", "8"})
+    int wordLength;
+
+    private NGram[] keys;
+    private NGram[] guesses;
+    private Filter[] filters;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<NGram> words = Corpora.words(2 * PAIRS, wordLength);
+        keys = words.subList(0, PAIRS).toArray(new NGram[0]);
+        guesses = words.subList(PAIRS, 2 * PAIRS).toArray(new NGram[0]);
+        filters = new Filter[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            filters[i] = NGramMatcher.of(keys[i], guesses[i]).match();
+        }
+    }
+
+    @Benchmark
+    public Filter match() {
+        next = (next + 1) & (PAIRS - 1);
+        return NGramMatcher.of(keys[next], guesses[next]).match();
+    }
+
+    @Benchmark
+    public boolean filterTest() {
+        next = (next + 1) & (PAIRS - 1);
+        // the filter of one pair tested against the key of the next one
+        return filters[next].test(keys[(next + 1) & (PAIRS - 1)]);
+    }
+}
@@ -0,0 +1,48 @@
+package matchle;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks creating n-grams from strings, which every loader and guess does.
+ * Words up to {@link NGram#MAX_PACKED_LENGTH} letters are packed, longer ones
+ * are not, so the lengths cover both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NGramBenchmark {
+
+    @Param({"5", "8", "12", "16"})
+    int wordLength;
+
+    private String[] words;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<String> strings = Corpora.strings(1024, wordLength);
+        words = strings.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public NGram from() {
+        next = (next + 1) & (words.length - 1);
+        return NGram.from(words[next]);
+    }
+}
@@ -0,0 +1,105 @@
+package matchle;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+import javax.swing.SwingWorker;
+import matchle.scoring.BestGuessCache;
+import matchle.scoring.ScoringStrategy;
+
+/**
+ * Searches the best guess among candidates in the background, for the GUI.
+ * <p>
+ * The candidates are scored in chunks, each chunk in parallel. After each
+ * chunk the best guess found so far is published and the progress, from 0 to
+ * 100, is updated, so the window can show a provisional suggestion while the
+ * search goes on; the search stops between chunks once cancelled. The best
+ * score wins and ties go to the first candidate in corpus order, as with
+ * {@link ScoringStrategy#findBestGuess}, so the final guess is the one the
+ * strategy finds, and it is recorded in the
+ * {@link BestGuessCache#shared() shared cache}.
+ * <p>
+ * The callbacks run on the event dispatch thread, and neither runs once the
+ * worker is cancelled.
+ */
+final class BestGuessWorker extends SwingWorker<NGram, NGram> {
+    /** Number of candidates scored between two progress reports */
+    static final int CHUNK_SIZE = 256;
+
+    private final ScoringStrategy strategy;
+    private final Corpus candidates;
+    private final Consumer<NGram> onProgress;
+    private final Consumer<NGram> onDone;
+
+    /**
+     * Creates a worker searching the best guess of a strategy.
+     *
+     * @param strategy The strategy scoring guesses
+     * @param candidates The candidates to search, which must not be empty
+     * @param onProgress Receives the best guess found so far
+     * @param onDone Receives the best guess once the search is complete
+     */
+    BestGuessWorker(ScoringStrategy strategy, Corpus candidates,
+                    Consumer<NGram> onProgress, Consumer<NGram> onDone) {
+        this.strategy = Objects.requireNonNull(strategy, "Strategy cannot be null");
+        this.candidates = Objects.requireNonNull(candidates, "Corpus cannot be null");
+        this.onProgress = Objects.requireNonNull(onProgress);
+        this.onDone = Objects.requireNonNull(onDone);
+    }
+
+    @Override
+    protected NGram doInBackground() {
+        List<NGram> words = candidates.stream().toList();
+        ToDoubleFunction<NGram> scorer = strategy.scorer(candidates);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int from = 0; from < words.size(); from += CHUNK_SIZE) {
+            if (isCancelled()) {
+                return null;
+            }
+            int to = Math.min(from + CHUNK_SIZE, words.size());
+            double[] scores = new double[to - from];
+            int offset = from;
+            IntStream.range(0, scores.length).parallel()
+                    .forEach(i -> scores[i] = scorer.applyAsDouble(words.get(offset + i)));
+            for (int i = 0; i < scores.length; i++) {
+                if (best < 0 || scores[i] > bestScore) {
+                    best = from + i;
+                    bestScore = scores[i];
+                }
+            }
+            publish(words.get(best));
+            setProgress((int) (100L * to / words.size()));
+        }
+        NGram result = words.get(best);
+        BestGuessCache.shared().put(strategy, candidates, result);
+        return result;
+    }
+
+    @Override
+    protected void process(List<NGram> chunks) {
+        if (!isCancelled()) {
+            onProgress.accept(chunks.get(chunks.size() - 1));
+        }
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            return;
+        }
+        try {
+            onDone.accept(get());
+        } catch (CancellationException e) {
+            // cancelled after the check, nothing to report
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Best guess search failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package matchle;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import javax.swing.AbstractListModel;
+
+/**
+ * A list model over the remaining candidates of a game, for the GUI.
+ * <p>
+ * The model reads rows directly from the candidate corpus, whose words are held
+ * in ordinal order, so it copies nothing and a list showing it only renders
+ * the rows in view. When a round eliminates candidates, the model fires an
+ * event for each run of removed rows, from the last, and shrinks by one run
+ * before each event, so listeners always see the rows the events describe and
+ * the list keeps its selection and repaints only what moved. The removed rows
+ * are found by comparing the base ordinals of the candidates, a few bitset
+ * operations per run, not the words themselves. If the runs are too many, or
+ * the new candidates are not a subset of the old ones, the model fires a
+ * single change for the whole list instead.
+ */
+final class CandidateListModel extends AbstractListModel<NGram> {
+    private static final long serialVersionUID = 1L;
+
+    /** Largest number of removed runs reported one by one */
+    static final int MAX_REMOVAL_EVENTS = 32;
+
+    private transient Corpus candidates;
+
+    /** Number of rows, which shrinks run by run while removals are reported */
+    private int size;
+
+    /** While removals are reported, the first and last row of each removed run, else null */
+    private int[] removing;
+
+    /** Index in {@link #removing} of the first run already removed */
+    private int removed;
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public NGram getElementAt(int index) {
+        if (removing == null) {
+            return candidates.get(index);
+        }
+        // the old candidates, less the runs removed so far
+        int row = index;
+        for (int i = removed; i < removing.length && row >= removing[i]; i += 2) {
+            row += removing[i + 1] - removing[i] + 1;
+        }
+        return candidates.get(row);
+    }
+
+    /**
+     * Shows new candidates.
+     *
+     * @param newCandidates The candidates, or null if none remains
+     */
+    void setCandidates(Corpus newCandidates) {
+        Corpus old = candidates;
+        if (old == newCandidates) {
+            return;
+        }
+        int[] runs = removedRuns(old, newCandidates);
+        if (runs != null) {
+            removing = runs;
+            removed = runs.length;
+            try {
+                // from the last run, so that the indices of earlier runs stay valid
+                for (int i = runs.length - 2; i >= 0; i -= 2) {
+                    removed = i;
+                    size -= runs[i + 1] - runs[i] + 1;
+                    fireIntervalRemoved(this, runs[i], runs[i + 1]);
+                }
+            } finally {
+                removing = null;
+                candidates = newCandidates;
+                size = newCandidates == null ? 0 : newCandidates.size();
+            }
+            return;
+        }
+        int oldSize = size;
+        candidates = newCandidates;
+        size = newCandidates == null ? 0 : newCandidates.size();
+        int newSize = size;
+        if (oldSize > newSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        } else if (newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        if (Math.min(oldSize, newSize) > 0) {
+            fireContentsChanged(this, 0, Math.min(oldSize, newSize) - 1);
+        }
+    }
+
+    /**
+     * the first and last row of each run of rows of old missing from remaining,
+     * or null if remaining is not a subset of old or there are too many runs
+     */
+    private static int[] removedRuns(Corpus old, Corpus remaining) {
+        if (old == null) {
+            return null;
+        }
+        if (remaining != null && !remaining.sharesBase(old)) {
+            return null;
+        }
+        BitSet before = old.baseOrdinals();
+        BitSet kept = remaining == null ? new BitSet() : remaining.baseOrdinals();
+        BitSet gone = (BitSet) before.clone();
+        gone.andNot(kept);
+        if (before.cardinality() - gone.cardinality() != kept.cardinality()) {
+            return null;
+        }
+        int[] runs = new int[2 * MAX_REMOVAL_EVENTS];
+        int count = 0;
+        int row = 0;
+        int from = 0;
+        for (int start = gone.nextSetBit(0); start >= 0; start = gone.nextSetBit(from)) {
+            if (count == runs.length) {
+                return null;
+            }
+            // the run ends at the next remaining word
+            int end = kept.nextSetBit(start);
+            end = end < 0 ? before.length() : end;
+            row += before.get(from, start).cardinality();
+            int length = before.get(start, end).cardinality();
+            runs[count++] = row;
+            runs[count++] = row + length - 1;
+            row += length;
+            from = end;
+        }
+        return Arrays.copyOf(runs, count);
+    }
+}
@@ -0,0 +1,327 @@
+package matchle;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A structured description of the words consistent with the feedback of one or
+ * more guesses.
+ * <p>
+ * The constraints are:
+ * <ul>
+ *   <li>correct positions: the letter a word must have at a position</li>
+ *   <li>excluded positions: letters a word must not have at a position, from
+ *       misplaced and absent feedback</li>
+ *   <li>minimum counts: how many times a word must at least contain a letter</li>
+ *   <li>maximum counts: how many times a word may at most contain a letter</li>
+ * </ul>
+ * Unlike an opaque predicate, constraints can be inspected, serialized, evaluated
+ * against a {@link CorpusIndex} and merged: the conjunction of two sets of
+ * constraints is again a set of constraints, so the filter accumulated over any
+ * number of rounds is tested in constant depth.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class Constraints implements Serializable {
+    /** Serialization version UID for consistent serialization across versions */
+    private static final long serialVersionUID = 1L;
+
+    /** The size of the words these constraints accept */
+    private final int size;
+
+    /** The letter required at each constrained position */
+    private final Map<Integer, Character> correct;
+
+    /** The letters excluded at each constrained position */
+    private final Map<Integer, Set<Character>> excluded;
+
+    /** The minimum number of occurrences of each constrained letter */
+    private final Map<Character, Integer> minCounts;
+
+    /** The maximum number of occurrences of each constrained letter */
+    private final Map<Character, Integer> maxCounts;
+
+    /** Whether the constraints contradict each other, so that no word satisfies them */
+    private final boolean contradictory;
+
+    private Constraints(int size, Map<Integer, Character> correct, Map<Integer, Set<Character>> excluded,
+                        Map<Character, Integer> minCounts, Map<Character, Integer> maxCounts,
+                        boolean contradictory) {
+        this.size = size;
+        this.correct = correct;
+        this.excluded = excluded;
+        this.minCounts = minCounts;
+        this.maxCounts = maxCounts;
+        this.contradictory = contradictory || isContradictory(correct, excluded, minCounts, maxCounts);
+    }
+
+    /**
+     * Derives the constraints satisfied by exactly the words that give the
+     * specified feedback for a guess.
+     * <p>
+     * A word gives that feedback if and only if it has the guessed letter at every
+     * correct position and a different letter at every other position, and for each
+     * guessed letter at least as many occurrences as the guess has correct and
+     * misplaced ones, and exactly that many if one was marked absent.
+     *
+     * @param guess The guess
+     * @param code The feedback code, as computed by {@link NGramMatcher#feedbackCode}
+     * @return The constraints of that feedback
+     * @throws NullPointerException if guess is null
+     */
+    public static Constraints fromFeedback(NGram guess, int code) {
+        return fromDigits(guess, i -> NGramMatcher.digit(code, i));
+    }
+
+    /**
+     * Derives the constraints of a feedback given digit by digit, for words too
+     * long to have a feedback code.
+     *
+     * @param guess The guess
+     * @param digits The feedback digit of each position of the guess
+     * @return The constraints of that feedback
+     * @throws NullPointerException if guess is null
+     */
+    static Constraints fromDigits(NGram guess, IntUnaryOperator digits) {
+        Objects.requireNonNull(guess, "Guess cannot be null");
+        Map<Integer, Character> correct = new HashMap<>();
+        Map<Integer, Set<Character>> excluded = new HashMap<>();
+        Map<Character, Integer> present = new HashMap<>();
+        Set<Character> absent = new HashSet<>();
+        for (int i = 0; i < guess.size(); i++) {
+            char c = guess.charAt(i);
+            int digit = digits.applyAsInt(i);
+            if (digit == NGramMatcher.CORRECT) {
+                correct.put(i, c);
+            } else {
+                excluded.computeIfAbsent(i, k -> new HashSet<>()).add(c);
+            }
+            if (digit == NGramMatcher.ABSENT) {
+                absent.add(c);
+                present.putIfAbsent(c, 0);
+            } else {
+                present.merge(c, 1, Integer::sum);
+            }
+        }
+        Map<Character, Integer> minCounts = new HashMap<>();
+        Map<Character, Integer> maxCounts = new HashMap<>();
+        present.forEach((c, count) -> {
+            if (count > 0) {
+                minCounts.put(c, count);
+            }
+            if (absent.contains(c)) {
+                maxCounts.put(c, count);
+            }
+        });
+        return new Constraints(guess.size(), correct, excluded, minCounts, maxCounts, false);
+    }
+
+    private static boolean isContradictory(Map<Integer, Character> correct, Map<Integer, Set<Character>> excluded,
+                                           Map<Character, Integer> minCounts, Map<Character, Integer> maxCounts) {
+        for (Map.Entry<Integer, Character> e : correct.entrySet()) {
+            if (excluded.getOrDefault(e.getKey(), Set.of()).contains(e.getValue())) {
+                return true;
+            }
+        }
+        for (Map.Entry<Character, Integer> e : minCounts.entrySet()) {
+            if (e.getValue() > maxCounts.getOrDefault(e.getKey(), Integer.MAX_VALUE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges these constraints with others: the result accepts exactly the words
+     * accepted by both.
+     *
+     * @param other The constraints to merge with
+     * @return The merged constraints
+     * @throws NullPointerException if other is null
+     */
+    public Constraints and(Constraints other) {
+        Objects.requireNonNull(other, "Constraints cannot be null");
+        boolean conflict = contradictory || other.contradictory || size != other.size;
+
+        Map<Integer, Character> mergedCorrect = new HashMap<>(correct);
+        for (Map.Entry<Integer, Character> e : other.correct.entrySet()) {
+            Character previous = mergedCorrect.putIfAbsent(e.getKey(), e.getValue());
+            conflict |= previous != null && !previous.equals(e.getValue());
+        }
+        Map<Integer, Set<Character>> mergedExcluded = new HashMap<>();
+        excluded.forEach((i, letters) -> mergedExcluded.put(i, new HashSet<>(letters)));
+        other.excluded.forEach((i, letters) ->
+                mergedExcluded.computeIfAbsent(i, k -> new HashSet<>()).addAll(letters));
+        Map<Character, Integer> mergedMin = new HashMap<>(minCounts);
+        other.minCounts.forEach((c, min) -> mergedMin.merge(c, min, Math::max));
+        Map<Character, Integer> mergedMax = new HashMap<>(maxCounts);
+        other.maxCounts.forEach((c, max) -> mergedMax.merge(c, max, Math::min));
+
+        return new Constraints(size, mergedCorrect, mergedExcluded, mergedMin, mergedMax, conflict);
+    }
+
+    /**
+     * Tests whether a word satisfies these constraints.
+     *
+     * @param ngram The word to test
+     * @return true if the word satisfies every constraint, false otherwise
+     */
+    public boolean test(NGram ngram) {
+        if (contradictory || ngram.size() != size) {
+            return false;
+        }
+        for (Map.Entry<Integer, Character> e : correct.entrySet()) {
+            if (ngram.charAt(e.getKey()) != e.getValue()) {
+                return false;
+            }
+        }
+        for (Map.Entry<Integer, Set<Character>> e : excluded.entrySet()) {
+            if (e.getValue().contains(ngram.charAt(e.getKey()))) {
+                return false;
+            }
+        }
+        for (Map.Entry<Character, Integer> e : minCounts.entrySet()) {
+            if (count(ngram, e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        for (Map.Entry<Character, Integer> e : maxCounts.entrySet()) {
+            if (count(ngram, e.getKey()) > e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int count(NGram ngram, char c) {
+        if (!ngram.contains(c)) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < ngram.size(); i++) {
+            if (ngram.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Selects the words of an index that satisfy these constraints, with one
+     * bitset operation per constraint.
+     *
+     * @param index The index of a corpus whose words have the size of these constraints
+     * @return A new bitset of the ordinals of the words satisfying the constraints
+     */
+    BitSet select(CorpusIndex index) {
+        BitSet set = index.all();
+        if (contradictory) {
+            set.clear();
+            return set;
+        }
+        correct.forEach((i, c) -> index.retainAt(set, i, c));
+        excluded.forEach((i, letters) -> letters.forEach(c -> index.removeAt(set, i, c)));
+        minCounts.forEach((c, min) -> index.retainAtLeast(set, c, min));
+        maxCounts.forEach((c, max) -> index.retainAtMost(set, c, max));
+        return set;
+    }
+
+    /**
+     * Returns the size of the words these constraints accept.
+     *
+     * @return The word size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the letter required at each constrained position.
+     *
+     * @return An unmodifiable map from position to letter
+     */
+    public Map<Integer, Character> correct() {
+        return Collections.unmodifiableMap(correct);
+    }
+
+    /**
+     * Returns the letters excluded at each constrained position.
+     *
+     * @return An unmodifiable map from position to the letters excluded there
+     */
+    public Map<Integer, Set<Character>> excluded() {
+        return Collections.unmodifiableMap(excluded);
+    }
+
+    /**
+     * Returns the minimum number of occurrences of each constrained letter.
+     *
+     * @return An unmodifiable map from letter to minimum count
+     */
+    public Map<Character, Integer> minCounts() {
+        return Collections.unmodifiableMap(minCounts);
+    }
+
+    /**
+     * Returns the maximum number of occurrences of each constrained letter.
+     *
+     * @return An unmodifiable map from letter to maximum count
+     */
+    public Map<Character, Integer> maxCounts() {
+        return Collections.unmodifiableMap(maxCounts);
+    }
+
+    /**
+     * Checks if these constraints contradict each other.
+     *
+     * @return true if no word can satisfy these constraints
+     */
+    public boolean isContradictory() {
+        return contradictory;
+    }
+
+    /**
+     * Compares these constraints with another object for equality.
+     *
+     * @param obj The object to compare with
+     * @return true if both describe the same constraints
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Constraints)) return false;
+        Constraints other = (Constraints) obj;
+        return size == other.size && contradictory == other.contradictory
+                && correct.equals(other.correct) && excluded.equals(other.excluded)
+                && minCounts.equals(other.minCounts) && maxCounts.equals(other.maxCounts);
+    }
+
+    /**
+     * Returns a hash code for these constraints.
+     *
+     * @return A hash code value
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(size, correct, excluded, minCounts, maxCounts, contradictory);
+    }
+
+    /**
+     * Returns a string representation of these constraints.
+     *
+     * @return A string listing every constraint
+     */
+    @Override
+    public String toString() {
+        return "Constraints[correct=" + correct + ", excluded=" + excluded
+                + ", min=" + minCounts + ", max=" + maxCounts
+                + (contradictory ? ", contradictory" : "") + "]";
+    }
+}
@@ -1,9 +1,13 @@
 package matchle;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -16,23 +20,340 @@ import matchle.exception.CorpusException.EmptyCorpusException;
 
 public final class Corpus implements Iterable<NGram>, Serializable {
     private static final long serialVersionUID = 1L;
+
+    /**
+     * the order of the words in a corpus, which fixes the ordinal of each word
+     */
+    static final Comparator<NGram> ORDER = Comparator.naturalOrder();
+
+    /**
+     * system property holding the memory budget in bytes of the score cache of
+     * each corpus; the budget is not shared, so the heap held by score caches
+     * grows with the number of live corpora that were scored, each subset view
+     * being given a fraction of the budget
+     */
+    public static final String SCORE_CACHE_BYTES_PROPERTY = "matchle.scoreCache.bytes";
+
+    /**
+     * default memory budget of the score cache of each corpus, 32 MiB
+     */
+    static final long DEFAULT_SCORE_CACHE_BYTES = 32L << 20;
+
+    /**
+     * the score cache of a subset view gets this fraction of the budget, as many
+     * views may be scored and live at once, one per game
+     */
+    static final int VIEW_SCORE_CACHE_DIVISOR = 32;
     
     private final Set<NGram> corpus;
-    private final transient Map<NGram, Map<NGram, Long>> scoreCache;
+    private final transient List<NGram> words;
+    private final transient FeedbackMatrix feedbackMatrix;
+    private transient volatile ScoreCache scoreCache;
     private final transient Map<NGram, Long> worstCaseCache;
     private final transient Map<NGram, Double> averageCaseCache;
+    private transient volatile PartitionScorer partitionScorer;
+    private transient volatile long fingerprint;
+    private transient volatile CorpusIndex index;
+    // the corpus whose index answers the filters of this one, this corpus itself unless it is a subset view
+    private final transient Corpus base;
+    // the base ordinals of the words of a subset view, null if this corpus is its own base
+    private final transient BitSet members;
 
-    private Corpus(Set<NGram> corpus) {
+    private Corpus(Set<NGram> corpus, FeedbackMatrix feedbackMatrix) {
         this.corpus = Set.copyOf(corpus);
-        this.scoreCache = new ConcurrentHashMap<>();
+        this.words = this.corpus.stream().sorted(ORDER).collect(Collectors.toUnmodifiableList());
+        this.feedbackMatrix = feedbackMatrix;
+        this.worstCaseCache = new ConcurrentHashMap<>();
+        this.averageCaseCache = new ConcurrentHashMap<>();
+        this.base = this;
+        this.members = null;
+    }
+
+    /**
+     * a corpus over words that are already sorted and distinct, such as the lazily
+     * decoded words of a mapped snapshot, with a precomputed fingerprint and
+     * optionally a prebuilt index
+     */
+    private Corpus(List<NGram> words, Set<NGram> corpus, long fingerprint, CorpusIndex index) {
+        this.corpus = corpus;
+        this.words = words;
+        this.feedbackMatrix = null;
         this.worstCaseCache = new ConcurrentHashMap<>();
         this.averageCaseCache = new ConcurrentHashMap<>();
+        this.fingerprint = fingerprint;
+        this.index = index;
+        this.base = this;
+        this.members = null;
+    }
+
+    /**
+     * create a corpus over sorted, distinct words without copying them, for
+     * CorpusSnapshot; corpus must be a set view of words
+     */
+    static Corpus ofSorted(List<NGram> words, Set<NGram> corpus, long fingerprint, CorpusIndex index) {
+        return new Corpus(words, corpus, fingerprint, index);
+    }
+
+    /**
+     * a view of the words of base at the given base ordinals, which shares the
+     * base's index and feedback matrix instead of rebuilding them
+     */
+    private Corpus(Corpus base, BitSet members) {
+        this.words = members.stream().mapToObj(base.words::get).collect(Collectors.toUnmodifiableList());
+        this.corpus = Set.copyOf(words);
+        this.feedbackMatrix = base.feedbackMatrix;
+        this.worstCaseCache = new ConcurrentHashMap<>();
+        this.averageCaseCache = new ConcurrentHashMap<>();
+        this.base = base;
+        this.members = (BitSet) members.clone();
+    }
+
+    /**
+     * the caches and scorer are transient, so rebuild them after deserialization
+     */
+    private Object readResolve() {
+        return new Corpus(corpus, null);
+    }
+
+    /**
+     * a corpus over a mapped snapshot holds a set view that is not serializable,
+     * so its words are copied when it is serialized
+     */
+    private Object writeReplace() {
+        return corpus instanceof Serializable ? this : new Corpus(Set.copyOf(corpus), null);
     }
 
     public Set<NGram> corpus() {
         return corpus;
     }
 
+    /**
+     * the words of the corpus in ordinal order
+     */
+    List<NGram> words() {
+        return words;
+    }
+
+    /**
+     * return the word with the given ordinal, words are numbered in lexicographic order
+     */
+    public NGram get(int ordinal) {
+        return words.get(ordinal);
+    }
+
+    /**
+     * return the ordinal of a word, or -1 if the corpus does not contain it
+     */
+    public int ordinal(NGram ngram) {
+        int ordinal = Collections.binarySearch(words, ngram, ORDER);
+        return ordinal < 0 ? -1 : ordinal;
+    }
+
+    /**
+     * a 64-bit FNV-1a hash of the words in ordinal order, two corpora with the
+     * same words have the same fingerprint
+     */
+    public long fingerprint() {
+        long hash = fingerprint;
+        if (hash == 0) {
+            hash = 0xcbf29ce484222325L;
+            for (NGram word : words) {
+                for (int i = 0; i < word.size(); i++) {
+                    hash = (hash ^ word.charAt(i)) * 0x100000001b3L;
+                }
+                hash = (hash ^ '\n') * 0x100000001b3L;
+            }
+            fingerprint = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * return a corpus with the same words that scores guesses by looking feedback
+     * up in the given precomputed matrix, the matrix must cover every word
+     */
+    public Corpus withFeedbackMatrix(FeedbackMatrix matrix) {
+        Objects.requireNonNull(matrix, "Feedback matrix cannot be null");
+        if (!covers(matrix, corpus)) {
+            throw new CorpusException("Feedback matrix does not cover every word of the corpus");
+        }
+        return new Corpus(corpus, matrix);
+    }
+
+    /**
+     * return the precomputed feedback matrix used by this corpus, or null if there is none
+     */
+    FeedbackMatrix feedbackMatrix() {
+        return feedbackMatrix;
+    }
+
+    /**
+     * the inverted index of the corpus, built on first use
+     */
+    CorpusIndex index() {
+        CorpusIndex result = index;
+        if (result == null) {
+            synchronized (this) {
+                result = index;
+                if (result == null) {
+                    result = CorpusIndex.of(words);
+                    index = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * build the index and the scorer now rather than on first use, the corpus
+     * may be used meanwhile, uses needing them wait for them to be built
+     */
+    void prepare() {
+        index();
+        partitionScorer();
+    }
+
+    /**
+     * the scorer partitioning the words on feedback, built on first use so that
+     * a corpus over a mapped snapshot decodes its words only when scored
+     */
+    private PartitionScorer partitionScorer() {
+        PartitionScorer result = partitionScorer;
+        if (result == null) {
+            synchronized (this) {
+                result = partitionScorer;
+                if (result == null) {
+                    result = PartitionScorer.of(words, feedbackMatrix);
+                    partitionScorer = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the bounded cache of score(key, guess), allocated on first use within the
+     * budget of SCORE_CACHE_BYTES_PROPERTY, or a fraction of it for a view
+     */
+    private ScoreCache scoreCache() {
+        ScoreCache result = scoreCache;
+        if (result == null) {
+            synchronized (this) {
+                result = scoreCache;
+                if (result == null) {
+                    long budget = Long.getLong(SCORE_CACHE_BYTES_PROPERTY, DEFAULT_SCORE_CACHE_BYTES);
+                    if (members != null) {
+                        budget /= VIEW_SCORE_CACHE_DIVISOR;
+                    }
+                    result = ScoreCache.withBudget(budget, (long) words.size() * words.size());
+                    scoreCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * return the hit, miss and eviction counters of the score cache
+     */
+    public ScoreCache.Stats scoreCacheStats() {
+        return scoreCache().stats();
+    }
+
+    /**
+     * the words at the ordinals set in a bitset of the base corpus
+     */
+    private Set<NGram> wordsAt(BitSet baseOrdinals) {
+        return baseOrdinals.stream().mapToObj(base.words::get).collect(Collectors.toSet());
+    }
+
+    /**
+     * the base ordinals of the words of this corpus satisfying the constraints,
+     * answered from the index of the base corpus
+     */
+    private BitSet select(Constraints constraints) {
+        BitSet selected = constraints.select(base.index());
+        if (members != null) {
+            selected.and(members);
+        }
+        return selected;
+    }
+
+    /**
+     * the ordinals among the given ones whose words pass the filter, so that a
+     * caller narrowing candidates round by round only tests the survivors against
+     * the newest filter
+     */
+    BitSet select(Filter filter, BitSet ordinals) {
+        BitSet selected;
+        if (members == null && isIndexed(filter)) {
+            selected = select(filter.constraints().get());
+            selected.and(ordinals);
+        } else {
+            selected = new BitSet(words.size());
+            ordinals.stream().filter(i -> filter.test(words.get(i))).forEach(selected::set);
+        }
+        return selected;
+    }
+
+    /**
+     * return the bitset of all ordinals of this corpus
+     */
+    BitSet allOrdinals() {
+        BitSet all = new BitSet(words.size());
+        all.set(0, words.size());
+        return all;
+    }
+
+    /**
+     * return a view of the words at the given ordinals, it shares the index and
+     * feedback matrix of this corpus' base, or null if no ordinal is set
+     */
+    Corpus subset(BitSet ordinals) {
+        if (ordinals.isEmpty()) {
+            return null;
+        }
+        if (members == null) {
+            return new Corpus(this, ordinals);
+        }
+        BitSet baseOrdinals = new BitSet();
+        int ordinal = 0;
+        for (int i = members.nextSetBit(0); i >= 0; i = members.nextSetBit(i + 1), ordinal++) {
+            if (ordinals.get(ordinal)) {
+                baseOrdinals.set(i);
+            }
+        }
+        return base.subset(baseOrdinals);
+    }
+
+    /**
+     * return the ordinals of the words of this corpus in its base, the corpus it
+     * is a view of, or in itself if it is no view
+     */
+    BitSet baseOrdinals() {
+        return members == null ? allOrdinals() : (BitSet) members.clone();
+    }
+
+    /**
+     * whether this corpus and another have the same base, so that their base
+     * ordinals number the same words
+     */
+    boolean sharesBase(Corpus other) {
+        return base == other.base;
+    }
+
+    /**
+     * whether the filter has constraints on words of this corpus' word size, in
+     * which case the index can answer it
+     */
+    private boolean isIndexed(Filter filter) {
+        return filter.constraints().filter(c -> c.size() == wordSize()).isPresent();
+    }
+
+    private static boolean covers(FeedbackMatrix matrix, Collection<NGram> ngrams) {
+        return ngrams.stream().allMatch(ngram -> matrix.ordinal(ngram) >= 0);
+    }
+
     public int wordSize() {
         return corpus.isEmpty() ? 0 : corpus.iterator().next().size();
     }
@@ -46,40 +367,55 @@ public final class Corpus implements Iterable<NGram>, Serializable {
     }
 
     public long size(Filter filter) {
+        if (isIndexed(filter)) {
+            return select(filter.constraints().get()).cardinality();
+        }
         return corpus.stream().filter(filter::test).count();
     }
 
     @Override
     public Iterator<NGram> iterator() {
-        return corpus.iterator();
+        return words.iterator();
     }
 
     // add stream into corpus
     public java.util.stream.Stream<NGram> stream() {
-        return corpus.stream();
+        return words.stream();
     }
 
     // ---------------- new added function for hw4 ----------------
 
     /**
-     * optimized score method, use cache to improve performance
+     * number of words left if key is the secret and guess is played, i.e. the
+     * number of words giving the same feedback as key, use cache to improve performance
      */
     public long score(NGram key, NGram guess) {
         if (corpus.isEmpty()) {
             throw new EmptyCorpusException();
         }
         
-        // use computeIfAbsent in a single operation
-        return scoreCache
-            .computeIfAbsent(key, k -> new ConcurrentHashMap<>())
-            .computeIfAbsent(guess, g -> {
-                Filter filter = NGramMatcher.of(key, g).match();
-                return corpus.stream().filter(filter::test).count();
-            });
+        int keyOrdinal = ordinal(key);
+        int guessOrdinal = ordinal(guess);
+        if (keyOrdinal < 0 || guessOrdinal < 0) {
+            // only pairs of corpus words are cached
+            return countSameFeedback(key, guess);
+        }
+        return scoreCache().computeIfAbsent(keyOrdinal, guessOrdinal, () -> countSameFeedback(key, guess));
+    }
+
+    /**
+     * number of words giving the same feedback for guess as key, answered from the index
+     */
+    private long countSameFeedback(NGram key, NGram guess) {
+        if (key.size() != guess.size() || guess.size() != wordSize()) {
+            return 0;
+        }
+        return select(Constraints.fromFeedback(guess, NGramMatcher.feedbackCode(key, guess))).cardinality();
     }
     
     /**
-     * optimized scoreWorstCase method, use cache and parallel computation
+     * worst-case score of a guess: the size of the largest group of keys sharing
+     * the same feedback, computed in one pass over the corpus
      */
     public long scoreWorstCase(NGram guess) {
         if (corpus.isEmpty()) {
@@ -91,12 +427,7 @@ public final class Corpus implements Iterable<NGram>, Serializable {
             return worstCaseCache.get(guess);
         }
         
-        // use parallel stream to improve performance
-        long worst = corpus.stream()
-                .parallel()
-                .mapToLong(key -> score(key, guess))
-                .max()
-                .orElse(0);
+        long worst = partitionScorer().worstCase(guess);
                 
         // put into cache
         worstCaseCache.put(guess, worst);
@@ -105,7 +436,8 @@ public final class Corpus implements Iterable<NGram>, Serializable {
     }
     
     /**
-     * optimized scoreAverageCase method, use cache and parallel computation
+     * average-case score of a guess: the sum of squared feedback group sizes
+     * divided by the corpus size, computed in one pass over the corpus
      */
     public double scoreAverageCase(NGram guess) {
         if (corpus.isEmpty()) {
@@ -117,12 +449,7 @@ public final class Corpus implements Iterable<NGram>, Serializable {
             return averageCaseCache.get(guess);
         }
         
-        // use parallel stream to improve performance
-        double average = corpus.stream()
-                .parallel()
-                .mapToLong(key -> score(key, guess))
-                .average()
-                .orElse(0);
+        double average = partitionScorer().averageCase(guess);
                 
         // put into cache
         averageCaseCache.put(guess, average);
@@ -131,45 +458,46 @@ public final class Corpus implements Iterable<NGram>, Serializable {
     }
 
     /**
-     * a general method to replace the repeated code in bestWorstCaseGuess and bestAverageCaseGuess
+     * the sizes of the groups of words sharing the same feedback for a guess, in
+     * no particular order, computed in one pass over the corpus; empty if the guess
+     * does not have the corpus' word size
+     */
+    public int[] feedbackPartition(NGram guess) {
+        Objects.requireNonNull(guess, "Guess cannot be null");
+        return partitionScorer().partition(guess);
+    }
+
+    /**
+     * a general method to replace the repeated code in bestWorstCaseGuess and bestAverageCaseGuess,
+     * guesses are scored in parallel since each one is an independent pass over the corpus
      * @param <T> the type of the score
      * @param scoreFunction the function to calculate the score
-     * @param comparator the comparator to compare the score
      * @return the best guess
      */
-    private <T extends Comparable<T>> NGram findBestGuess(
-            Function<NGram, T> scoreFunction, 
-            T initialBestScore) {
-        
+    private <T extends Comparable<T>> NGram findBestGuess(Function<NGram, T> scoreFunction) {
         if (corpus.isEmpty()) {
             throw new EmptyCorpusException();
         }
         
-        NGram best = null;
-        T bestScore = initialBestScore;
-        
-        for (NGram guess : corpus) {
-            T score = scoreFunction.apply(guess);
-            if (best == null || score.compareTo(bestScore) < 0) {
-                bestScore = score;
-                best = guess;
-            }
-        }
-        return best;
+        return words.parallelStream()
+                .map(guess -> Map.entry(guess, scoreFunction.apply(guess)))
+                .min(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElseThrow(EmptyCorpusException::new);
     }
 
     /**
      * return the best worst-case guess
      */
     public NGram bestWorstCaseGuess() {
-        return findBestGuess(this::scoreWorstCase, Long.MAX_VALUE);
+        return findBestGuess(this::scoreWorstCase);
     }
 
     /**
      * return the best average-case guess
      */
     public NGram bestAverageCaseGuess() {
-        return findBestGuess(this::scoreAverageCase, Double.MAX_VALUE);
+        return findBestGuess(this::scoreAverageCase);
     }
 
     /**
@@ -184,7 +512,7 @@ public final class Corpus implements Iterable<NGram>, Serializable {
         }
         NGram best = null;
         long bestScore = Long.MAX_VALUE;
-        for (NGram guess : corpus) {
+        for (NGram guess : words) {
             long score = criterion.applyAsLong(guess);
             if (score < bestScore) {
                 bestScore = score;
@@ -198,17 +526,28 @@ public final class Corpus implements Iterable<NGram>, Serializable {
 
     public static final class Builder {
         private final Set<NGram> ngrams;
+        // feedback matrix of the corpus this builder started from, reused by the built corpus if it still covers it
+        private final FeedbackMatrix feedbackMatrix;
+        // the corpus this builder started from while it still holds exactly its words, so its index can filter them
+        private Corpus source;
 
         // use the constructor with parameters
         private Builder(Set<NGram> ngrams) {
+            this(ngrams, null);
+        }
+
+        private Builder(Set<NGram> ngrams, FeedbackMatrix feedbackMatrix) {
             this.ngrams = new HashSet<>(ngrams);
+            this.feedbackMatrix = feedbackMatrix;
         }
         
         public static final Builder EMPTY = new Builder(new HashSet<>());
         
         public static final Builder of(Corpus corpus) {
             Objects.requireNonNull(corpus, "Corpus cannot be null");
-            return new Builder(corpus.corpus());
+            Builder builder = new Builder(corpus.corpus(), corpus.feedbackMatrix());
+            builder.source = corpus;
+            return builder;
         }
         
         public static Builder of() {
@@ -217,24 +556,40 @@ public final class Corpus implements Iterable<NGram>, Serializable {
         
         public Builder add(NGram ngram) {
             Objects.requireNonNull(ngram, "NGram cannot be null");
-            ngrams.add(ngram);
+            if (ngrams.add(ngram)) {
+                source = null;
+            }
             return this;
         }
         
         public Builder addAll(Collection<NGram> ngramsCollection) {
             Objects.requireNonNull(ngramsCollection, "Collection cannot be null");
-            ngrams.addAll(
+            boolean changed = ngrams.addAll(
                 ngramsCollection.stream()
                     .filter(Objects::nonNull)
                     .collect(Collectors.toSet())
             );
+            if (changed) {
+                source = null;
+            }
             return this;
         }
         
         public Builder filter(Filter filter) {
-            return new Builder(ngrams.stream().filter(filter::test).collect(Collectors.toSet()));
+            if (source != null && source.isIndexed(filter)) {
+                BitSet selected = source.select(filter.constraints().get());
+                return new Builder(source.wordsAt(selected), feedbackMatrix);
+            }
+            return new Builder(ngrams.stream().filter(filter::test).collect(Collectors.toSet()), feedbackMatrix);
         }
         
+        /**
+         * number of distinct n-grams added so far
+         */
+        public int size() {
+            return ngrams.size();
+        }
+
         public boolean isConsistent(Integer wordSize) {
             return ngrams.stream().allMatch(ngram -> ngram.size() == wordSize);
         }
@@ -248,7 +603,10 @@ public final class Corpus implements Iterable<NGram>, Serializable {
                 throw new CorpusException.InconsistentWordSizeException();
             }
             
-            return new Corpus(ngrams);
+            boolean reuseMatrix = feedbackMatrix != null
+                    && feedbackMatrix.wordSize() == wordSize()
+                    && covers(feedbackMatrix, ngrams);
+            return new Corpus(ngrams, reuseMatrix ? feedbackMatrix : null);
         }
         
         private int wordSize() {
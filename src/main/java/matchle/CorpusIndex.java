@@ -0,0 +1,205 @@
+package matchle;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index over the words of a corpus, answering feedback constraints
+ * with bitset operations instead of testing every word.
+ * <p>
+ * Words are identified by their ordinal in the corpus. The index holds one bitset
+ * per (position, letter) pair, with the words having that letter at that position,
+ * and one bitset per (letter, minimum count) pair, with the words containing the
+ * letter at least that many times. A constraint such as "letter at position",
+ * "letter not at position", "at least n of a letter" or "at most n of a letter"
+ * is then a single AND or AND-NOT over the candidate bitset, which processes 64
+ * words per machine word.
+ * <p>
+ * Instances are immutable once built and thread-safe; the bitsets handed to the
+ * {@code retain}/{@code remove} methods belong to the caller.
+ */
+final class CorpusIndex {
+    /** Number of indexed words */
+    private final int size;
+
+    /** For each position, the words having each letter at that position */
+    private final List<Map<Character, BitSet>> byPosition;
+
+    /** For each letter, the words containing it at least {@code i + 1} times at list index {@code i} */
+    private final Map<Character, List<BitSet>> byMinCount;
+
+    private CorpusIndex(int size, List<Map<Character, BitSet>> byPosition,
+                        Map<Character, List<BitSet>> byMinCount) {
+        this.size = size;
+        this.byPosition = byPosition;
+        this.byMinCount = byMinCount;
+    }
+
+    /**
+     * Builds the index of a list of words, in one pass over their letters.
+     *
+     * @param words The words to index, the list index being the word ordinal
+     * @return A new CorpusIndex
+     */
+    static CorpusIndex of(List<NGram> words) {
+        List<Map<Character, BitSet>> byPosition = new ArrayList<>();
+        Map<Character, List<BitSet>> byMinCount = new HashMap<>();
+        Map<Character, Integer> counts = new HashMap<>();
+        for (int ordinal = 0; ordinal < words.size(); ordinal++) {
+            NGram word = words.get(ordinal);
+            counts.clear();
+            for (int i = 0; i < word.size(); i++) {
+                char c = word.charAt(i);
+                while (byPosition.size() <= i) {
+                    byPosition.add(new HashMap<>());
+                }
+                byPosition.get(i).computeIfAbsent(c, k -> new BitSet()).set(ordinal);
+
+                int count = counts.merge(c, 1, Integer::sum);
+                List<BitSet> atLeast = byMinCount.computeIfAbsent(c, k -> new ArrayList<>());
+                if (atLeast.size() < count) {
+                    atLeast.add(new BitSet());
+                }
+                atLeast.get(count - 1).set(ordinal);
+            }
+        }
+        return new CorpusIndex(words.size(), byPosition, byMinCount);
+    }
+
+    /**
+     * Creates an index from prebuilt bitsets, such as the ones stored in a
+     * {@link CorpusSnapshot}.
+     *
+     * @param size Number of indexed words
+     * @param byPosition For each position, the words having each letter at that position
+     * @param byMinCount For each letter, the words containing it at least {@code i + 1}
+     *                   times at list index {@code i}, without trailing empty bitsets
+     * @return A new CorpusIndex
+     */
+    static CorpusIndex of(int size, List<Map<Character, BitSet>> byPosition,
+                          Map<Character, List<BitSet>> byMinCount) {
+        return new CorpusIndex(size, byPosition, byMinCount);
+    }
+
+    /**
+     * Returns the words having the letter at the position.
+     *
+     * @param index The position
+     * @param c The letter
+     * @return A new bitset of the matching ordinals
+     */
+    BitSet at(int index, char c) {
+        BitSet words = index < byPosition.size() ? byPosition.get(index).get(c) : null;
+        return words == null ? new BitSet() : (BitSet) words.clone();
+    }
+
+    /**
+     * Returns the words containing the letter at least {@code min} times.
+     *
+     * @param c The letter
+     * @param min The minimum number of occurrences, at least 1
+     * @return A new bitset of the matching ordinals
+     */
+    BitSet atLeast(char c, int min) {
+        List<BitSet> atLeast = byMinCount.get(c);
+        return atLeast == null || atLeast.size() < min ? new BitSet() : (BitSet) atLeast.get(min - 1).clone();
+    }
+
+    /**
+     * Returns the number of indexed words.
+     *
+     * @return The number of words
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a new bitset holding every indexed word.
+     *
+     * @return A bitset with the bits of all ordinals set
+     */
+    BitSet all() {
+        BitSet all = new BitSet(size);
+        all.set(0, size);
+        return all;
+    }
+
+    /**
+     * Keeps only the words having the letter at the position.
+     *
+     * @param set The candidate bitset to narrow
+     * @param index The position
+     * @param c The letter
+     */
+    void retainAt(BitSet set, int index, char c) {
+        BitSet words = index < byPosition.size() ? byPosition.get(index).get(c) : null;
+        if (words == null) {
+            set.clear();
+        } else {
+            set.and(words);
+        }
+    }
+
+    /**
+     * Removes the words having the letter at the position.
+     *
+     * @param set The candidate bitset to narrow
+     * @param index The position
+     * @param c The letter
+     */
+    void removeAt(BitSet set, int index, char c) {
+        BitSet words = index < byPosition.size() ? byPosition.get(index).get(c) : null;
+        if (words != null) {
+            set.andNot(words);
+        }
+    }
+
+    /**
+     * Keeps only the words containing the letter at least {@code min} times.
+     *
+     * @param set The candidate bitset to narrow
+     * @param c The letter
+     * @param min The minimum number of occurrences
+     */
+    void retainAtLeast(BitSet set, char c, int min) {
+        if (min <= 0) {
+            return;
+        }
+        List<BitSet> atLeast = byMinCount.get(c);
+        if (atLeast == null || atLeast.size() < min) {
+            set.clear();
+        } else {
+            set.and(atLeast.get(min - 1));
+        }
+    }
+
+    /**
+     * Keeps only the words containing the letter at most {@code max} times.
+     *
+     * @param set The candidate bitset to narrow
+     * @param c The letter
+     * @param max The maximum number of occurrences
+     */
+    void retainAtMost(BitSet set, char c, int max) {
+        List<BitSet> atLeast = byMinCount.get(c);
+        if (atLeast != null && atLeast.size() > max) {
+            set.andNot(atLeast.get(max));
+        }
+    }
+
+    /**
+     * Selects the words that would produce the given feedback for the guess.
+     *
+     * @param guess The guess
+     * @param code The feedback code, as computed by {@link NGramMatcher#feedbackCode}
+     * @return A new bitset of the ordinals of the matching words
+     * @see Constraints#fromFeedback
+     */
+    BitSet select(NGram guess, int code) {
+        return Constraints.fromFeedback(guess, code).select(this);
+    }
+}
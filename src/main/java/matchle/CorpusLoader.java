@@ -1,24 +1,72 @@
 package matchle;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import matchle.exception.CorpusException;
 
 /**
  * Utility class for loading word corpora from various sources
+ * <p>
+ * Word lists hold one word per line. Every loader parses its source as a stream:
+ * each line is trimmed and lowercased, and kept only if it has the requested
+ * length and consists of the letters {@code a} to {@code z}. Kept words go
+ * straight into the corpus, which drops duplicates, until an optional limit of
+ * distinct words is reached.
+ * <p>
+ * The asynchronous loaders return at once with a future of the corpus, so a
+ * game can start on a small corpus while a large one is fetched. Their future
+ * completes as soon as the words are read; the index and feedback tables of the
+ * corpus are then built in the background, and a game may already be played on
+ * it meanwhile.
  */
 public class CorpusLoader {
 
+    /** Limit meaning that every valid word of the source is loaded */
+    public static final int NO_LIMIT = -1;
+
+    /** Number of words loaded by {@link #loadEnglishWords(int)} */
+    static final int ENGLISH_WORDS_LIMIT = 300;
+
+    /** Location of the English word list downloaded by {@link #loadEnglishWords(int)} */
+    private static final String ENGLISH_WORDS_URL =
+            "https://raw.githubusercontent.com/dwyl/english-words/master/words_alpha.txt";
+
+    /** Daemon threads running the asynchronous loaders, so that pending loads never keep the JVM alive */
+    private static final ExecutorService LOADER = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "matchle-corpus-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * A loader that may fail with an I/O error.
+     */
+    @FunctionalInterface
+    private interface Load {
+        Corpus load() throws IOException;
+    }
+
     /**
      * Downloads an English word list from a specified URL and constructs a Corpus
      * containing only words of the specified length.
-     * 
+     *
      * @param wordLength The required word length (e.g., 5)
      * @return A constructed Corpus, or null if no valid words are found
-     * 
+     *
      * Implementation details:
      * 1. Downloads word list from GitHub
      * 2. Filters for words of exact length
@@ -26,27 +74,204 @@ public class CorpusLoader {
      * 4. Converts to lowercase and creates NGrams
      */
     public static Corpus loadEnglishWords(int wordLength) {
-        List<NGram> ngrams = new ArrayList<>();
-        try {
-            // use a smaller word list URL
-            URL url = new URL("https://raw.githubusercontent.com/dwyl/english-words/master/words_alpha.txt");
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream()))) {
-                ngrams = reader.lines()
-                        .map(String::trim)
-                        .filter(word -> word.length() == wordLength) // filter words of exact length
-                        .map(String::toLowerCase)
-                        .limit(300)  // limit to the first 300 words
-                        .map(NGram::from)
-                        .collect(Collectors.toList());
-            }
+        try (InputStream in = new URL(ENGLISH_WORDS_URL).openStream()) {
+            return load(in, wordLength, ENGLISH_WORDS_LIMIT);
         } catch (Exception e) {
             e.printStackTrace();
-        }
-        
-        if (ngrams.isEmpty()) {
             return null;
         }
-        
-        return Corpus.Builder.of().addAll(ngrams).build();
+    }
+
+    /**
+     * Downloads the English word list of {@link #loadEnglishWords(int)} in the
+     * background.
+     *
+     * @param wordLength The required word length
+     * @return A future of the corpus, completed exceptionally with a
+     *         {@link CorpusException} if no word could be loaded
+     */
+    public static CompletableFuture<Corpus> loadEnglishWordsAsync(int wordLength) {
+        return loadAsync(() -> loadEnglishWords(wordLength), "English words of length " + wordLength);
+    }
+
+    /**
+     * Loads the words of the specified length from a local word list file in the
+     * background, as by {@link #loadMapped(Path, int)}.
+     *
+     * @param file The word list, one word per line
+     * @param wordLength The required word length
+     * @return A future of the corpus, completed exceptionally with an
+     *         {@link IOException} if the file cannot be read, or a
+     *         {@link CorpusException} if it has no valid word
+     */
+    public static CompletableFuture<Corpus> loadFileAsync(Path file, int wordLength) {
+        Objects.requireNonNull(file, "File cannot be null");
+        return loadAsync(() -> loadMapped(file, wordLength), "words of length " + wordLength + " in " + file);
+    }
+
+    /**
+     * Builds the index and feedback tables of a corpus in the background. The
+     * corpus may be used meanwhile; the first filter or score needing them waits
+     * for them instead of building them again.
+     *
+     * @param corpus The corpus to prepare
+     * @return A future completed with the corpus once it is prepared
+     */
+    public static CompletableFuture<Corpus> prepareAsync(Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return CompletableFuture.supplyAsync(() -> {
+            corpus.prepare();
+            return corpus;
+        }, LOADER);
+    }
+
+    private static CompletableFuture<Corpus> loadAsync(Load load, String description) {
+        CompletableFuture<Corpus> loaded = CompletableFuture.supplyAsync(() -> {
+            Corpus corpus;
+            try {
+                corpus = load.load();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+            if (corpus == null) {
+                throw new CorpusException("No " + description);
+            }
+            return corpus;
+        }, LOADER);
+        loaded.thenAccept(CorpusLoader::prepareAsync);
+        return loaded;
+    }
+
+    /**
+     * Loads the words of the specified length from a local word list file.
+     *
+     * @param file The word list, in UTF-8 with one word per line
+     * @param wordLength The required word length
+     * @param limit The maximum number of distinct words to load, or {@link #NO_LIMIT}
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the file cannot be read
+     */
+    public static Corpus loadFile(Path file, int wordLength, int limit) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        try (InputStream in = Files.newInputStream(file)) {
+            return load(in, wordLength, limit);
+        }
+    }
+
+    /**
+     * Loads the words of the specified length from a word list on the classpath.
+     *
+     * @param name The resource name of the word list, such as {@code "words/english.txt"}
+     * @param wordLength The required word length
+     * @param limit The maximum number of distinct words to load, or {@link #NO_LIMIT}
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the resource does not exist or cannot be read
+     */
+    public static Corpus loadResource(String name, int wordLength, int limit) throws IOException {
+        return loadResource(CorpusLoader.class.getClassLoader(), name, wordLength, limit);
+    }
+
+    /**
+     * Loads the words of the specified length from a word list resource of a class loader.
+     *
+     * @param loader The class loader to find the resource with
+     * @param name The resource name of the word list
+     * @param wordLength The required word length
+     * @param limit The maximum number of distinct words to load, or {@link #NO_LIMIT}
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the resource does not exist or cannot be read
+     */
+    public static Corpus loadResource(ClassLoader loader, String name, int wordLength, int limit)
+            throws IOException {
+        Objects.requireNonNull(loader, "Class loader cannot be null");
+        Objects.requireNonNull(name, "Resource name cannot be null");
+        InputStream in = loader.getResourceAsStream(name);
+        if (in == null) {
+            throw new FileNotFoundException("Word list resource not found: " + name);
+        }
+        try (in) {
+            return load(in, wordLength, limit);
+        }
+    }
+
+    /**
+     * Loads the words of the specified length from a stream, reading it line by
+     * line. The stream is not closed.
+     *
+     * @param in The word list, in UTF-8 with one word per line
+     * @param wordLength The required word length
+     * @param limit The maximum number of distinct words to load, or {@link #NO_LIMIT}
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the stream cannot be read
+     * @throws IllegalArgumentException if the limit is neither positive nor {@link #NO_LIMIT}
+     */
+    public static Corpus load(InputStream in, int wordLength, int limit) throws IOException {
+        Objects.requireNonNull(in, "Input stream cannot be null");
+        if (limit <= 0 && limit != NO_LIMIT) {
+            throw new IllegalArgumentException("Limit must be positive or NO_LIMIT: " + limit);
+        }
+        Corpus.Builder builder = Corpus.Builder.of();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((limit == NO_LIMIT || builder.size() < limit) && (line = reader.readLine()) != null) {
+            String word = line.trim().toLowerCase(Locale.ROOT);
+            if (word.length() == wordLength && isWord(word)) {
+                builder.add(NGram.from(word));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Loads every word of the specified length from a local word list file,
+     * parsing chunks of the memory-mapped file in parallel on the common
+     * fork-join pool. This suits word lists of millions of lines, whose load time
+     * then scales with the number of cores.
+     *
+     * @param file The word list, one word per line
+     * @param wordLength The required word length
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the file cannot be read
+     */
+    public static Corpus loadMapped(Path file, int wordLength) throws IOException {
+        return loadMapped(file, wordLength, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads every word of the specified length from a local word list file,
+     * parsing chunks of the memory-mapped file in parallel on the given pool.
+     * Lines are filtered as by the other loaders, but parsed byte by byte into
+     * packed words without decoding them to strings, so a line in a multi-byte
+     * encoding is never a word. Words longer than
+     * {@link NGram#MAX_PACKED_LENGTH} cannot be packed and are loaded with
+     * {@link #loadFile} instead.
+     *
+     * @param file The word list, one word per line
+     * @param wordLength The required word length
+     * @param pool The pool to parse the chunks on
+     * @return A constructed Corpus, or null if no valid words are found
+     * @throws IOException If the file cannot be read
+     */
+    public static Corpus loadMapped(Path file, int wordLength, ForkJoinPool pool) throws IOException {
+        Objects.requireNonNull(file, "File cannot be null");
+        Objects.requireNonNull(pool, "Pool cannot be null");
+        if (wordLength > NGram.MAX_PACKED_LENGTH) {
+            return loadFile(file, wordLength, NO_LIMIT);
+        }
+        // the parser returns the words sorted and distinct, so they need no set or sort
+        return CorpusSnapshot.ofPacked(MappedWordParser.parse(file, wordLength, pool), pool);
+    }
+
+    /**
+     * whether a lowercased line consists only of the letters a to z
+     */
+    static boolean isWord(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return false;
+            }
+        }
+        return !word.isEmpty();
     }
 }
@@ -0,0 +1,354 @@
+package matchle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import matchle.exception.CorpusException;
+import matchle.util.MatchleUtils;
+
+/**
+ * A compact binary file format for corpora, loaded by memory-mapping the file.
+ * <p>
+ * Parsing a text word list creates an object per line and sorts the words; a
+ * snapshot stores the words already packed and sorted, so loading it only maps
+ * the file. The format is little-endian:
+ * <ul>
+ *   <li>a 32-byte header: magic number, version, word size, word count, flags,
+ *       alphabet length and corpus fingerprint</li>
+ *   <li>the alphabet, one byte per letter, padded to a multiple of 8 bytes</li>
+ *   <li>the words in ordinal order, each packed into 8 bytes as by {@link NGram}</li>
+ *   <li>optionally, the bitsets of the corpus index: for each position and letter
+ *       the words having the letter there, then for each letter and count the
+ *       words containing the letter at least that many times</li>
+ * </ul>
+ * The corpus returned by {@link #load} reads the packed words straight from the
+ * mapped file and decodes a word into an {@link NGram} only when it is accessed.
+ * <p>
+ * Snapshots can be written from a text word list from the command line:
+ * {@code java matchle.CorpusSnapshot <word-list> <word-length> <snapshot> [--index]}.
+ */
+public final class CorpusSnapshot {
+    /** Magic number identifying a corpus snapshot file ("MCSN") */
+    private static final int MAGIC = 0x4E53434D;
+
+    /** Version of the file format */
+    private static final int VERSION = 1;
+
+    /** Size of the file header in bytes */
+    private static final int HEADER_BYTES = 32;
+
+    /** Flag set when the file holds the index bitsets */
+    private static final int FLAG_INDEX = 1;
+
+    /** The letters packed words are made of, in packing order */
+    static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    private CorpusSnapshot() {
+        // static utility, not instantiable
+    }
+
+    /**
+     * Writes a snapshot of a corpus. The file is written next to its destination
+     * and moved into place, so a concurrent reader never maps a partial snapshot.
+     *
+     * @param corpus The corpus to write
+     * @param file The snapshot file
+     * @param withIndex Whether to store the index, so that loading skips building it
+     * @throws IOException If an I/O error occurs during writing
+     * @throws CorpusException if a word cannot be packed, i.e. it is longer than
+     *         {@link NGram#MAX_PACKED_LENGTH} or has letters outside the alphabet
+     */
+    public static void write(Corpus corpus, Path file, boolean withIndex) throws IOException {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        int count = corpus.size();
+        int wordSize = corpus.wordSize();
+        int alphabetBytes = padded(ALPHABET.length());
+        long bytes = HEADER_BYTES + alphabetBytes + 8L * count
+                + (withIndex ? indexBytes(count, wordSize) : 0);
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(bytes)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(wordSize).putInt(count)
+                .putInt(withIndex ? FLAG_INDEX : 0).putInt(ALPHABET.length()).putLong(corpus.fingerprint());
+        buffer.put(ALPHABET.getBytes(StandardCharsets.US_ASCII));
+        buffer.position(HEADER_BYTES + alphabetBytes);
+        for (NGram word : corpus) {
+            long packed = word.packed();
+            if (packed == NGram.NOT_PACKED) {
+                throw new CorpusException("Snapshots support words of at most " + NGram.MAX_PACKED_LENGTH
+                        + " letters from '" + ALPHABET + "', not: " + word);
+            }
+            buffer.putLong(packed);
+        }
+        if (withIndex) {
+            CorpusIndex index = corpus.index();
+            int bitsetLongs = bitsetLongs(count);
+            for (int i = 0; i < wordSize; i++) {
+                for (char c : ALPHABET.toCharArray()) {
+                    putBitSet(buffer, index.at(i, c), bitsetLongs);
+                }
+            }
+            for (char c : ALPHABET.toCharArray()) {
+                for (int min = 1; min <= wordSize; min++) {
+                    putBitSet(buffer, index.atLeast(c, min), bitsetLongs);
+                }
+            }
+        }
+        buffer.flip();
+
+        MatchleUtils.writeAtomically(file, buffer);
+    }
+
+    /**
+     * Writes a snapshot of the words of a given length in a text word list.
+     *
+     * @param wordList The word list, one word per line
+     * @param wordLength The required word length
+     * @param file The snapshot file
+     * @param withIndex Whether to store the index
+     * @return The corpus that was written
+     * @throws IOException If the word list cannot be read or the snapshot written
+     * @throws CorpusException if the word list holds no word of that length
+     */
+    public static Corpus writeFromWordList(Path wordList, int wordLength, Path file, boolean withIndex)
+            throws IOException {
+        Corpus corpus = CorpusLoader.loadMapped(wordList, wordLength);
+        if (corpus == null) {
+            throw new CorpusException("No word of length " + wordLength + " in " + wordList);
+        }
+        write(corpus, file, withIndex);
+        return corpus;
+    }
+
+    /**
+     * Creates a corpus over words packed as by {@link NGram#packed()}, already
+     * sorted and distinct, without hashing or sorting them again. The words are
+     * decoded in parallel on the given pool, and the corpus answers whether it
+     * contains a word by binary search over the packed words.
+     *
+     * @param packed The sorted, distinct packed words, all of the same size
+     * @param pool The pool to decode the words on
+     * @return The corpus, or null if there is no word
+     */
+    static Corpus ofPacked(long[] packed, ForkJoinPool pool) {
+        if (packed.length == 0) {
+            return null;
+        }
+        List<NGram> words = pool.submit(() -> Arrays.stream(packed).parallel()
+                .mapToObj(NGram::fromPacked)
+                .toList()).join();
+        return Corpus.ofSorted(words, new PackedWordSet(new PackedWordList(LongBuffer.wrap(packed))), 0, null);
+    }
+
+    /**
+     * Maps a snapshot file and returns a corpus reading its words from the mapping.
+     *
+     * @param file The snapshot file
+     * @return A Corpus backed by the mapped file, whose words are decoded on access
+     * @throws IOException If the file cannot be read or is not a valid snapshot
+     */
+    public static Corpus load(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IOException("Not a corpus snapshot file: " + file);
+        }
+        int wordSize = mapped.getInt(8);
+        int count = mapped.getInt(12);
+        boolean withIndex = (mapped.getInt(16) & FLAG_INDEX) != 0;
+        int alphabetLength = mapped.getInt(20);
+        long fingerprint = mapped.getLong(24);
+        int alphabetBytes = padded(alphabetLength);
+        if (alphabetLength != ALPHABET.length() || mapped.limit() < HEADER_BYTES + alphabetBytes) {
+            throw new IOException("Unsupported alphabet in corpus snapshot: " + file);
+        }
+        byte[] alphabet = new byte[alphabetLength];
+        mapped.get(HEADER_BYTES, alphabet);
+        if (!ALPHABET.equals(new String(alphabet, StandardCharsets.US_ASCII))) {
+            throw new IOException("Unsupported alphabet in corpus snapshot: " + file);
+        }
+        long wordsStart = HEADER_BYTES + alphabetBytes;
+        long expected = wordsStart + 8L * count + (withIndex ? indexBytes(count, wordSize) : 0);
+        if (count < 0 || mapped.limit() != expected) {
+            throw new IOException("Truncated corpus snapshot file: " + file);
+        }
+        if (count == 0) {
+            return null;
+        }
+
+        LongBuffer packed = mapped.slice((int) wordsStart, 8 * count)
+                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        PackedWordList words = new PackedWordList(packed);
+        CorpusIndex index = null;
+        if (withIndex) {
+            ByteBuffer bitsets = mapped.slice((int) (wordsStart + 8L * count), (int) indexBytes(count, wordSize))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            index = readIndex(bitsets, count, wordSize);
+        }
+        return Corpus.ofSorted(words, new PackedWordSet(words), fingerprint, index);
+    }
+
+    private static CorpusIndex readIndex(ByteBuffer bitsets, int count, int wordSize) {
+        int bitsetLongs = bitsetLongs(count);
+        List<Map<Character, BitSet>> byPosition = new ArrayList<>();
+        for (int i = 0; i < wordSize; i++) {
+            Map<Character, BitSet> letters = new HashMap<>();
+            for (char c : ALPHABET.toCharArray()) {
+                BitSet words = getBitSet(bitsets, bitsetLongs);
+                if (!words.isEmpty()) {
+                    letters.put(c, words);
+                }
+            }
+            byPosition.add(letters);
+        }
+        Map<Character, List<BitSet>> byMinCount = new HashMap<>();
+        for (char c : ALPHABET.toCharArray()) {
+            List<BitSet> atLeast = new ArrayList<>();
+            for (int min = 1; min <= wordSize; min++) {
+                BitSet words = getBitSet(bitsets, bitsetLongs);
+                if (!words.isEmpty()) {
+                    atLeast.add(words);
+                }
+            }
+            if (!atLeast.isEmpty()) {
+                byMinCount.put(c, atLeast);
+            }
+        }
+        return CorpusIndex.of(count, byPosition, byMinCount);
+    }
+
+    private static void putBitSet(ByteBuffer buffer, BitSet bits, int longs) {
+        long[] words = bits.toLongArray();
+        for (int i = 0; i < longs; i++) {
+            buffer.putLong(i < words.length ? words[i] : 0L);
+        }
+    }
+
+    private static BitSet getBitSet(ByteBuffer buffer, int longs) {
+        LongBuffer words = buffer.slice(buffer.position(), 8 * longs).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        buffer.position(buffer.position() + 8 * longs);
+        return BitSet.valueOf(words);
+    }
+
+    private static int bitsetLongs(int count) {
+        return (count + 63) / 64;
+    }
+
+    private static long indexBytes(int count, int wordSize) {
+        return 2L * wordSize * ALPHABET.length() * bitsetLongs(count) * 8;
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    /**
+     * The words of a snapshot in ordinal order, decoded from the mapped file on access.
+     */
+    private static final class PackedWordList extends AbstractList<NGram> implements RandomAccess {
+        private final LongBuffer packed;
+
+        PackedWordList(LongBuffer packed) {
+            this.packed = packed;
+        }
+
+        @Override
+        public NGram get(int index) {
+            return NGram.fromPacked(packed.get(index));
+        }
+
+        @Override
+        public int size() {
+            return packed.limit();
+        }
+
+        /**
+         * Finds a packed word by binary search; packed words of the same size sort
+         * like their strings.
+         */
+        int indexOf(long word) {
+            int low = 0;
+            int high = packed.limit() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                long value = packed.get(middle);
+                if (value < word) {
+                    low = middle + 1;
+                } else if (value > word) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The words of a snapshot as a set, answering membership on the packed words.
+     */
+    private static final class PackedWordSet extends AbstractSet<NGram> {
+        private final PackedWordList words;
+
+        PackedWordSet(PackedWordList words) {
+            this.words = words;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof NGram)) {
+                return false;
+            }
+            long packed = ((NGram) o).packed();
+            return packed != NGram.NOT_PACKED && words.indexOf(packed) >= 0;
+        }
+
+        @Override
+        public Iterator<NGram> iterator() {
+            return words.iterator();
+        }
+
+        @Override
+        public int size() {
+            return words.size();
+        }
+    }
+
+    /**
+     * Writes a snapshot from a text word list.
+     *
+     * @param args The word list, the word length, the snapshot file and
+     *             optionally {@code --index} to store the index
+     * @throws IOException If the word list cannot be read or the snapshot written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: CorpusSnapshot <word-list> <word-length> <snapshot> [--index]");
+            System.exit(1);
+        }
+        boolean withIndex = args.length > 3 && "--index".equals(args[3]);
+        Corpus corpus = writeFromWordList(Paths.get(args[0]), Integer.parseInt(args[1]), Paths.get(args[2]), withIndex);
+        System.out.println("Wrote " + corpus.size() + " words to " + args[2]);
+    }
+}
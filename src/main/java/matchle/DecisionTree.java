@@ -0,0 +1,400 @@
+package matchle;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import matchle.exception.CorpusException;
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
+import matchle.util.MatchleUtils;
+
+/**
+ * The complete decision tree of a scoring strategy on a corpus.
+ * <p>
+ * For a fixed corpus and a deterministic strategy, the solver always makes the
+ * same first guess, then the same guess for each feedback to it, and so on. The
+ * tree records these moves: each node holds the guess made when the candidates are
+ * those consistent with the path to it, and has a child for each feedback of that
+ * guess that leaves more to play. Once built, the next guess of a game following
+ * the tree is looked up in {@code O(depth)} instead of scoring candidates.
+ * <p>
+ * Trees are built in parallel, the subtrees of a node being built as separate
+ * fork-join tasks, and saved to a compact file: a header with the corpus
+ * fingerprint, then for each node in breadth-first order the feedback code
+ * leading to it, the ordinal of its guess and its number of children, as
+ * variable-length integers. The children of a node are contiguous and sorted by
+ * feedback code, so they are found by binary search.
+ * <p>
+ * Trees can be built from the command line with
+ * {@code java matchle.DecisionTree <word-list-or-snapshot> <word-length> <tree-file> [strategy]}.
+ */
+public final class DecisionTree {
+    /** Magic number identifying a decision tree file ("MDTR") */
+    private static final int MAGIC = 0x4D445452;
+
+    /** Version of the file format */
+    private static final int VERSION = 1;
+
+    private final Corpus corpus;
+    private final String strategyName;
+    private final ScoringStrategy strategy;
+    // per node, in breadth-first order: the code leading to it, its guess and its children
+    private final int[] codes;
+    private final int[] guesses;
+    private final int[] firstChild;
+    private final int[] childCount;
+
+    private DecisionTree(Corpus corpus, String strategyName, ScoringStrategy strategy,
+                         int[] codes, int[] guesses, int[] childCount) {
+        this.corpus = corpus;
+        this.strategyName = strategyName;
+        this.strategy = strategy;
+        this.codes = codes;
+        this.guesses = guesses;
+        this.childCount = childCount;
+        this.firstChild = new int[guesses.length];
+        int next = 1;
+        for (int i = 0; i < guesses.length; i++) {
+            firstChild[i] = next;
+            next += childCount[i];
+        }
+    }
+
+    /**
+     * A node while the tree is built.
+     */
+    private record Node(int guess, int[] codes, Node[] children) {
+    }
+
+    /**
+     * Builds the decision tree of a registered strategy on the common fork-join pool.
+     *
+     * @param corpus The corpus of possible keys
+     * @param strategyName The name of the strategy in the {@link StrategyRegistry}
+     * @return The decision tree
+     * @throws IllegalArgumentException if no strategy has that name
+     * @throws CorpusException if the corpus is empty or the strategy suggests a word outside it
+     */
+    public static DecisionTree build(Corpus corpus, String strategyName) {
+        return build(corpus, strategyName, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the decision tree of a registered strategy on a fork-join pool.
+     *
+     * @param corpus The corpus of possible keys
+     * @param strategyName The name of the strategy in the {@link StrategyRegistry}
+     * @param pool The pool to build the subtrees on
+     * @return The decision tree
+     * @throws IllegalArgumentException if no strategy has that name
+     * @throws CorpusException if the corpus is empty or the strategy suggests a word outside it
+     */
+    public static DecisionTree build(Corpus corpus, String strategyName, ForkJoinPool pool) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        Objects.requireNonNull(pool, "Pool cannot be null");
+        ScoringStrategy strategy = StrategyRegistry.get(strategyName);
+        if (corpus.size() == 0) {
+            throw new CorpusException("Cannot build a decision tree on an empty corpus");
+        }
+        Node root = pool.invoke(new BuildTask(corpus, strategy, corpus.allOrdinals()));
+        return flatten(corpus, strategyName, strategy, root);
+    }
+
+    /**
+     * Builds the subtree of the given candidates.
+     */
+    private static final class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Corpus corpus;
+        private final transient ScoringStrategy strategy;
+        private final BitSet candidates;
+
+        BuildTask(Corpus corpus, ScoringStrategy strategy, BitSet candidates) {
+            this.corpus = corpus;
+            this.strategy = strategy;
+            this.candidates = candidates;
+        }
+
+        @Override
+        protected Node compute() {
+            if (candidates.cardinality() == 1) {
+                return new Node(candidates.nextSetBit(0), new int[0], new Node[0]);
+            }
+            Corpus remaining = candidates.cardinality() == corpus.size() ? corpus : corpus.subset(candidates);
+            NGram best = strategy.findBestGuess(remaining);
+            int guess = corpus.ordinal(best);
+            if (guess < 0) {
+                throw new CorpusException("Strategy suggested a word outside the corpus: " + best);
+            }
+            // the candidates left by each feedback, except the key itself
+            Map<Integer, BitSet> partition = new TreeMap<>();
+            for (int key = candidates.nextSetBit(0); key >= 0; key = candidates.nextSetBit(key + 1)) {
+                if (key != guess) {
+                    int code = NGramMatcher.feedbackCode(corpus.get(key), best);
+                    partition.computeIfAbsent(code, c -> new BitSet()).set(key);
+                }
+            }
+            List<BuildTask> tasks = new ArrayList<>();
+            for (BitSet group : partition.values()) {
+                tasks.add(new BuildTask(corpus, strategy, group));
+            }
+            invokeAll(tasks);
+            int[] codes = partition.keySet().stream().mapToInt(Integer::intValue).toArray();
+            Node[] children = tasks.stream().map(BuildTask::join).toArray(Node[]::new);
+            return new Node(guess, codes, children);
+        }
+    }
+
+    private static DecisionTree flatten(Corpus corpus, String strategyName, ScoringStrategy strategy, Node root) {
+        List<Node> order = new ArrayList<>();
+        List<Integer> leadingCodes = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        ArrayDeque<Integer> queueCodes = new ArrayDeque<>();
+        queue.add(root);
+        queueCodes.add(0);
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            order.add(node);
+            leadingCodes.add(queueCodes.remove());
+            for (int i = 0; i < node.children.length; i++) {
+                queue.add(node.children[i]);
+                queueCodes.add(node.codes[i]);
+            }
+        }
+        int[] codes = leadingCodes.stream().mapToInt(Integer::intValue).toArray();
+        int[] guesses = order.stream().mapToInt(Node::guess).toArray();
+        int[] childCount = order.stream().mapToInt(node -> node.children.length).toArray();
+        return new DecisionTree(corpus, strategyName, strategy, codes, guesses, childCount);
+    }
+
+    /**
+     * Gets the corpus the tree was built on.
+     *
+     * @return The corpus
+     */
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Gets the name of the strategy the tree was built with.
+     *
+     * @return The name of the strategy in the {@link StrategyRegistry}
+     */
+    public String getStrategyName() {
+        return strategyName;
+    }
+
+    /**
+     * Gets the strategy the tree was built with.
+     *
+     * @return The registered instance of the strategy
+     */
+    public ScoringStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Returns the number of nodes of the tree.
+     *
+     * @return The number of distinct positions the solver can reach
+     */
+    public int size() {
+        return guesses.length;
+    }
+
+    /**
+     * Returns the depth of the tree.
+     *
+     * @return The largest number of guesses the solver makes to find a key
+     */
+    public int depth() {
+        int[] depths = new int[guesses.length];
+        int deepest = 0;
+        for (int i = 0; i < guesses.length; i++) {
+            depths[i] = i == 0 ? 1 : depths[i];
+            deepest = Math.max(deepest, depths[i]);
+            for (int c = firstChild[i]; c < firstChild[i] + childCount[i]; c++) {
+                depths[c] = depths[i] + 1;
+            }
+        }
+        return deepest;
+    }
+
+    /**
+     * Looks up the guess the solver makes after the given moves.
+     *
+     * @param guesses The guesses played so far
+     * @param codes The feedback code of each guess, as by {@link NGramMatcher#feedbackCode}
+     * @return The next guess, or empty if the moves leave the tree: a guess
+     *         differs from the solver's, or the game is already over
+     * @throws IllegalArgumentException if there are not as many codes as guesses
+     */
+    public Optional<NGram> nextGuess(List<NGram> guesses, int[] codes) {
+        if (guesses.size() != codes.length) {
+            throw new IllegalArgumentException("Expected a feedback code for each of the " + guesses.size()
+                    + " guesses, got " + codes.length);
+        }
+        int node = 0;
+        for (int i = 0; i < codes.length; i++) {
+            if (corpus.ordinal(guesses.get(i)) != this.guesses[node]) {
+                return Optional.empty();
+            }
+            node = child(node, codes[i]);
+            if (node < 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(corpus.get(this.guesses[node]));
+    }
+
+    /**
+     * Looks up the guess the solver makes after the given guesses in a game with
+     * the given key.
+     *
+     * @param secretKey The secret key of the game
+     * @param guesses The guesses played so far
+     * @return The next guess, or empty if the moves leave the tree
+     */
+    public Optional<NGram> nextGuess(NGram secretKey, List<NGram> guesses) {
+        int[] codes = new int[guesses.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = NGramMatcher.feedbackCode(secretKey, guesses.get(i));
+        }
+        return nextGuess(guesses, codes);
+    }
+
+    /**
+     * the child of a node reached by a feedback code, or -1 if there is none
+     */
+    private int child(int node, int code) {
+        int from = firstChild[node];
+        int index = Arrays.binarySearch(codes, from, from + childCount[node], code);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * Saves the tree to a file. The file is written next to its destination and
+     * moved into place.
+     *
+     * @param file The file to write
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public void save(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(corpus.fingerprint());
+            out.writeInt(corpus.size());
+            out.writeUTF(strategyName);
+            out.writeInt(guesses.length);
+            for (int i = 0; i < guesses.length; i++) {
+                MatchleUtils.writeVarInt(out, codes[i]);
+                MatchleUtils.writeVarInt(out, guesses[i]);
+                MatchleUtils.writeVarInt(out, childCount[i]);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        MatchleUtils.writeAtomically(file, buffer);
+    }
+
+    /**
+     * Loads a tree saved by {@link #save}.
+     *
+     * @param file The file to read
+     * @param corpus The corpus the tree was built on
+     * @return The tree
+     * @throws IOException If the file cannot be read, is not a decision tree, or
+     *         was built on another corpus
+     */
+    public static DecisionTree load(Path file, Corpus corpus) throws IOException {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a decision tree file: " + file);
+            }
+            if (in.readLong() != corpus.fingerprint() || in.readInt() != corpus.size()) {
+                throw new IOException("The decision tree was built on another corpus: " + file);
+            }
+            String strategyName = in.readUTF();
+            ScoringStrategy strategy;
+            try {
+                strategy = StrategyRegistry.get(strategyName);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("The decision tree was built with an unknown strategy: " + strategyName, e);
+            }
+            int size = in.readInt();
+            if (size <= 0) {
+                throw new IOException("Corrupt decision tree file: " + file);
+            }
+            int[] codes = new int[size];
+            int[] guesses = new int[size];
+            int[] childCount = new int[size];
+            long children = 0;
+            for (int i = 0; i < size; i++) {
+                codes[i] = MatchleUtils.readVarInt(in);
+                guesses[i] = MatchleUtils.readVarInt(in);
+                childCount[i] = MatchleUtils.readVarInt(in);
+                children += childCount[i];
+                if (guesses[i] >= corpus.size()) {
+                    throw new IOException("Corrupt decision tree file: " + file);
+                }
+            }
+            if (children != size - 1 || in.read() >= 0) {
+                throw new IOException("Corrupt decision tree file: " + file);
+            }
+            return new DecisionTree(corpus, strategyName, strategy, codes, guesses, childCount);
+        } catch (EOFException e) {
+            throw new IOException("Truncated decision tree file: " + file, e);
+        }
+    }
+
+    /**
+     * Builds a tree from a word list or corpus snapshot and saves it.
+     *
+     * @param args The word list or snapshot, the word length, the tree file and
+     *             optionally the strategy name
+     * @throws IOException If the words cannot be read or the tree written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: DecisionTree <word-list-or-snapshot> <word-length> <tree-file> [strategy]");
+            System.exit(1);
+        }
+        Path words = Paths.get(args[0]);
+        Corpus corpus = words.toString().endsWith(".snapshot")
+                ? CorpusSnapshot.load(words)
+                : CorpusLoader.loadMapped(words, Integer.parseInt(args[1]));
+        if (corpus == null) {
+            throw new CorpusException("No word of length " + args[1] + " in " + words);
+        }
+        String strategy = args.length > 3 ? args[3] : StrategyRegistry.DEFAULT;
+        long start = System.nanoTime();
+        DecisionTree tree = build(corpus, strategy);
+        tree.save(Paths.get(args[2]));
+        System.out.printf("Built a tree of %d nodes and depth %d over %d words in %.1f s%n",
+                tree.size(), tree.depth(), corpus.size(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,242 @@
+package matchle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import matchle.exception.CorpusException;
+import matchle.util.MatchleUtils;
+
+/**
+ * A precomputed table of the feedback between every guess and every key of a corpus.
+ * <p>
+ * For a fixed dictionary the feedback of a guess against a key never changes, so
+ * it can be computed once and looked up instead of recomputed while scoring. The
+ * table is dense and indexed by the ordinals of {@link Corpus}: the cell at row
+ * {@code g} and column {@code k} holds
+ * {@code NGramMatcher.feedbackCode(corpus.get(k), corpus.get(g))}. Each cell takes
+ * one byte when the code space of the word size fits in a byte (words of up to
+ * 5 letters), and two bytes otherwise (up to 10 letters).
+ * <p>
+ * A matrix is either built in memory, in parallel over its rows, or memory-mapped
+ * from a file written by {@link #save}. Mapping the file lets a later JVM start use
+ * the table without recomputing it, and without reading it eagerly into the heap.
+ * <p>
+ * Instances are immutable and thread-safe.
+ */
+public final class FeedbackMatrix {
+    /** Magic number identifying a feedback matrix file ("MFBM") */
+    private static final int MAGIC = 0x4D46424D;
+
+    /** Version of the file format */
+    private static final int VERSION = 1;
+
+    /** Size of the file header in bytes */
+    private static final int HEADER_BYTES = 32;
+
+    /** Longest word whose feedback codes fit in a two-byte cell */
+    static final int MAX_WORD_SIZE = 10;
+
+    /** The words of the corpus, in ordinal order */
+    private final List<NGram> words;
+
+    /** Fingerprint of the corpus the table was computed for */
+    private final long fingerprint;
+
+    /** Number of bytes per cell, 1 or 2 */
+    private final int cellBytes;
+
+    /** The table, row-major, without the file header */
+    private final ByteBuffer table;
+
+    private FeedbackMatrix(List<NGram> words, long fingerprint, int cellBytes, ByteBuffer table) {
+        this.words = words;
+        this.fingerprint = fingerprint;
+        this.cellBytes = cellBytes;
+        this.table = table;
+    }
+
+    /**
+     * Computes the feedback matrix of a corpus, scoring the rows in parallel.
+     *
+     * @param corpus The corpus to compute the matrix for
+     * @return A new heap-backed FeedbackMatrix
+     * @throws NullPointerException if corpus is null
+     * @throws CorpusException if the corpus words are too long or the corpus too
+     *         large to be tabulated
+     */
+    public static FeedbackMatrix build(Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        List<NGram> words = corpus.words();
+        int cellBytes = cellBytes(corpus.wordSize());
+        int n = words.size();
+        ByteBuffer table = ByteBuffer.allocate(Math.toIntExact(tableBytes(n, cellBytes)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        IntStream.range(0, n).parallel().forEach(g -> {
+            NGram guess = words.get(g);
+            for (int k = 0; k < n; k++) {
+                int code = NGramMatcher.feedbackCode(words.get(k), guess);
+                int index = (g * n + k) * cellBytes;
+                if (cellBytes == 1) {
+                    table.put(index, (byte) code);
+                } else {
+                    table.putShort(index, (short) code);
+                }
+            }
+        });
+        return new FeedbackMatrix(words, corpus.fingerprint(), cellBytes, table);
+    }
+
+    /**
+     * Memory-maps a feedback matrix previously written by {@link #save}.
+     *
+     * @param file The file to map
+     * @param corpus The corpus the matrix was computed for
+     * @return A FeedbackMatrix backed by the mapped file
+     * @throws IOException If the file cannot be read or is not a feedback matrix
+     * @throws CorpusException if the matrix was computed for a different corpus
+     */
+    public static FeedbackMatrix load(Path file, Corpus corpus) throws IOException {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.limit() < HEADER_BYTES || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                throw new IOException("Not a feedback matrix file: " + file);
+            }
+            int wordSize = mapped.getInt(8);
+            int wordCount = mapped.getInt(12);
+            int cellBytes = mapped.getInt(16);
+            long fingerprint = mapped.getLong(24);
+            if (wordSize != corpus.wordSize() || wordCount != corpus.size()
+                    || fingerprint != corpus.fingerprint()) {
+                throw new CorpusException("Feedback matrix " + file + " was computed for a different corpus");
+            }
+            if (mapped.limit() != HEADER_BYTES + tableBytes(wordCount, cellBytes)) {
+                throw new IOException("Truncated feedback matrix file: " + file);
+            }
+            ByteBuffer table = mapped.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN);
+            return new FeedbackMatrix(corpus.words(), fingerprint, cellBytes, table);
+        }
+    }
+
+    /**
+     * Loads the feedback matrix of a corpus from a file, or builds it and writes the
+     * file when it is missing or was computed for another corpus.
+     *
+     * @param file The cache file
+     * @param corpus The corpus to get the matrix for
+     * @return The FeedbackMatrix of the corpus, backed by the mapped file
+     * @throws IOException If the file cannot be read or written
+     */
+    public static FeedbackMatrix loadOrBuild(Path file, Corpus corpus) throws IOException {
+        if (Files.exists(file)) {
+            try {
+                return load(file, corpus);
+            } catch (CorpusException | IOException e) {
+                // stale or damaged cache, recompute it below
+            }
+        }
+        build(corpus).save(file);
+        return load(file, corpus);
+    }
+
+    /**
+     * Writes this matrix to a file that can later be mapped with {@link #load}.
+     * The file is written next to its destination and moved into place, so a
+     * concurrent reader never maps a partially written table.
+     *
+     * @param file The file to write
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(wordSize()).putInt(size())
+                .putInt(cellBytes).putInt(0).putLong(fingerprint).flip();
+        MatchleUtils.writeAtomically(file, channel -> {
+            MatchleUtils.writeFully(channel, header);
+            MatchleUtils.writeFully(channel, table.duplicate().clear());
+        });
+    }
+
+    /**
+     * Returns the feedback code of a guess against a key, both given by ordinal.
+     *
+     * @param guess The ordinal of the guess
+     * @param key The ordinal of the key
+     * @return The feedback code, as computed by {@link NGramMatcher#feedbackCode}
+     * @throws IndexOutOfBoundsException if either ordinal is out of range
+     */
+    public int code(int guess, int key) {
+        int n = words.size();
+        Objects.checkIndex(guess, n);
+        Objects.checkIndex(key, n);
+        int index = (guess * n + key) * cellBytes;
+        return cellBytes == 1 ? table.get(index) & 0xFF : table.getShort(index) & 0xFFFF;
+    }
+
+    /**
+     * Returns the ordinal of a word in this matrix.
+     *
+     * @param ngram The word to look up
+     * @return The ordinal of the word, or -1 if it is not covered by this matrix
+     */
+    public int ordinal(NGram ngram) {
+        if (ngram.size() != wordSize()) {
+            return -1;
+        }
+        int ordinal = Collections.binarySearch(words, ngram, Corpus.ORDER);
+        return ordinal < 0 ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the number of words covered by this matrix.
+     *
+     * @return The number of rows (and columns) of the table
+     */
+    public int size() {
+        return words.size();
+    }
+
+    /**
+     * Returns the size of the words covered by this matrix.
+     *
+     * @return The word size
+     */
+    public int wordSize() {
+        return words.isEmpty() ? 0 : words.get(0).size();
+    }
+
+    /**
+     * Returns the fingerprint of the corpus this matrix was computed for.
+     *
+     * @return The corpus fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private static int cellBytes(int wordSize) {
+        if (wordSize > MAX_WORD_SIZE) {
+            throw new CorpusException("Feedback matrices support words of at most "
+                    + MAX_WORD_SIZE + " characters");
+        }
+        return NGramMatcher.codeCount(wordSize) <= 256 ? 1 : 2;
+    }
+
+    private static long tableBytes(int wordCount, int cellBytes) {
+        long bytes = (long) wordCount * wordCount * cellBytes;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new CorpusException("Corpus of " + wordCount + " words is too large for a feedback matrix");
+        }
+        return bytes;
+    }
+}
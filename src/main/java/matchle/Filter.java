@@ -32,14 +32,21 @@ public class Filter implements Predicate<NGram>, Serializable {
      */
     private String pattern;
 
+    /**
+     * The structured constraints this filter is equivalent to, or null if the
+     * filter is an arbitrary predicate. Constraints survive serialization, merge
+     * under {@link #and} and let a {@link Corpus} answer the filter from its index
+     * instead of testing every word.
+     */
+    private final Constraints constraints;
+
     /**
      * Creates a new Filter with the specified predicate and an empty pattern.
      *
      * @param predicate The predicate to use for filtering
      */
     private Filter(Predicate<NGram> predicate) {
-        this.predicate = predicate;
-        this.pattern = "";
+        this(predicate, "", null);
     }
 
     /**
@@ -50,9 +57,22 @@ public class Filter implements Predicate<NGram>, Serializable {
      * @throws NullPointerException if predicate is null
      */
     private Filter(Predicate<NGram> predicate, String pattern) {
+        this(predicate, pattern, null);
+    }
+
+    /**
+     * Creates a new Filter with the specified predicate, pattern and constraints.
+     *
+     * @param predicate The predicate to use for filtering
+     * @param pattern A string representation of the filter pattern
+     * @param constraints The constraints equivalent to the predicate, or null
+     * @throws NullPointerException if predicate is null
+     */
+    private Filter(Predicate<NGram> predicate, String pattern, Constraints constraints) {
         Objects.requireNonNull(predicate, "Predicate cannot be null");
         this.predicate = predicate;
         this.pattern = pattern;
+        this.constraints = constraints;
     }
     
     /**
@@ -80,6 +100,19 @@ public class Filter implements Predicate<NGram>, Serializable {
         return new Filter(predicate, pattern);
     }
 
+    /**
+     * Factory method to create a Filter from structured constraints.
+     *
+     * @param constraints The constraints a word must satisfy
+     * @param pattern A string representation of the filter pattern
+     * @return A new Filter instance
+     * @throws NullPointerException if constraints is null
+     */
+    public static Filter from(Constraints constraints, String pattern) {
+        Objects.requireNonNull(constraints, "Constraints cannot be null");
+        return new Filter(constraints::test, pattern, constraints);
+    }
+
     /**
      * Creates a new Filter with the same predicate but a different pattern.
      *
@@ -87,18 +120,33 @@ public class Filter implements Predicate<NGram>, Serializable {
      * @return A new Filter with the updated pattern
      */
     public Filter withPattern(String pattern) {
-        return new Filter(this.predicate, pattern);
+        return new Filter(this.predicate, pattern, constraints);
+    }
+
+    /**
+     * Returns the structured constraints of this filter.
+     *
+     * @return An Optional containing the constraints, or empty if this filter is
+     *         an arbitrary predicate
+     */
+    public Optional<Constraints> constraints() {
+        return Optional.ofNullable(constraints);
     }
 
     /**
      * Tests if the specified NGram satisfies this filter's predicate.
-     * If the predicate is null (possibly due to deserialization), the method returns true.
+     * A filter built from constraints keeps working after deserialization; if the
+     * predicate of any other filter is null (due to deserialization), the method
+     * returns true.
      *
      * @param ngram The NGram to test
      * @return true if the NGram passes the filter, false otherwise
      */
     @Override
     public boolean test(NGram ngram) {
+        if (constraints != null) {
+            return constraints.test(ngram);
+        }
         // If predicate is null (possibly due to deserialization), we return true
         return predicate == null || predicate.test(ngram);
     }
@@ -106,6 +154,8 @@ public class Filter implements Predicate<NGram>, Serializable {
     /**
      * Combines this filter with another optional filter using logical AND.
      * If the other filter is not present, this filter is returned unchanged.
+     * If both filters have constraints, the result has their merged constraints,
+     * so combining filters over many rounds does not nest predicates.
      *
      * @param other An Optional containing another Filter to combine with this one
      * @return A new Filter representing the logical AND of both filters
@@ -124,6 +174,9 @@ public class Filter implements Predicate<NGram>, Serializable {
             newPattern = otherFilter.pattern;
         }
         
+        if (this.constraints != null && otherFilter.constraints != null) {
+            return from(this.constraints.and(otherFilter.constraints), newPattern);
+        }
         return new Filter(
             ngram -> this.test(ngram) && otherFilter.test(ngram),
             newPattern
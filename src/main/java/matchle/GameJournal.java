@@ -0,0 +1,485 @@
+package matchle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import matchle.util.MatchleUtils;
+
+/**
+ * Persists many concurrent games as an append-only journal of their moves.
+ * <p>
+ * Instead of rewriting a state file on every move like
+ * {@link GameStateManager#saveGame}, the journal appends one fixed-size record
+ * per event (a game starting with its key, a guess, a game ending) to a log file
+ * in a directory, so the cost of a move is a {@value #RECORD_BYTES}-byte write.
+ * Every method recording an event returns once its record is durable. Records
+ * written concurrently are made durable together: a thread forcing the log to
+ * disk covers the records of every other thread that were written before, which
+ * then return without forcing it again.
+ * <p>
+ * The live games are also kept in memory as their keys and guesses. After
+ * {@link #DEFAULT_COMPACTION_RECORDS} records (or as configured), they are written
+ * to a compacted snapshot file and the log starts over empty, so the log stays
+ * short however long the games run. The snapshot and log carry a generation
+ * number, so that a crash between writing a snapshot and starting the new log
+ * never replays the old log twice.
+ * <p>
+ * Opening a journal reads the snapshot and replays the log, ignoring a torn
+ * record at its end left by a crash; {@link #recover()} then rebuilds the live
+ * games by replaying their guesses through {@link GameLogic#processGuess}. Words
+ * are recorded packed as by {@link NGram}, so they may have at most
+ * {@link NGram#MAX_PACKED_LENGTH} letters. The files are tied to the corpus by
+ * its fingerprint.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class GameJournal implements Closeable {
+    /** Number of records after which the live games are compacted into a snapshot by default */
+    public static final int DEFAULT_COMPACTION_RECORDS = 1 << 16;
+
+    /** Size in bytes of a record of the log */
+    static final int RECORD_BYTES = 24;
+
+    /** Name of the log file in the journal directory */
+    static final String LOG_FILE = "games.log";
+
+    /** Name of the snapshot file in the journal directory */
+    static final String SNAPSHOT_FILE = "games.snapshot";
+
+    /** Magic number identifying a log file ("MGJL") */
+    private static final int LOG_MAGIC = 0x4C4A474D;
+
+    /** Magic number identifying a snapshot file ("MGSS") */
+    private static final int SNAPSHOT_MAGIC = 0x5353474D;
+
+    /** Version of the file formats */
+    private static final int VERSION = 1;
+
+    /** Size of the header of both files in bytes */
+    private static final int HEADER_BYTES = 32;
+
+    /** Record types */
+    private static final int START = 1;
+    private static final int GUESS = 2;
+    private static final int END = 3;
+
+    private final Path directory;
+    private final Corpus corpus;
+    private final int compactionRecords;
+
+    // the live games by id, each as its packed key followed by its packed guesses
+    private final Map<Long, long[]> games = new TreeMap<>();
+    private final Object syncLock = new Object();
+    private FileChannel log;
+    private long generation;
+    private long nextGameId;
+    private int recordsSinceSnapshot;
+    // number of records written to the log and number of those forced to disk
+    private volatile long appended;
+    private long durable;
+
+    private GameJournal(Path directory, Corpus corpus, int compactionRecords) {
+        this.directory = directory;
+        this.corpus = corpus;
+        this.compactionRecords = compactionRecords;
+    }
+
+    /**
+     * Opens the journal in a directory with the default compaction threshold,
+     * recovering the games it holds.
+     *
+     * @param directory The directory of the journal files, created if needed
+     * @param corpus The corpus the games are played on
+     * @return The open journal
+     * @throws IOException If the files cannot be read or written, or were written for another corpus
+     */
+    public static GameJournal open(Path directory, Corpus corpus) throws IOException {
+        return open(directory, corpus, DEFAULT_COMPACTION_RECORDS);
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the games it holds.
+     *
+     * @param directory The directory of the journal files, created if needed
+     * @param corpus The corpus the games are played on
+     * @param compactionRecords The number of records after which the live games
+     *                          are compacted into a snapshot
+     * @return The open journal
+     * @throws IOException If the files cannot be read or written, or were written for another corpus
+     * @throws IllegalArgumentException if compactionRecords is not positive
+     */
+    public static GameJournal open(Path directory, Corpus corpus, int compactionRecords) throws IOException {
+        Objects.requireNonNull(directory, "Directory cannot be null");
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        if (compactionRecords <= 0) {
+            throw new IllegalArgumentException("Compaction threshold must be positive: " + compactionRecords);
+        }
+        Files.createDirectories(directory);
+        GameJournal journal = new GameJournal(directory, corpus, compactionRecords);
+        journal.readSnapshot();
+        journal.openLog();
+        return journal;
+    }
+
+    /**
+     * Records the start of a game.
+     *
+     * @param secretKey The secret key of the game
+     * @return The id of the new game
+     * @throws IOException If the record cannot be written
+     * @throws IllegalArgumentException if the key cannot be packed
+     */
+    public long startGame(NGram secretKey) throws IOException {
+        long key = pack(secretKey);
+        long gameId;
+        long record;
+        synchronized (this) {
+            gameId = nextGameId++;
+            record = append(gameId, START, key);
+            games.put(gameId, new long[] {key});
+        }
+        commit(record);
+        return gameId;
+    }
+
+    /**
+     * Records a guess in a live game.
+     *
+     * @param gameId The id of the game
+     * @param guess The guess
+     * @throws IOException If the record cannot be written
+     * @throws IllegalArgumentException if the game is not live or the guess cannot be packed
+     */
+    public void recordGuess(long gameId, NGram guess) throws IOException {
+        long word = pack(guess);
+        long record;
+        synchronized (this) {
+            long[] moves = liveGame(gameId);
+            record = append(gameId, GUESS, word);
+            moves = Arrays.copyOf(moves, moves.length + 1);
+            moves[moves.length - 1] = word;
+            games.put(gameId, moves);
+        }
+        commit(record);
+    }
+
+    /**
+     * Records the end of a live game, which is then no longer recovered.
+     *
+     * @param gameId The id of the game
+     * @throws IOException If the record cannot be written
+     * @throws IllegalArgumentException if the game is not live
+     */
+    public void endGame(long gameId) throws IOException {
+        long record;
+        synchronized (this) {
+            liveGame(gameId);
+            record = append(gameId, END, 0L);
+            games.remove(gameId);
+        }
+        commit(record);
+    }
+
+    /**
+     * Rebuilds the live games by replaying their guesses.
+     *
+     * @return The games by id, in the order they were started
+     */
+    public Map<Long, GameLogic> recover() {
+        Map<Long, long[]> live;
+        synchronized (this) {
+            live = new TreeMap<>(games);
+        }
+        Map<Long, GameLogic> recovered = new LinkedHashMap<>();
+        live.forEach((gameId, moves) -> {
+            GameLogic game = new GameLogic();
+            game.initialize(corpus, NGram.fromPacked(moves[0]));
+            for (int i = 1; i < moves.length; i++) {
+                game.processGuess(NGram.fromPacked(moves[i]));
+            }
+            recovered.put(gameId, game);
+        });
+        return recovered;
+    }
+
+    /**
+     * Returns the number of live games.
+     *
+     * @return The number of games started and not ended
+     */
+    public synchronized int size() {
+        return games.size();
+    }
+
+    /**
+     * Writes the live games to a new snapshot and starts an empty log.
+     *
+     * @throws IOException If the files cannot be written
+     */
+    public void snapshot() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                writeSnapshot();
+            }
+        }
+    }
+
+    /**
+     * Writes a snapshot if enough records were written since the last one,
+     * checking under the locks so that threads committing together write one.
+     */
+    private void compactIfNeeded() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (recordsSinceSnapshot >= compactionRecords) {
+                    writeSnapshot();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the live games to a snapshot of the next generation and swaps in a
+     * new log; both files and their directory entries are durable before the
+     * records of the old log count as durable.
+     */
+    private void writeSnapshot() throws IOException {
+        long next = generation + 1;
+        writeSnapshot(next);
+        FileChannel previous = log;
+        log = createLog(next);
+        generation = next;
+        recordsSinceSnapshot = 0;
+        previous.force(false);
+        durable = appended;
+        previous.close();
+    }
+
+    /**
+     * Closes the log file; the journal can no longer record events.
+     *
+     * @throws IOException If the log cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                log.close();
+            }
+        }
+    }
+
+    private long[] liveGame(long gameId) {
+        long[] moves = games.get(gameId);
+        if (moves == null) {
+            throw new IllegalArgumentException("No live game with id " + gameId);
+        }
+        return moves;
+    }
+
+    private static long pack(NGram word) {
+        Objects.requireNonNull(word, "Word cannot be null");
+        long packed = word.packed();
+        if (packed == NGram.NOT_PACKED) {
+            throw new IllegalArgumentException("The journal records words of at most "
+                    + NGram.MAX_PACKED_LENGTH + " letters from a to z, not: " + word);
+        }
+        return packed;
+    }
+
+    /**
+     * Writes a record at the end of the log, without forcing it to disk.
+     *
+     * @return The number of records appended so far, to be passed to {@link #commit}
+     */
+    private long append(long gameId, int type, long word) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        record.putLong(gameId).putLong(word).putInt(type);
+        record.putInt(crc(record.array(), RECORD_BYTES - 4)).flip();
+        while (record.hasRemaining()) {
+            log.write(record);
+        }
+        recordsSinceSnapshot++;
+        return ++appended;
+    }
+
+    /**
+     * Waits until the given number of records is durable, forcing the log to disk
+     * for every record written so far unless another thread already did, and
+     * compacts the journal if enough records were written since the last snapshot.
+     */
+    private void commit(long record) throws IOException {
+        boolean compact = false;
+        synchronized (syncLock) {
+            if (durable < record) {
+                long written = appended;
+                log.force(false);
+                durable = written;
+            }
+            synchronized (this) {
+                compact = recordsSinceSnapshot >= compactionRecords;
+            }
+        }
+        if (compact) {
+            compactIfNeeded();
+        }
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private ByteBuffer header(int magic, long generation) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(magic).putInt(VERSION).putLong(generation).putLong(corpus.fingerprint())
+                .putInt(corpus.wordSize()).putInt(0).flip();
+        return header;
+    }
+
+    /**
+     * Checks the header of a file and returns its generation.
+     */
+    private long checkHeader(ByteBuffer header, int magic, Path file) throws IOException {
+        if (header.remaining() < HEADER_BYTES || header.getInt(0) != magic || header.getInt(4) != VERSION) {
+            throw new IOException("Not a game journal file: " + file);
+        }
+        if (header.getLong(16) != corpus.fingerprint() || header.getInt(24) != corpus.wordSize()) {
+            throw new IOException("The game journal was written for another corpus: " + file);
+        }
+        return header.getLong(8);
+    }
+
+    private void readSnapshot() throws IOException {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        generation = checkHeader(bytes, SNAPSHOT_MAGIC, file);
+        int end = bytes.limit() - 4;
+        if (end < HEADER_BYTES || bytes.getInt(end) != crc(bytes.array(), end)) {
+            throw new IOException("Corrupt game journal snapshot: " + file);
+        }
+        bytes.position(HEADER_BYTES);
+        nextGameId = bytes.getLong();
+        int count = bytes.getInt();
+        for (int i = 0; i < count; i++) {
+            long gameId = bytes.getLong();
+            long[] moves = new long[bytes.getInt()];
+            for (int j = 0; j < moves.length; j++) {
+                moves[j] = bytes.getLong();
+            }
+            games.put(gameId, moves);
+        }
+    }
+
+    private void writeSnapshot(long generation) throws IOException {
+        int bytes = HEADER_BYTES + 12 + 4;
+        for (long[] moves : games.values()) {
+            bytes += 12 + 8 * moves.length;
+        }
+        ByteBuffer snapshot = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        snapshot.put(header(SNAPSHOT_MAGIC, generation));
+        snapshot.putLong(nextGameId).putInt(games.size());
+        games.forEach((gameId, moves) -> {
+            snapshot.putLong(gameId).putInt(moves.length);
+            for (long move : moves) {
+                snapshot.putLong(move);
+            }
+        });
+        snapshot.putInt(crc(snapshot.array(), bytes - 4)).flip();
+        MatchleUtils.writeAtomically(directory.resolve(SNAPSHOT_FILE), snapshot);
+    }
+
+    /**
+     * Opens the log, replaying its records if it belongs to the generation of the
+     * snapshot, and starting a new one otherwise.
+     */
+    private void openLog() throws IOException {
+        Path file = directory.resolve(LOG_FILE);
+        if (!Files.exists(file)) {
+            log = createLog(generation);
+            return;
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            header.flip();
+            if (checkHeader(header, LOG_MAGIC, file) != generation) {
+                // a log older than the snapshot, which already holds its games
+                channel.close();
+                log = createLog(generation);
+                return;
+            }
+            long end = replay(channel);
+            channel.truncate(end);
+            channel.position(end);
+            channel.force(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        log = channel;
+    }
+
+    /**
+     * Applies the records of the log to the live games.
+     *
+     * @return The position after the last intact record
+     */
+    private long replay(FileChannel channel) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long position = HEADER_BYTES;
+        while (true) {
+            record.clear();
+            while (record.hasRemaining() && channel.read(record, position + record.position()) >= 0) {
+                // read the whole record
+            }
+            if (record.hasRemaining() || record.getInt(RECORD_BYTES - 4) != crc(record.array(), RECORD_BYTES - 4)) {
+                return position;
+            }
+            long gameId = record.getLong(0);
+            long word = record.getLong(8);
+            int type = record.getInt(16);
+            long[] moves = games.get(gameId);
+            if (type == START && moves == null) {
+                games.put(gameId, new long[] {word});
+                nextGameId = Math.max(nextGameId, gameId + 1);
+            } else if (type == GUESS && moves != null) {
+                moves = Arrays.copyOf(moves, moves.length + 1);
+                moves[moves.length - 1] = word;
+                games.put(gameId, moves);
+            } else if (type == END && moves != null) {
+                games.remove(gameId);
+            } else {
+                throw new IOException("Inconsistent record in game journal at position " + position);
+            }
+            recordsSinceSnapshot++;
+            position += RECORD_BYTES;
+        }
+    }
+
+    private FileChannel createLog(long generation) throws IOException {
+        Path file = directory.resolve(LOG_FILE);
+        MatchleUtils.writeAtomically(file, header(LOG_MAGIC, generation));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+}
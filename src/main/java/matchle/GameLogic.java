@@ -1,9 +1,13 @@
 package matchle;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import matchle.scoring.BestGuessCache;
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
 
 /**
  * Shared game logic for the Matchle word guessing game.
@@ -28,6 +32,21 @@ public class GameLogic {
     
     /** The accumulated filter from all previous guesses */
     private Filter accumulatedFilter;
+
+    /** The corpus the remaining candidates are narrowed from, whose index and caches they share */
+    private Corpus candidateBase;
+
+    /** The ordinals in candidateBase of the remaining candidates */
+    private BitSet candidates;
+
+    /** The guesses processed so far, in order */
+    private final List<NGram> guesses = new ArrayList<>();
+
+    /** The strategy suggesting guesses */
+    private ScoringStrategy scoringStrategy = StrategyRegistry.get(StrategyRegistry.DEFAULT);
+
+    /** The precomputed moves of a strategy on the corpus, or null */
+    private DecisionTree decisionTree;
     
     /**
      * Initializes a new game with the specified corpus and secret key.
@@ -41,6 +60,7 @@ public class GameLogic {
         this.secretKey = secretKey;
         this.candidateCorpus = corpus;
         this.accumulatedFilter = null;
+        resetCandidates(corpus);
     }
     
     /**
@@ -54,6 +74,19 @@ public class GameLogic {
         selectRandomKey();
         this.candidateCorpus = corpus;
         this.accumulatedFilter = null;
+        resetCandidates(corpus);
+    }
+
+    /**
+     * Makes every word of a corpus a candidate, and the corpus the base that
+     * later rounds narrow the candidates from.
+     *
+     * @param base The corpus of candidate words, possibly null
+     */
+    private void resetCandidates(Corpus base) {
+        this.candidateBase = base;
+        this.candidates = base == null ? null : base.allOrdinals();
+        this.guesses.clear();
     }
     
     /**
@@ -103,7 +136,8 @@ public class GameLogic {
     public Filter processGuess(NGram guess) {
         Filter roundFilter = generateRoundFilter(guess);
         updateAccumulatedFilter(roundFilter);
-        updateCandidateCorpus();
+        updateCandidateCorpus(roundFilter);
+        guesses.add(guess);
         return roundFilter;
     }
     
@@ -133,35 +167,118 @@ public class GameLogic {
     }
     
     /**
-     * Updates the candidate corpus by applying the accumulated filter.
-     * This reduces the set of possible words based on all guesses so far.
-     * If the resulting corpus is empty or null, an empty corpus is created.
+     * Updates the candidate corpus by applying the filter of the newest round.
+     * The remaining candidates already satisfy the filters of earlier rounds, so
+     * only they are tested, and only against the newest filter; the resulting
+     * corpus is a view that shares the index and feedback matrix of the base
+     * corpus. If no candidate remains, the candidate corpus becomes null.
+     *
+     * @param roundFilter The filter from the current round
      */
-    private void updateCandidateCorpus() {
-        if (accumulatedFilter == null) {
-            return;
-        }
-        
-        Corpus newCorpus = Corpus.Builder.of(candidateCorpus)
-                .filter(accumulatedFilter)
-                .build();
-        
-        if (newCorpus == null || newCorpus.size() == 0) {
-            candidateCorpus = Corpus.Builder.of().build(); // Empty corpus
-        } else {
-            candidateCorpus = newCorpus;
-        }
+    private void updateCandidateCorpus(Filter roundFilter) {
+        candidates = candidateBase.select(roundFilter, candidates);
+        candidateCorpus = candidateBase.subset(candidates);
     }
     
     /**
      * Gets the best possible guess from the current candidate corpus.
-     * This uses the corpus's algorithm to determine the optimal guess
-     * that will provide the most information.
+     * This uses the selected scoring strategy, minimizing the worst case
+     * unless another was selected, to determine the optimal guess
+     * that will provide the most information. Suggestions are shared through
+     * the {@link BestGuessCache#shared() shared cache}, so games reaching the same
+     * candidates, such as every game in its first round, score them once.
+     * <p>
+     * If a {@link #setDecisionTree decision tree} of the selected strategy on
+     * this corpus is set and every guess so far followed it, the best guess is
+     * looked up in the tree instead.
      *
      * @return The NGram representing the best guess
      */
     public NGram getBestGuess() {
-        return candidateCorpus.bestWorstCaseGuess();
+        Optional<NGram> move = treeMove();
+        if (move.isPresent()) {
+            return move.get();
+        }
+        return BestGuessCache.shared().findBestGuess(scoringStrategy, candidateCorpus);
+    }
+
+    /**
+     * Gets the best guess if it is known without scoring candidates: from the
+     * decision tree, or from the shared cache if a game reached the same
+     * candidates before. Interactive callers use this to answer at once and
+     * score candidates in the background otherwise.
+     *
+     * @return The best guess {@link #getBestGuess()} would return, or empty if
+     *         it would have to score candidates
+     */
+    public Optional<NGram> findKnownBestGuess() {
+        Optional<NGram> move = treeMove();
+        if (move.isPresent() || candidateCorpus == null) {
+            return move;
+        }
+        return BestGuessCache.shared().lookup(scoringStrategy, candidateCorpus);
+    }
+
+    /**
+     * the next move in the decision tree, if it applies to this game
+     */
+    private Optional<NGram> treeMove() {
+        if (decisionTree != null && secretKey != null
+                && decisionTree.getStrategy() == scoringStrategy
+                && decisionTree.getCorpus().fingerprint() == corpus.fingerprint()) {
+            return decisionTree.nextGuess(secretKey, guesses);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Sets the precomputed decision tree {@link #getBestGuess()} looks moves up
+     * in. The tree is only used while the selected strategy is the one it was
+     * built with, on the corpus it was built on.
+     *
+     * @param decisionTree The decision tree, or null to always score candidates
+     */
+    public void setDecisionTree(DecisionTree decisionTree) {
+        this.decisionTree = decisionTree;
+    }
+
+    /**
+     * Gets the decision tree {@link #getBestGuess()} looks moves up in.
+     *
+     * @return The decision tree, or null if none is set
+     */
+    public DecisionTree getDecisionTree() {
+        return decisionTree;
+    }
+
+    /**
+     * Selects the strategy used by {@link #getBestGuess()}.
+     *
+     * @param scoringStrategy The strategy to use, or null for the default strategy
+     */
+    public void setScoringStrategy(ScoringStrategy scoringStrategy) {
+        this.scoringStrategy = scoringStrategy == null
+                ? StrategyRegistry.get(StrategyRegistry.DEFAULT)
+                : scoringStrategy;
+    }
+
+    /**
+     * Selects the strategy used by {@link #getBestGuess()} by its registered name.
+     *
+     * @param name The name of the strategy in the {@link StrategyRegistry}
+     * @throws IllegalArgumentException if no strategy has that name
+     */
+    public void setScoringStrategy(String name) {
+        this.scoringStrategy = StrategyRegistry.get(name);
+    }
+
+    /**
+     * Gets the strategy used by {@link #getBestGuess()}.
+     *
+     * @return The selected strategy
+     */
+    public ScoringStrategy getScoringStrategy() {
+        return scoringStrategy;
     }
     
     /**
@@ -193,6 +310,24 @@ public class GameLogic {
         return candidateCorpus;
     }
     
+    /**
+     * Gets the corpus the game is played on.
+     *
+     * @return The original Corpus of the game
+     */
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Gets the guesses processed so far.
+     *
+     * @return An unmodifiable list of the guesses in the order they were made
+     */
+    public List<NGram> getGuesses() {
+        return Collections.unmodifiableList(guesses);
+    }
+    
     /**
      * Gets the accumulated filter from all rounds played so far.
      *
@@ -204,7 +339,8 @@ public class GameLogic {
     
     /**
      * Loads a saved game state into this GameLogic instance.
-     * This replaces the current game state with the provided saved state.
+     * This replaces the current game state with the provided saved state,
+     * including its guess history and the candidates within its corpus.
      *
      * @param state The GameState to load
      */
@@ -212,6 +348,14 @@ public class GameLogic {
         this.secretKey = state.getSecretKey();
         this.candidateCorpus = state.getCandidateCorpus();
         this.accumulatedFilter = state.getAccumulatedFilter();
+        if (state.getCorpus() == null) {
+            resetCandidates(candidateCorpus);
+            return;
+        }
+        this.corpus = state.getCorpus();
+        resetCandidates(corpus);
+        this.candidates = state.getCandidates();
+        this.guesses.addAll(state.getGuesses());
     }
     
     /**
@@ -221,6 +365,7 @@ public class GameLogic {
      * @return A new GameState object containing the current game state
      */
     public GameState createGameState() {
-        return new GameState(secretKey, candidateCorpus, accumulatedFilter);
+        return new GameState(secretKey, candidateCorpus, accumulatedFilter,
+                candidateBase, guesses, candidates == null ? new BitSet() : candidates);
     }
 } 
\ No newline at end of file
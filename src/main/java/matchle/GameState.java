@@ -1,6 +1,8 @@
 package matchle;
 
 import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
 
 /**
  * Represents the complete state of a Matchle game session.
@@ -12,6 +14,10 @@ import java.io.Serializable;
  *   <li>The current corpus of candidate words that match all previous guesses</li>
  *   <li>The accumulated filter representing all constraints from previous guesses</li>
  * </ul>
+ * A state created by {@link GameLogic#createGameState()} also records the corpus
+ * the game is played on, the guesses made so far and the ordinals in that corpus
+ * of the remaining candidates. That is all {@link GameStateManager} stores, as
+ * the other components can be rebuilt from it.
  * <p>
  * GameState is immutable and implements Serializable to support persistence
  * through Java's serialization mechanism, allowing games to be saved to disk
@@ -30,18 +36,48 @@ public class GameState implements Serializable {
     
     /** The accumulated filter representing all constraints from previous guesses */
     private final Filter accumulatedFilter;
+
+    /** The corpus the game is played on, which the candidate ordinals refer to */
+    private final Corpus corpus;
+
+    /** The guesses made so far, in order */
+    private final List<NGram> guesses;
+
+    /** The ordinals in the corpus of the remaining candidates */
+    private final BitSet candidates;
     
     /**
-     * Constructs a new GameState with the specified components.
+     * Constructs a new GameState with the specified components. The state
+     * records no guess history: the candidate corpus serves as the corpus of the
+     * game, with all of its words as candidates.
      * 
      * @param secretKey The secret key (target word) for the game
      * @param candidateCorpus The current corpus of candidate words
      * @param accumulatedFilter The accumulated filter from previous guesses
      */
     public GameState(NGram secretKey, Corpus candidateCorpus, Filter accumulatedFilter) {
+        this(secretKey, candidateCorpus, accumulatedFilter, candidateCorpus, List.of(),
+                candidateCorpus == null ? new BitSet() : candidateCorpus.allOrdinals());
+    }
+
+    /**
+     * Constructs a new GameState with the specified components and guess history.
+     *
+     * @param secretKey The secret key (target word) for the game
+     * @param candidateCorpus The current corpus of candidate words, null if none remains
+     * @param accumulatedFilter The accumulated filter from previous guesses, null if none
+     * @param corpus The corpus the game is played on
+     * @param guesses The guesses made so far, in order
+     * @param candidates The ordinals in the corpus of the candidate words
+     */
+    GameState(NGram secretKey, Corpus candidateCorpus, Filter accumulatedFilter,
+              Corpus corpus, List<NGram> guesses, BitSet candidates) {
         this.secretKey = secretKey;
         this.candidateCorpus = candidateCorpus;
         this.accumulatedFilter = accumulatedFilter;
+        this.corpus = corpus;
+        this.guesses = List.copyOf(guesses);
+        this.candidates = (BitSet) candidates.clone();
     }
     
     /**
@@ -70,4 +106,31 @@ public class GameState implements Serializable {
     public Filter getAccumulatedFilter() {
         return accumulatedFilter;
     }
+
+    /**
+     * Gets the corpus the game is played on, which the candidate ordinals refer to.
+     *
+     * @return The corpus of the game
+     */
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Gets the guesses made so far.
+     *
+     * @return The guesses in the order they were made
+     */
+    public List<NGram> getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Gets the ordinals in {@link #getCorpus()} of the remaining candidates.
+     *
+     * @return A copy of the candidate ordinals
+     */
+    public BitSet getCandidates() {
+        return (BitSet) candidates.clone();
+    }
 } 
\ No newline at end of file
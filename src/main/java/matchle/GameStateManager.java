@@ -1,66 +1,324 @@
 package matchle;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import matchle.util.MatchleUtils;
 
 /**
  * Manages the persistence of game state to and from storage.
  * <p>
  * This utility class provides methods for saving and loading game states,
- * allowing players to resume games across sessions. It uses Java's serialization
- * mechanism to write the complete game state to a file and later restore it.
+ * allowing players to resume games across sessions. Rather than serializing the
+ * candidate corpus and filters, a save records only what they are derived from,
+ * in a compact binary format:
+ * <ul>
+ *   <li>a header with a magic number, the format version, and the fingerprint
+ *       and size of the corpus the game is played on</li>
+ *   <li>the secret key</li>
+ *   <li>the guesses made so far, in order</li>
+ *   <li>the ordinals of the remaining candidates in the corpus, as a bitset or
+ *       as a list of gaps, whichever is smaller</li>
+ * </ul>
+ * A save thus takes a few hundred bytes whatever the size of the corpus. Loading
+ * a game requires the same corpus, which is identified by its fingerprint: the
+ * candidates are restored from their ordinals and the accumulated filter is
+ * rebuilt by replaying the guesses against the key.
+ * <p>
+ * Many concurrent games are better persisted move by move in a
+ * {@link GameJournal}, see {@link #openJournal}.
  * <p>
  * All methods in this class are static, and the class cannot be instantiated.
- * The methods handle the low-level details of file I/O and object serialization,
- * providing a simple interface for the rest of the application.
  */
 public class GameStateManager {
-    
+
+    /** Magic number identifying a saved game file ("MGST") */
+    private static final int MAGIC = 0x4D475354;
+
+    /** Version of the file format */
+    private static final int VERSION = 1;
+
+    /** First bytes of a game saved with Java serialization, by versions before this format */
+    private static final short SERIALIZED_MAGIC = (short) 0xACED;
+
+    /** Length of the header: magic number, version, corpus fingerprint and size */
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 4;
+
+    /** Candidates stored as the bytes of a bitset */
+    private static final int CANDIDATES_BITSET = 0;
+
+    /** Candidates stored as the gaps between successive ordinals */
+    private static final int CANDIDATES_GAPS = 1;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
     private GameStateManager() {
         // Prevent instantiation
     }
-    
+
     /**
      * Saves a game state to a file.
      * <p>
-     * This method serializes the provided GameState object and writes it to the
-     * specified file. The file will be created if it doesn't exist, or overwritten
-     * if it does.
+     * The file will be created if it doesn't exist, or overwritten if it does.
+     * The state is written next to the file and moved into place, so an
+     * interrupted save never leaves a partial file behind.
      *
      * @param state The GameState object to save
      * @param filename The path to the file where the state will be saved
      * @throws IOException If an I/O error occurs during writing
-     * @throws NullPointerException If state or filename is null
+     * @throws NullPointerException If state or filename is null, or if the state has no corpus
      */
     public static void saveGame(GameState state, String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(state);
-        }
+        Objects.requireNonNull(filename, "Filename cannot be null");
+        MatchleUtils.writeAtomically(Paths.get(filename), ByteBuffer.wrap(toBytes(state)));
     }
-    
+
     /**
      * Loads a game state from a file.
      * <p>
-     * This method reads and deserializes a GameState object from the specified file.
-     * The file must contain a valid serialized GameState object that was previously
-     * saved with the saveGame method.
+     * The file must have been saved with the saveGame method from a game played
+     * on the given corpus.
      *
      * @param filename The path to the file containing the saved state
+     * @param corpus The corpus the saved game was played on
      * @return The restored GameState object
-     * @throws IOException If an I/O error occurs during reading
-     * @throws ClassNotFoundException If the class of the serialized object cannot be found
-     * @throws ClassCastException If the serialized object is not a GameState
-     * @throws NullPointerException If filename is null
+     * @throws IOException If an I/O error occurs during reading, if the file is
+     *         not a saved game, or if it was saved from a game on another corpus
+     * @throws NullPointerException If filename or corpus is null
+     */
+    public static GameState loadGame(String filename, Corpus corpus) throws IOException {
+        Objects.requireNonNull(filename, "Filename cannot be null");
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            return fromBytes(in.readAllBytes(), corpus);
+        }
+    }
+
+    /**
+     * Loads a game state from a file saved on one of several corpora, such as a
+     * small default corpus and a full dictionary. The corpus is chosen by the
+     * fingerprint the file was saved with.
+     *
+     * @param filename The path to the file containing the saved state
+     * @param corpora The corpora the saved game may have been played on
+     * @return The restored GameState object, on the corpus it was saved on
+     * @throws IOException If an I/O error occurs during reading, if the file is
+     *         not a saved game, or if it was saved on none of the corpora
+     * @throws NullPointerException If filename, corpora or a corpus is null
+     */
+    public static GameState loadGame(String filename, List<Corpus> corpora) throws IOException {
+        Objects.requireNonNull(filename, "Filename cannot be null");
+        byte[] bytes;
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            bytes = in.readAllBytes();
+        }
+        for (Corpus corpus : corpora) {
+            if (isSavedOn(bytes, corpus)) {
+                return fromBytes(bytes, corpus);
+            }
+        }
+        checkHeader(bytes);
+        throw new IOException("The game was saved on another corpus");
+    }
+
+    /**
+     * Checks whether a file holds a game saved on a corpus, reading only its header.
+     *
+     * @param filename The path to the file containing the saved state
+     * @param corpus The corpus
+     * @return true if the game was saved on that corpus
+     * @throws IOException If the file cannot be read or is not a saved game
+     */
+    public static boolean isSavedOn(String filename, Corpus corpus) throws IOException {
+        Objects.requireNonNull(filename, "Filename cannot be null");
+        byte[] header = new byte[HEADER_BYTES];
+        try (InputStream in = Files.newInputStream(Paths.get(filename))) {
+            header = Arrays.copyOf(header, in.readNBytes(header, 0, HEADER_BYTES));
+        }
+        checkHeader(header);
+        return isSavedOn(header, corpus);
+    }
+
+    /**
+     * whether the header of a saved game names the corpus
+     */
+    private static boolean isSavedOn(byte[] bytes, Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        if (bytes.length < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.wrap(bytes, 0, HEADER_BYTES);
+        return header.getInt() == MAGIC && header.get() == VERSION
+                && header.getLong() == corpus.fingerprint() && header.getInt() == corpus.size();
+    }
+
+    private static void checkHeader(byte[] bytes) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        if (bytes.length >= 2 && header.getShort(0) == SERIALIZED_MAGIC) {
+            throw new IOException("The game was saved by an older version and cannot be loaded");
+        }
+        if (bytes.length < HEADER_BYTES || header.getInt() != MAGIC || header.get() != VERSION) {
+            throw new IOException("Not a saved game file");
+        }
+    }
+
+    /**
+     * Opens a journal persisting many concurrent games move by move, as an
+     * alternative to saving each game to its own file.
+     *
+     * @param directory The directory of the journal files, created if needed
+     * @param corpus The corpus the games are played on
+     * @return The open journal, holding the games recovered from the directory
+     * @throws IOException If the journal cannot be read or written, or was written for another corpus
+     * @see GameJournal
+     */
+    public static GameJournal openJournal(Path directory, Corpus corpus) throws IOException {
+        return GameJournal.open(directory, corpus);
+    }
+
+    /**
+     * Encodes a game state in the binary format.
+     *
+     * @param state The GameState to encode
+     * @return The encoded state
+     * @throws NullPointerException If state is null or has no corpus
+     */
+    static byte[] toBytes(GameState state) {
+        Objects.requireNonNull(state, "State cannot be null");
+        Corpus corpus = Objects.requireNonNull(state.getCorpus(), "State has no corpus");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(corpus.fingerprint());
+            out.writeInt(corpus.size());
+            out.writeUTF(state.getSecretKey().toString());
+            MatchleUtils.writeVarInt(out, state.getGuesses().size());
+            for (NGram guess : state.getGuesses()) {
+                out.writeUTF(guess.toString());
+            }
+            writeCandidates(out, state.getCandidates());
+        } catch (IOException e) {
+            throw new AssertionError("Writing to memory cannot fail", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a game state from the binary format.
+     *
+     * @param bytes The encoded state
+     * @param corpus The corpus the game was played on
+     * @return The decoded state, with its candidate corpus and accumulated filter rebuilt
+     * @throws IOException If the bytes are not a saved game on that corpus
+     */
+    static GameState fromBytes(byte[] bytes, Corpus corpus) throws IOException {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        checkHeader(bytes);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            in.skipBytes(5);
+            long fingerprint = in.readLong();
+            int size = in.readInt();
+            if (fingerprint != corpus.fingerprint() || size != corpus.size()) {
+                throw new IOException("The game was saved on another corpus");
+            }
+            NGram secretKey = NGram.from(in.readUTF());
+            int guessCount = readCount(in);
+            List<NGram> guesses = new ArrayList<>();
+            for (int i = 0; i < guessCount; i++) {
+                guesses.add(NGram.from(in.readUTF()));
+            }
+            BitSet candidates = readCandidates(in, size);
+            if (in.available() > 0) {
+                throw new IOException("Trailing bytes in saved game file");
+            }
+            return new GameState(secretKey, corpus.subset(candidates), replay(secretKey, guesses),
+                    corpus, guesses, candidates);
+        } catch (EOFException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt saved game file", e);
+        }
+    }
+
+    /**
+     * Rebuilds the accumulated filter of a game from its guesses.
+     *
+     * @return The conjunction of the filters of the guesses, or null if there are none
+     */
+    private static Filter replay(NGram secretKey, List<NGram> guesses) {
+        Filter accumulated = null;
+        for (NGram guess : guesses) {
+            Filter round = NGramMatcher.of(secretKey, guess).match();
+            accumulated = accumulated == null ? round : accumulated.and(Optional.of(round));
+        }
+        return accumulated;
+    }
+
+    private static void writeCandidates(DataOutputStream out, BitSet candidates) throws IOException {
+        ByteArrayOutputStream gaps = new ByteArrayOutputStream();
+        DataOutputStream gapsOut = new DataOutputStream(gaps);
+        int previous = -1;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            MatchleUtils.writeVarInt(gapsOut, i - previous);
+            previous = i;
+        }
+        byte[] bitset = candidates.toByteArray();
+        if (gaps.size() < bitset.length) {
+            out.writeByte(CANDIDATES_GAPS);
+            MatchleUtils.writeVarInt(out, candidates.cardinality());
+            gaps.writeTo(out);
+        } else {
+            out.writeByte(CANDIDATES_BITSET);
+            MatchleUtils.writeVarInt(out, bitset.length);
+            out.write(bitset);
+        }
+    }
+
+    private static BitSet readCandidates(DataInputStream in, int size) throws IOException {
+        int encoding = in.readUnsignedByte();
+        int count = readCount(in);
+        BitSet candidates;
+        if (encoding == CANDIDATES_GAPS) {
+            candidates = new BitSet(size);
+            int ordinal = -1;
+            for (int i = 0; i < count; i++) {
+                ordinal += readCount(in);
+                candidates.set(ordinal);
+            }
+        } else if (encoding == CANDIDATES_BITSET) {
+            byte[] bitset = new byte[count];
+            in.readFully(bitset);
+            candidates = BitSet.valueOf(bitset);
+        } else {
+            throw new IOException("Unknown candidate encoding in saved game file: " + encoding);
+        }
+        if (candidates.length() > size) {
+            throw new IOException("Candidate ordinal out of range of the corpus");
+        }
+        return candidates;
+    }
+
+    /**
+     * Reads a count written by {@link MatchleUtils#writeVarInt}, which cannot be negative.
      */
-    public static GameState loadGame(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            return (GameState) ois.readObject();
+    private static int readCount(DataInputStream in) throws IOException {
+        int value = MatchleUtils.readVarInt(in);
+        if (value < 0) {
+            throw new IOException("Negative count in saved game file");
         }
+        return value;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package matchle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses a word list file into packed words, in parallel over chunks of the
+ * memory-mapped file.
+ * <p>
+ * The file is split into chunks of about {@link #CHUNK_BYTES} bytes, each ending
+ * at a newline, so that no line straddles two chunks. Each chunk is mapped and
+ * scanned byte by byte on a fork-join pool: a line is trimmed of ASCII
+ * whitespace, lowercased, and kept only if it has the requested length and
+ * consists of the letters {@code a} to {@code z}, in which case it is packed
+ * directly into the long encoding of {@link NGram} without creating a String.
+ * Each chunk yields a sorted array of distinct packed words, and the arrays are
+ * merged pairwise as the tasks join.
+ */
+final class MappedWordParser {
+    /** Nominal size of a chunk in bytes */
+    static final int CHUNK_BYTES = 4 << 20;
+
+    private MappedWordParser() {
+        // static utility, not instantiable
+    }
+
+    /**
+     * Parses the words of a given length from a word list file.
+     *
+     * @param file The word list, one word per line
+     * @param wordLength The required word length, at most {@link NGram#MAX_PACKED_LENGTH}
+     * @param pool The pool to parse the chunks on
+     * @return The sorted, distinct packed words
+     * @throws IOException If the file cannot be read
+     */
+    static long[] parse(Path file, int wordLength, ForkJoinPool pool) throws IOException {
+        return parse(file, wordLength, pool, CHUNK_BYTES);
+    }
+
+    static long[] parse(Path file, int wordLength, ForkJoinPool pool, int chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel, chunkBytes);
+            try {
+                return pool.invoke(new ParseTask(channel, bounds, 0, bounds.length - 1, wordLength));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Splits the file at the first newline after every multiple of the chunk size.
+     *
+     * @return The chunk boundaries, from 0 to the file size; chunk {@code i}
+     *         spans {@code [bounds[i], bounds[i + 1])}
+     */
+    private static long[] chunkBounds(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long position = chunkBytes;
+        while (position < size) {
+            long newline = nextNewline(channel, position);
+            if (newline < 0) {
+                break;
+            }
+            bounds.add(newline + 1);
+            position = newline + 1 + chunkBytes;
+        }
+        if (bounds.get(bounds.size() - 1) < size) {
+            bounds.add(size);
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Returns the position of the first newline at or after a position, or -1 if
+     * there is none before the end of the file.
+     */
+    private static long nextNewline(FileChannel channel, long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(256);
+        int read;
+        while ((read = channel.read(window.clear(), position)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a range of chunks, splitting it in halves until a single chunk is left.
+     */
+    private static final class ParseTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final int wordLength;
+
+        ParseTask(FileChannel channel, long[] bounds, int from, int to, int wordLength) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.wordLength = wordLength;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= 1) {
+                return from == to ? new long[0] : parseChunk();
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask left = new ParseTask(channel, bounds, from, middle, wordLength);
+            left.fork();
+            long[] right = new ParseTask(channel, bounds, middle, to, wordLength).compute();
+            return mergeDistinct(left.join(), right);
+        }
+
+        private long[] parseChunk() {
+            long start = bounds[from];
+            long length = bounds[to] - start;
+            MappedByteBuffer chunk;
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long[] words = new long[64];
+            int count = 0;
+            int limit = chunk.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || chunk.get(i) == '\n') {
+                    long packed = pack(chunk, lineStart, i, wordLength);
+                    if (packed != NGram.NOT_PACKED) {
+                        if (count == words.length) {
+                            words = Arrays.copyOf(words, count * 2);
+                        }
+                        words[count++] = packed;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            long[] sorted = Arrays.copyOf(words, count);
+            Arrays.sort(sorted);
+            return distinct(sorted);
+        }
+    }
+
+    /**
+     * Packs the line {@code [start, end)} of a buffer, trimmed and lowercased.
+     *
+     * @return The packed word, or {@link NGram#NOT_PACKED} if the line is not a
+     *         word of the given length
+     */
+    static long pack(ByteBuffer buffer, int start, int end, int wordLength) {
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+        if (end - start != wordLength || wordLength == 0) {
+            return NGram.NOT_PACKED;
+        }
+        long packed = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int c = buffer.get(start + i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c < 'a' || c > 'z') {
+                return NGram.NOT_PACKED;
+            }
+            packed |= (long) (c - 'a' + 1) << NGram.shift(i);
+        }
+        return packed;
+    }
+
+    /**
+     * whether a byte is trimmed like by String.trim, bytes of multi-byte characters being negative
+     */
+    private static boolean isWhitespace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Removes the duplicates of a sorted array.
+     */
+    private static long[] distinct(long[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (count == 0 || sorted[count - 1] != sorted[i]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Merges two sorted arrays of distinct values into one.
+     */
+    static long[] mergeDistinct(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length || j < b.length) {
+            long next;
+            if (j == b.length || i < a.length && a[i] <= b[j]) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (count == 0 || merged[count - 1] != next) {
+                merged[count++] = next;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+}
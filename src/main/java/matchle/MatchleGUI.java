@@ -4,12 +4,15 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.LinkedList;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import matchle.scoring.StrategyRegistry;
 import matchle.util.UIUtils;
 
 /**
@@ -23,6 +26,7 @@ import matchle.util.UIUtils;
  *   <li>Dark mode appearance option</li>
  *   <li>Game state saving and loading</li>
  *   <li>Keyboard shortcuts for common actions</li>
+ *   <li>Best guess suggestions computed in the background</li>
  * </ul>
  * The class relies on GameLogic for the core game mechanics while handling
  * all UI rendering and user interaction.
@@ -35,6 +39,18 @@ public class MatchleGUI extends JFrame {
     /** Game logic engine that handles core mechanics */
     private GameLogic gameLogic;
 
+    /** The English dictionary, downloaded in the background */
+    private CompletableFuture<Corpus> dictionary;
+
+    /** The small corpus games are played on until the dictionary is loaded */
+    private Corpus defaultCorpus;
+
+    /** Whether the current game was restored from a saved game rather than started */
+    private boolean restored;
+
+    /** The file games are saved to and loaded from */
+    private static final String SAVE_FILE = "savedgame.dat";
+
     // UI controls
     /** Text field for entering guesses */
     private JTextField guessField;
@@ -42,11 +58,20 @@ public class MatchleGUI extends JFrame {
     /** Text area displaying game feedback and history */
     private JTextArea feedbackArea;
     
+    /** The remaining candidate words, rendered as they scroll into view */
+    private final CandidateListModel candidateModel = new CandidateListModel();
+
     /** Label showing number of remaining candidate words */
     private JLabel candidateLabel;
     
     /** Label showing the best guess suggestion */
     private JLabel bestGuessLabel;
+
+    /** Progress of the background search for the best guess */
+    private JProgressBar bestGuessProgress;
+
+    /** The running search for the best guess, or null */
+    private BestGuessWorker bestGuessWorker;
     
     /** Button to submit a guess */
     private JButton submitButton;
@@ -100,6 +125,9 @@ public class MatchleGUI extends JFrame {
     
     /** Scrollable panel in the center of the layout */
     private JScrollPane centerPanel;
+
+    /** Scrollable list of the remaining candidates on the right of the layout */
+    private JScrollPane candidatePanel;
     
     /** Bottom panel containing status information */
     private JPanel bottomPanel;
@@ -107,15 +135,53 @@ public class MatchleGUI extends JFrame {
     /**
      * Constructs a new MatchleGUI window.
      * Sets up the window properties, initializes the game logic,
-     * and prepares the UI components.
+     * and prepares the UI components. The first game starts at once on the
+     * default corpus while the dictionary is downloaded in the background.
      */
     public MatchleGUI() {
         super("Matchle Game");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(700, 500);
         gameLogic = new GameLogic();
+        defaultCorpus = gameLogic.createDefaultCorpus();
+        dictionary = CorpusLoader.loadEnglishWordsAsync(5);
         initUI();
+        adjustDifficulty();
         startNewGame();
+        dictionary.whenComplete((loaded, error) -> SwingUtilities.invokeLater(() -> dictionaryLoaded(error)));
+    }
+
+    /**
+     * Swaps the dictionary in once it is loaded. The current game restarts on it
+     * if no guess was made yet; otherwise it is used from the next game. If it
+     * could not be loaded, games go on with the default corpus.
+     *
+     * @param error The reason the dictionary could not be loaded, or null
+     */
+    private void dictionaryLoaded(Throwable error) {
+        if (error != null) {
+            JOptionPane.showMessageDialog(this, "Failed to load corpus. Using default corpus instead.", "Warning", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        boolean unplayed = gameLogic.getGuesses().isEmpty() && submitButton.isEnabled() && !restored;
+        if (unplayed) {
+            startNewGame();
+        }
+        feedbackArea.append("Dictionary loaded: " + dictionary.join().size() + " words"
+                + (unplayed ? "" : ", used from the next game") + "\n");
+    }
+
+    /**
+     * Returns the corpus to start a game on: the dictionary if it is loaded,
+     * the default corpus otherwise.
+     *
+     * @return The corpus for a new game
+     */
+    private Corpus currentCorpus() {
+        if (dictionary.isDone() && !dictionary.isCompletedExceptionally()) {
+            return dictionary.join();
+        }
+        return defaultCorpus;
     }
 
     /**
@@ -126,6 +192,7 @@ public class MatchleGUI extends JFrame {
         // Split into multiple methods to reduce complexity
         initTopPanel();
         initCenterPanel();
+        initCandidatePanel();
         initBottomPanel();
         setupLayout();
         registerEventHandlers();
@@ -184,17 +251,35 @@ public class MatchleGUI extends JFrame {
         this.centerPanel = new JScrollPane(feedbackPanel);
     }
 
+    /**
+     * Initializes the panel listing the remaining candidates. The list has a
+     * fixed cell size, so it lays out and paints only the rows in view however
+     * many candidates remain.
+     */
+    private void initCandidatePanel() {
+        JList<NGram> candidateList = new JList<>(candidateModel);
+        candidateList.setPrototypeCellValue(NGram.from("wwwwwwww"));
+        candidateList.setVisibleRowCount(12);
+        JScrollPane candidatePanel = new JScrollPane(candidateList);
+        candidatePanel.setBorder(BorderFactory.createTitledBorder("Candidates"));
+        this.candidatePanel = candidatePanel;
+    }
+
     /**
      * Initializes the bottom panel containing game status information.
      * This includes labels for remaining candidates and best guess suggestions.
      */
     private void initBottomPanel() {
         // Only contains bottom panel initialization logic
-        JPanel bottomPanel = new JPanel(new GridLayout(2, 1));
+        JPanel bottomPanel = new JPanel(new GridLayout(3, 1));
         candidateLabel = new JLabel("Remaining candidates: ");
         bestGuessLabel = new JLabel("Best guess suggestion: ");
+        bestGuessProgress = new JProgressBar(0, 100);
+        bestGuessProgress.setStringPainted(true);
+        bestGuessProgress.setVisible(false);
         bottomPanel.add(candidateLabel);
         bottomPanel.add(bestGuessLabel);
+        bottomPanel.add(bestGuessProgress);
         
         // Save panel reference
         this.bottomPanel = bottomPanel;
@@ -208,6 +293,7 @@ public class MatchleGUI extends JFrame {
         setLayout(new BorderLayout());
         add(topPanel, BorderLayout.NORTH);
         add(centerPanel, BorderLayout.CENTER);
+        add(candidatePanel, BorderLayout.EAST);
         add(bottomPanel, BorderLayout.SOUTH);
     }
 
@@ -318,22 +404,26 @@ public class MatchleGUI extends JFrame {
     /**
      * Adjusts game parameters based on the selected difficulty level.
      * Different difficulty levels provide different levels of assistance
-     * and challenge to the player.
+     * and challenge to the player, and suggest guesses with scoring strategies
+     * of different cost, so that harder levels stay responsive on larger corpora.
      */
     private void adjustDifficulty() {
         String difficulty = (String) difficultySelector.getSelectedItem();
         // Adjust game parameters based on difficulty
         if ("Easy".equals(difficulty)) {
-            // Easy mode: provide more hints
+            // Easy mode: provide more hints, from the most informative strategy
             bestGuessLabel.setVisible(true);
+            gameLogic.setScoringStrategy(StrategyRegistry.ENTROPY);
         } else if ("Medium".equals(difficulty)) {
             // Medium mode: hide best guess
             bestGuessLabel.setVisible(false);
+            gameLogic.setScoringStrategy(StrategyRegistry.WORST_CASE);
         } else if ("Hard".equals(difficulty)) {
-            // Hard mode: use larger corpus, fewer hints
+            // Hard mode: fewer hints, and a linear-time strategy for larger corpora
             bestGuessLabel.setVisible(false);
-            // Load more complex corpus, can be implemented here
+            gameLogic.setScoringStrategy(StrategyRegistry.HEURISTIC);
         }
+        suggestBestGuess();
     }
 
     /**
@@ -347,14 +437,14 @@ public class MatchleGUI extends JFrame {
         try {
             if (isSaving) {
                 GameState state = gameLogic.createGameState();
-                GameStateManager.saveGame(state, "savedgame.dat");
+                GameStateManager.saveGame(state, SAVE_FILE);
                 UIUtils.showInfoMessage(this, "Game Saved", "Save Successful");
+            } else if (GameStateManager.isSavedOn(SAVE_FILE, defaultCorpus) || dictionary.isDone()) {
+                restoreGame();
             } else {
-                GameState state = GameStateManager.loadGame("savedgame.dat");
-                gameLogic.loadState(state);
-                updateLabels();
-                displayCandidates();
-                UIUtils.showInfoMessage(this, "Game Loaded", "Load Successful");
+                // saved on the dictionary, which is still downloading
+                feedbackArea.append("Waiting for the dictionary to load the saved game...\n");
+                dictionary.whenComplete((loaded, error) -> SwingUtilities.invokeLater(this::restoreGame));
             }
         } catch (Exception ex) {
             String operation = isSaving ? "Save" : "Load";
@@ -363,6 +453,32 @@ public class MatchleGUI extends JFrame {
         }
     }
 
+    /**
+     * Restores the saved game on the corpus it was played on, the default corpus
+     * or the dictionary, whichever corpus the current game uses.
+     */
+    private void restoreGame() {
+        List<Corpus> corpora = new ArrayList<>();
+        corpora.add(defaultCorpus);
+        if (dictionary.isDone() && !dictionary.isCompletedExceptionally()) {
+            corpora.add(dictionary.join());
+        }
+        try {
+            GameState state = GameStateManager.loadGame(SAVE_FILE, corpora);
+            gameLogic.loadState(state);
+            corpus = gameLogic.getCorpus();
+            restored = true;
+            updateLabels();
+            displayCandidates();
+            boolean over = gameLogic.hasGameTerminated();
+            guessField.setEnabled(!over);
+            submitButton.setEnabled(!over);
+            UIUtils.showInfoMessage(this, "Game Loaded", "Load Successful");
+        } catch (IOException ex) {
+            UIUtils.showErrorMessage(this, "Load Game Failed: " + ex.getMessage(), "Load Error");
+        }
+    }
+
     /**
      * Saves the current game state to a file.
      * This uses the optimized handleGameState method with the save flag.
@@ -382,23 +498,19 @@ public class MatchleGUI extends JFrame {
     /**
      * Starts a new game by resetting the corpus, selecting a new secret key,
      * and resetting the UI state. This method is called when the user clicks
-     * the New Game button or uses the Ctrl+N shortcut.
+     * the New Game button or uses the Ctrl+N shortcut, and never waits for the
+     * dictionary to load.
      */
     private void startNewGame() {
-        // load the corpus
-        // Use CorpusLoader to load a 5-letter corpus
-        corpus = CorpusLoader.loadEnglishWords(5);
-        if (corpus == null || corpus.size() == 0) {
-            JOptionPane.showMessageDialog(this, "Failed to load corpus. Using default corpus instead.", "Warning", JOptionPane.WARNING_MESSAGE);
-            // Use default corpus as backup
-            corpus = gameLogic.createDefaultCorpus();
-        }
+        corpus = currentCorpus();
+        restored = false;
 
         // Initialize game logic with corpus
         gameLogic.initialize(corpus);
 
         // reset the UI
         feedbackArea.setText("");
+        displayCandidates();
         updateLabels();
         submitButton.setEnabled(true);
         // For debugging, you can print the key here, it can be hidden in actual game
@@ -417,6 +529,7 @@ public class MatchleGUI extends JFrame {
         displayGuess(guessStr);
 
         if (checkForWin(guess)) {
+            cancelBestGuess();
             return;
         }
 
@@ -500,18 +613,12 @@ public class MatchleGUI extends JFrame {
     }
 
     /**
-     * Displays the current candidate words in the feedback area.
+     * Displays the current candidate words in the candidate list.
      * This provides the player with information about the remaining
      * possible words based on their guesses so far.
      */
     private void displayCandidates() {
-        Corpus candidateCorpus = gameLogic.getCandidateCorpus();
-        if (candidateCorpus == null) return;
-        
-        String candidates = candidateCorpus.corpus().stream()
-            .map(NGram::toString)
-            .collect(Collectors.joining(", "));
-        feedbackArea.append("Candidates: [" + candidates + "]\n\n");
+        candidateModel.setCandidates(gameLogic.getCandidateCorpus());
     }
 
     /**
@@ -522,11 +629,59 @@ public class MatchleGUI extends JFrame {
         Corpus candidateCorpus = gameLogic.getCandidateCorpus();
         if (candidateCorpus != null) {
             candidateLabel.setText("Remaining candidates: " + candidateCorpus.size());
-            bestGuessLabel.setText("Best guess suggestion: " + gameLogic.getBestGuess());
         }
+        suggestBestGuess();
         guessField.setText("");
     }
 
+    /**
+     * Updates the best guess suggestion without blocking the event thread.
+     * A suggestion already known from the game's decision tree or cache is shown
+     * at once; otherwise the candidates are searched in the background, showing
+     * the best guess found so far and the progress of the search. Any search for
+     * earlier candidates is cancelled, and none is started while suggestions are
+     * hidden.
+     */
+    private void suggestBestGuess() {
+        cancelBestGuess();
+        Corpus candidateCorpus = gameLogic.getCandidateCorpus();
+        if (candidateCorpus == null || !bestGuessLabel.isVisible()) {
+            return;
+        }
+        Optional<NGram> known = gameLogic.findKnownBestGuess();
+        if (known.isPresent()) {
+            bestGuessLabel.setText("Best guess suggestion: " + known.get());
+            return;
+        }
+        bestGuessLabel.setText("Best guess suggestion: searching...");
+        BestGuessWorker worker = new BestGuessWorker(gameLogic.getScoringStrategy(), candidateCorpus,
+                best -> bestGuessLabel.setText("Best guess suggestion: " + best + " (searching...)"),
+                best -> {
+                    bestGuessLabel.setText("Best guess suggestion: " + best);
+                    bestGuessProgress.setVisible(false);
+                });
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName()) && worker == bestGuessWorker) {
+                bestGuessProgress.setValue((Integer) event.getNewValue());
+            }
+        });
+        bestGuessProgress.setValue(0);
+        bestGuessProgress.setVisible(true);
+        bestGuessWorker = worker;
+        worker.execute();
+    }
+
+    /**
+     * Cancels the running search for the best guess, if any.
+     */
+    private void cancelBestGuess() {
+        if (bestGuessWorker != null) {
+            bestGuessWorker.cancel(true);
+            bestGuessWorker = null;
+        }
+        bestGuessProgress.setVisible(false);
+    }
+
     /**
      * Main entry point for the GUI version of the Matchle game.
      * Creates and displays the game window.
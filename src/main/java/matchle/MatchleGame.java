@@ -1,5 +1,11 @@
 package matchle;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * The main console implementation of the Matchle word guessing game.
  * This class manages the game flow, user interaction through console,
@@ -17,6 +23,9 @@ public class MatchleGame {
     
     /** Maximum number of rounds allowed in a game */
     private int maxRounds = 10;
+
+    /** How long the command line game waits for the dictionary before playing on the default corpus */
+    static final Duration DICTIONARY_WAIT = Duration.ofSeconds(2);
     
     /**
      * Constructs a new Matchle game with default settings.
@@ -34,7 +43,8 @@ public class MatchleGame {
      */
     public static void main(String[] args) {
         MatchleGame game = new MatchleGame();
-        game.playGame();
+        game.initialize(CorpusLoader.loadEnglishWordsAsync(5), DICTIONARY_WAIT);
+        game.play();
     }
     
     /**
@@ -56,6 +66,31 @@ public class MatchleGame {
         System.out.println("Secret key (hidden): " + gameLogic.getSecretKey());
     }
     
+    /**
+     * Initializes the game on a corpus loading in the background, waiting for it
+     * at most the given time and playing on the default corpus if it is not
+     * ready by then or fails to load.
+     *
+     * @param dictionary The future of the corpus
+     * @param wait The longest time to wait for it
+     */
+    public void initialize(CompletableFuture<Corpus> dictionary, Duration wait) {
+        try {
+            corpus = dictionary.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            System.out.println("Dictionary not loaded yet, playing on the default corpus.");
+            corpus = gameLogic.createDefaultCorpus();
+        } catch (ExecutionException e) {
+            System.out.println("Corpus is empty or invalid.");
+            corpus = gameLogic.createDefaultCorpus();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            corpus = gameLogic.createDefaultCorpus();
+        }
+        gameLogic.initialize(corpus);
+        System.out.println("Secret key (hidden): " + gameLogic.getSecretKey());
+    }
+
     /**
      * Loads the corpus of words for the game.
      * If loading fails, falls back to a default corpus.
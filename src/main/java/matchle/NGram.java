@@ -1,13 +1,13 @@
 package matchle;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.Set;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -20,26 +20,116 @@ import java.util.stream.Stream;
  * characters exist at specific positions or anywhere in the sequence, and supports
  * various methods of iteration through the sequence with position information.
  * <p>
+ * Words of at most 12 lowercase letters, which is what dictionaries are made of,
+ * are packed into a single long with 5 bits per letter, alongside a 26-bit mask of
+ * the letters they contain. Equality, hashing, ordering and {@link #contains} are
+ * then single integer operations. Other words are stored as a char array.
+ * <p>
  * Instances of this class are immutable and thread-safe.
  */
-public final class NGram implements Iterable<IndexedCharacter>, Serializable {
-    /** Serialization version UID for consistent serialization across versions */
-    private static final long serialVersionUID = 1L;
-    
-    /** The internal list of characters in this NGram */
-    private final ArrayList<Character> ngram;
-    
-    /** Set of unique characters in this NGram for efficient containment checks */
-    private final Set<Character> charset;
+public final class NGram implements Iterable<IndexedCharacter>, Comparable<NGram>, Serializable {
+    /**
+     * Serialization version UID, changed with the packed representation so that
+     * streams of the earlier list-based form are rejected
+     */
+    private static final long serialVersionUID = 2L;
+
+    /** Longest word that can be packed into a single long */
+    static final int MAX_PACKED_LENGTH = 12;
+
+    /** Number of bits per packed letter */
+    private static final int BITS_PER_LETTER = 5;
+
+    /** Value of {@link #packed} for words that are stored as a char array */
+    static final long NOT_PACKED = -1L;
+
+    /**
+     * The characters of this NGram, or null when the word is packed.
+     * Only words with characters outside 'a'-'z' or longer than
+     * {@link #MAX_PACKED_LENGTH} are stored this way.
+     */
+    private final char[] characters;
+
+    /**
+     * The letters of this NGram packed 5 bits each ('a' is 1, 'z' is 26), the first
+     * letter in bits 55-59 and the following ones in the next lower groups, with
+     * unused trailing groups left at zero. Packed words therefore compare like
+     * their strings when their packed values are compared as longs.
+     * {@link #NOT_PACKED} when the word is stored in {@link #characters}.
+     */
+    private final long packed;
+
+    /** Bit {@code i} is set when the letter {@code 'a' + i} occurs in this NGram */
+    private final int letterMask;
+
+    /** Cached hash code */
+    private final int hash;
 
     /**
-     * Private constructor to create a new NGram from a list of characters.
+     * Private constructor to create a new NGram from an array of characters.
+     * The array is packed when possible and must not be modified afterwards.
      * 
-     * @param characters The list of characters to include in this NGram
+     * @param characters The characters to include in this NGram
+     */
+    private NGram(char[] characters) {
+        this.packed = pack(characters);
+        this.characters = packed == NOT_PACKED ? characters : null;
+        int mask = 0;
+        for (char c : characters) {
+            if (isLetter(c)) {
+                mask |= 1 << (c - 'a');
+            }
+        }
+        this.letterMask = mask;
+        this.hash = packed == NOT_PACKED ? Arrays.hashCode(characters) : Long.hashCode(packed);
+    }
+
+    /**
+     * Rebuilds the derived fields from the stored word, so that a stream whose
+     * fields disagree is rejected rather than read into a broken NGram.
      */
-    private NGram(List<Character> characters) {
-        this.ngram = new ArrayList<>(characters);
-        this.charset = new HashSet<>(characters);
+    private Object readResolve() throws ObjectStreamException {
+        try {
+            NGram rebuilt = characters != null ? new NGram(characters.clone()) : fromPacked(packed);
+            if (rebuilt.packed != packed) {
+                throw new InvalidObjectException("Inconsistent serialized NGram");
+            }
+            return rebuilt;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidObjectException("Invalid serialized NGram: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks if a character is one of the lowercase letters that can be packed.
+     */
+    private static boolean isLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    /**
+     * Packs the characters into a long, or returns {@link #NOT_PACKED} if they
+     * are too many or not all lowercase letters.
+     */
+    private static long pack(char[] characters) {
+        if (characters.length > MAX_PACKED_LENGTH) {
+            return NOT_PACKED;
+        }
+        long packed = 0;
+        for (int i = 0; i < characters.length; i++) {
+            if (!isLetter(characters[i])) {
+                return NOT_PACKED;
+            }
+            packed |= (long) (characters[i] - 'a' + 1) << shift(i);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the bit offset of the letter at the given index in a packed word.
+     */
+    static int shift(int index) {
+        return (MAX_PACKED_LENGTH - 1 - index) * BITS_PER_LETTER;
     }
 
     /**
@@ -53,12 +143,16 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      */
     public static final NGram from(List<Character> characters) {
         NullCharacterException.validate(characters);
-        return new NGram(characters);
+        char[] chars = new char[characters.size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = characters.get(i);
+        }
+        return new NGram(chars);
     }
 
     /**
      * Creates a new NGram from a string.
-     * This method converts the string to a list of characters.
+     * This method converts the string to an array of characters.
      * 
      * @param word The string to convert to an NGram
      * @return A new NGram instance
@@ -66,11 +160,56 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      */
     public static final NGram from(String word) {
         Objects.requireNonNull(word, "Word cannot be null");
-        List<Character> characters = new ArrayList<>();
-        for (char c : word.toCharArray()) {
-            characters.add(c);
+        return new NGram(word.toCharArray());
+    }
+
+    /**
+     * Creates a new NGram from its packed representation.
+     * 
+     * @param packed A value returned by {@link #packed()} for a packed word
+     * @return A new NGram instance
+     * @throws IllegalArgumentException if the value is not a valid packed word
+     */
+    static NGram fromPacked(long packed) {
+        int length = packedLength(packed);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int letter = (int) (packed >>> shift(i)) & 31;
+            if (letter < 1 || letter > 26) {
+                throw new IllegalArgumentException("Invalid packed word: " + Long.toHexString(packed));
+            }
+            chars[i] = (char) ('a' + letter - 1);
+        }
+        NGram ngram = new NGram(chars);
+        if (ngram.packed != packed) {
+            throw new IllegalArgumentException("Invalid packed word: " + Long.toHexString(packed));
         }
-        return from(characters);
+        return ngram;
+    }
+
+    /**
+     * Returns the number of letters in a packed word.
+     */
+    private static int packedLength(long packed) {
+        return packed == 0 ? 0 : MAX_PACKED_LENGTH - Long.numberOfTrailingZeros(packed) / BITS_PER_LETTER;
+    }
+
+    /**
+     * Returns the packed representation of this NGram.
+     * 
+     * @return The packed letters, or {@link #NOT_PACKED} if this word is stored as characters
+     */
+    long packed() {
+        return packed;
+    }
+
+    /**
+     * Returns the set of lowercase letters occurring in this NGram as a bit mask.
+     * 
+     * @return A mask with bit {@code i} set when the letter {@code 'a' + i} occurs
+     */
+    int letterMask() {
+        return letterMask;
     }
 
     /**
@@ -81,7 +220,22 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public Character get(int index) {
-        return ngram.get(index);
+        return charAt(index);
+    }
+
+    /**
+     * Gets the character at the specified index without boxing it.
+     * 
+     * @param index The index of the character to retrieve
+     * @return The character at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public char charAt(int index) {
+        if (characters != null) {
+            return characters[index];
+        }
+        Objects.checkIndex(index, size());
+        return (char) ('a' - 1 + ((packed >>> shift(index)) & 31));
     }
 
     /**
@@ -90,7 +244,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @return The size of this NGram
      */
     public int size() {
-        return ngram.size();
+        return characters != null ? characters.length : packedLength(packed);
     }
 
     /**
@@ -101,7 +255,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @return true if the character at the specified index matches, false otherwise
      */
     public boolean matches(IndexedCharacter c) {
-        return ngram.get(c.index()).equals(c.character()); 
+        return charAt(c.index()) == c.character(); 
     }
 
     /**
@@ -111,7 +265,18 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @return true if this NGram contains the character, false otherwise
      */
     public boolean contains(char c) {
-        return charset.contains(c);
+        if (isLetter(c)) {
+            return (letterMask & (1 << (c - 'a'))) != 0;
+        }
+        if (characters == null) {
+            return false;
+        }
+        for (char character : characters) {
+            if (character == c) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -122,7 +287,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @return true if the character exists in this NGram but at a different index, false otherwise
      */
     public boolean containsElsewhere(IndexedCharacter c) {
-        return charset.contains(c.character()) && !matches(c);
+        return contains(c.character()) && !matches(c);
     }
 
     /**
@@ -137,7 +302,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
         if (this == obj) return true;
         if (!(obj instanceof NGram)) return false;
         NGram other = (NGram) obj;
-        return ngram.equals(other.ngram);
+        return packed == other.packed && Arrays.equals(characters, other.characters);
     }
 
     /**
@@ -147,7 +312,31 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(ngram);
+        return hash;
+    }
+
+    /**
+     * Compares this NGram with another one lexicographically, character by
+     * character, a prefix ordering before the longer NGram. This is the same
+     * order as the one of their strings.
+     * 
+     * @param other The NGram to compare with
+     * @return A negative number, zero or a positive number as this NGram is less
+     *         than, equal to or greater than the other
+     */
+    @Override
+    public int compareTo(NGram other) {
+        if (packed != NOT_PACKED && other.packed != NOT_PACKED) {
+            return Long.compare(packed, other.packed);
+        }
+        int length = Math.min(size(), other.size());
+        for (int i = 0; i < length; i++) {
+            int diff = charAt(i) - other.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return size() - other.size();
     }
 
     /**
@@ -157,8 +346,8 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      * @return A stream of indexed characters
      */
     public Stream<IndexedCharacter> stream() {
-        return IntStream.range(0, ngram.size())
-                .mapToObj(i -> new IndexedCharacter(i, ngram.get(i)));
+        return IntStream.range(0, size())
+                .mapToObj(i -> new IndexedCharacter(i, charAt(i)));
     }
 
     /**
@@ -190,7 +379,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
          */
         @Override
         public boolean hasNext() {
-            return index < ngram.size();
+            return index < size();
         }
 
         /**
@@ -202,7 +391,7 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
         @Override
         public IndexedCharacter next() {
             if (!hasNext()) throw new NoSuchElementException();
-            return new IndexedCharacter(index, ngram.get(index++));
+            return new IndexedCharacter(index, charAt(index++));
         }
     }
 
@@ -214,10 +403,13 @@ public final class NGram implements Iterable<IndexedCharacter>, Serializable {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        for (Character c : ngram) {
-            sb.append(c);
+        if (characters != null) {
+            return new String(characters);
+        }
+        char[] chars = new char[size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = charAt(i);
         }
-        return sb.toString();
+        return new String(chars);
     }
 }
@@ -8,6 +8,28 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 final class NGramMatcher {
+    /** Feedback digit for a guessed letter that does not occur (again) in the key */
+    static final int ABSENT = 0;
+
+    /** Feedback digit for a guessed letter that occurs in the key at another position */
+    static final int MISPLACED = 1;
+
+    /** Feedback digit for a guessed letter at the same position as in the key */
+    static final int CORRECT = 2;
+
+    /** Longest word whose base-3 feedback code still fits in an int */
+    static final int MAX_CODE_LENGTH = 19;
+
+    /** Powers of three, the weight of each position in a feedback code */
+    private static final int[] POWERS_OF_THREE = new int[MAX_CODE_LENGTH + 1];
+
+    static {
+        POWERS_OF_THREE[0] = 1;
+        for (int i = 1; i < POWERS_OF_THREE.length; i++) {
+            POWERS_OF_THREE[i] = POWERS_OF_THREE[i - 1] * 3;
+        }
+    }
+
     private final NGram key;
     private final NGram guess;
 
@@ -35,7 +57,150 @@ final class NGramMatcher {
 
         return buildFilter(correctMatches, misplacedMatches, absentLetters);
     }
-    
+
+    /**
+     * Computes the per-position feedback for the guess against the key, using the
+     * same duplicate-letter rules as {@link #match()}: 'G' marks a correct letter,
+     * 'Y' a misplaced letter and '.' an absent letter.
+     *
+     * @return The feedback pattern, one character per position of the guess
+     * @throws IllegalArgumentException if the key and guess differ in size
+     */
+    public String feedback() {
+        return displayPattern(guess, feedbackCode(key, guess));
+    }
+
+    /**
+     * Computes the feedback for the guess against the key as a base-3 integer.
+     * Position {@code i} contributes {@link #CORRECT}, {@link #MISPLACED} or
+     * {@link #ABSENT} times {@code 3^i}, following the same duplicate-letter rules
+     * as {@link #computeCorrectMatches} and {@link #computeMisplacedMatches}:
+     * correct letters are matched first, then misplaced letters left to right,
+     * each key letter being used at most once.
+     * <p>
+     * This method allocates nothing, so it is safe to call in scoring loops.
+     *
+     * @param key The secret key
+     * @param guess The guess to compare against the key
+     * @return The feedback code, between 0 and {@code 3^size - 1}
+     * @throws IllegalArgumentException if the key and guess differ in size or are
+     *         longer than {@link #MAX_CODE_LENGTH}
+     */
+    public static int feedbackCode(NGram key, NGram guess) {
+        int size = guess.size();
+        if (key.size() != size) {
+            throw new IllegalArgumentException("Size mismatch between key and guess.");
+        }
+        if (size > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Feedback codes support words of at most "
+                    + MAX_CODE_LENGTH + " characters");
+        }
+        int keyMatched = 0;
+        int guessMatched = 0;
+        int code = 0;
+        for (int i = 0; i < size; i++) {
+            if (key.charAt(i) == guess.charAt(i)) {
+                keyMatched |= 1 << i;
+                guessMatched |= 1 << i;
+                code += CORRECT * POWERS_OF_THREE[i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if ((guessMatched & (1 << i)) != 0) {
+                continue;
+            }
+            char c = guess.charAt(i);
+            for (int j = 0; j < size; j++) {
+                if ((keyMatched & (1 << j)) == 0 && key.charAt(j) == c) {
+                    keyMatched |= 1 << j;
+                    code += MISPLACED * POWERS_OF_THREE[i];
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Returns the number of distinct feedback codes for words of the given size.
+     *
+     * @param size The word size
+     * @return {@code 3^size}
+     * @throws IllegalArgumentException if size is longer than {@link #MAX_CODE_LENGTH}
+     */
+    static int codeCount(int size) {
+        if (size > MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Feedback codes support words of at most "
+                    + MAX_CODE_LENGTH + " characters");
+        }
+        return POWERS_OF_THREE[size];
+    }
+
+    /**
+     * Returns the feedback digit of a code at the given position.
+     *
+     * @param code The feedback code
+     * @param index The position in the guess
+     * @return {@link #CORRECT}, {@link #MISPLACED} or {@link #ABSENT}
+     */
+    static int digit(int code, int index) {
+        return code / POWERS_OF_THREE[index] % 3;
+    }
+
+    /**
+     * Rebuilds the display form of a feedback code: 'G' marks a correct letter,
+     * 'Y' a misplaced letter and '.' an absent letter.
+     *
+     * @param guess The guess the code was computed for
+     * @param code The feedback code
+     * @return The feedback pattern, one character per position of the guess
+     */
+    public static String displayPattern(NGram guess, int code) {
+        char[] display = new char[guess.size()];
+        for (int i = 0; i < display.length; i++) {
+            switch (digit(code, i)) {
+                case CORRECT:
+                    display[i] = 'G';
+                    break;
+                case MISPLACED:
+                    display[i] = 'Y';
+                    break;
+                default:
+                    display[i] = '.';
+            }
+        }
+        return new String(display);
+    }
+
+    /**
+     * Rebuilds a Filter from a feedback code. The filter accepts exactly the words
+     * that would produce the same feedback for the guess, and carries the same
+     * pattern description as the filters returned by {@link #match()}.
+     *
+     * @param guess The guess the code was computed for
+     * @param code The feedback code
+     * @return A Filter accepting the words consistent with the feedback
+     */
+    public static Filter toFilter(NGram guess, int code) {
+        Map<Integer, Character> correctMatches = new HashMap<>();
+        Set<IndexedCharacter> misplacedMatches = new HashSet<>();
+        Set<Character> absentLetters = new HashSet<>();
+        for (int i = 0; i < guess.size(); i++) {
+            switch (digit(code, i)) {
+                case CORRECT:
+                    correctMatches.put(i, guess.get(i));
+                    break;
+                case MISPLACED:
+                    misplacedMatches.add(new IndexedCharacter(i, guess.get(i)));
+                    break;
+                default:
+                    absentLetters.add(guess.get(i));
+            }
+        }
+        String pattern = describe(guess.size(), correctMatches, misplacedMatches, absentLetters);
+        return Filter.from(Constraints.fromFeedback(guess, code), pattern);
+    }
+
     // debug method, print detailed match information
     public String debugMatch() {
         if (key.size() != guess.size()) {
@@ -109,14 +274,14 @@ final class NGramMatcher {
         return absentLetters;
     }
 
-    private String buildDisplayPattern(Map<Integer, Character> correctMatches) {
-        char[] display = new char[key.size()];
+    private static String buildDisplayPattern(int size, Map<Integer, Character> correctMatches) {
+        char[] display = new char[size];
         Arrays.fill(display, '_');
         correctMatches.forEach((k, v) -> display[k] = v);
         return new String(display);
     }
 
-    private String formatMisplacedLetters(Set<IndexedCharacter> misplacedMatches) {
+    private static String formatMisplacedLetters(Set<IndexedCharacter> misplacedMatches) {
         if (misplacedMatches.isEmpty()) {
             return "";
         }
@@ -126,7 +291,7 @@ final class NGramMatcher {
             .collect(Collectors.joining());
     }
 
-    private String formatAbsentLetters(Set<Character> absentLetters) {
+    private static String formatAbsentLetters(Set<Character> absentLetters) {
         if (absentLetters.isEmpty()) {
             return "";
         }
@@ -135,23 +300,25 @@ final class NGramMatcher {
             .collect(Collectors.joining());
     }
 
-    private Filter buildFilter(Map<Integer, Character> correctMatches,
-                             Set<IndexedCharacter> misplacedMatches,
-                             Set<Character> absentLetters) {
-        String pattern = "Correct: " + buildDisplayPattern(correctMatches)
+    private static String describe(int size,
+                                   Map<Integer, Character> correctMatches,
+                                   Set<IndexedCharacter> misplacedMatches,
+                                   Set<Character> absentLetters) {
+        return "Correct: " + buildDisplayPattern(size, correctMatches)
             + formatMisplacedLetters(misplacedMatches)
             + formatAbsentLetters(absentLetters);
+    }
 
-        return Filter.from(ngram -> {
-            // first check if it is the original key, if so, return true
-            if (ngram.equals(key)) {
-                return true;
+    private Filter buildFilter(Map<Integer, Character> correctMatches,
+                             Set<IndexedCharacter> misplacedMatches,
+                             Set<Character> absentLetters) {
+        String pattern = describe(key.size(), correctMatches, misplacedMatches, absentLetters);
+        Constraints constraints = Constraints.fromDigits(guess, i -> {
+            if (correctMatches.containsKey(i)) {
+                return CORRECT;
             }
-            
-            // check other NGrams
-            return correctMatches.entrySet().stream().allMatch(e -> ngram.get(e.getKey()).equals(e.getValue()))
-                && misplacedMatches.stream().allMatch(ngram::containsElsewhere)
-                && absentLetters.stream().noneMatch(ngram::contains);
-        }).withPattern(pattern);
+            return misplacedMatches.contains(new IndexedCharacter(i, guess.get(i))) ? MISPLACED : ABSENT;
+        });
+        return Filter.from(constraints, pattern);
     }
 }
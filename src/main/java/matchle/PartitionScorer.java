@@ -0,0 +1,166 @@
+package matchle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Scores guesses by partitioning a set of candidate words on the feedback
+ * each candidate would produce for the guess.
+ * <p>
+ * Two candidates that yield the same feedback for a guess cannot be told apart
+ * by that guess, so the candidates sharing a feedback pattern form one bucket.
+ * If the secret key lies in a bucket of size {@code s}, exactly {@code s}
+ * candidates remain after the guess. This turns the worst-case score into the
+ * largest bucket and the average-case score into the sum of squared bucket
+ * sizes divided by the number of candidates, both computed with a single pass
+ * over the candidates per guess.
+ * <p>
+ * Feedback is compared through the integer codes of
+ * {@link NGramMatcher#feedbackCode}, so partitioning allocates only the codes
+ * and bucket counters. When a {@link FeedbackMatrix} covering the candidates is
+ * given, codes for guesses it covers are looked up instead of computed.
+ */
+final class PartitionScorer {
+    /** Largest feedback code space counted with a dense array; larger ones are sorted instead */
+    private static final int MAX_DENSE_CODES = 59049;
+
+    /** The candidate words that may still be the secret key */
+    private final List<NGram> candidates;
+
+    /** Precomputed feedback covering every candidate, or null */
+    private final FeedbackMatrix matrix;
+
+    /** The ordinal of each candidate in the matrix, or null without a matrix */
+    private final int[] matrixOrdinals;
+
+    /**
+     * Creates a scorer over the given candidates.
+     *
+     * @param candidates The candidate words to partition
+     * @param matrix Precomputed feedback covering every candidate, or null
+     */
+    private PartitionScorer(Collection<NGram> candidates, FeedbackMatrix matrix) {
+        this.candidates = List.copyOf(candidates);
+        this.matrix = matrix;
+        this.matrixOrdinals = matrix == null ? null
+                : this.candidates.stream().mapToInt(matrix::ordinal).toArray();
+    }
+
+    /**
+     * Creates a scorer over the given candidates.
+     *
+     * @param candidates The candidate words to partition
+     * @return A new PartitionScorer
+     * @throws NullPointerException if candidates is null or contains null
+     */
+    static PartitionScorer of(Collection<NGram> candidates) {
+        return new PartitionScorer(candidates, null);
+    }
+
+    /**
+     * Creates a scorer over the given candidates that looks feedback up in a
+     * precomputed matrix.
+     *
+     * @param candidates The candidate words to partition
+     * @param matrix Precomputed feedback covering every candidate, or null to
+     *               compute feedback on the fly
+     * @return A new PartitionScorer
+     * @throws NullPointerException if candidates is null or contains null
+     */
+    static PartitionScorer of(Collection<NGram> candidates, FeedbackMatrix matrix) {
+        return new PartitionScorer(candidates, matrix);
+    }
+
+    /**
+     * Computes the feedback code of every candidate for the guess.
+     *
+     * @param guess The guess, of the same size as the candidates
+     * @return The codes, indexed like the candidates
+     */
+    private int[] codes(NGram guess) {
+        int[] codes = new int[candidates.size()];
+        int row = matrix == null ? -1 : matrix.ordinal(guess);
+        if (row >= 0) {
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = matrix.code(row, matrixOrdinals[i]);
+            }
+        } else {
+            for (int i = 0; i < codes.length; i++) {
+                codes[i] = NGramMatcher.feedbackCode(candidates.get(i), guess);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Groups the candidates by the feedback they produce for the guess.
+     *
+     * @param guess The guess to partition the candidates with
+     * @return The sizes of the non-empty buckets, in no particular order; empty if
+     *         the guess does not have the same size as the candidates
+     * @throws IllegalArgumentException if the guess is longer than
+     *         {@link NGramMatcher#MAX_CODE_LENGTH}
+     */
+    int[] partition(NGram guess) {
+        if (candidates.isEmpty() || candidates.get(0).size() != guess.size()) {
+            return new int[0];
+        }
+        int codeCount = NGramMatcher.codeCount(guess.size());
+        int[] codes = codes(guess);
+        if (codeCount <= MAX_DENSE_CODES) {
+            int[] counts = new int[codeCount];
+            for (int code : codes) {
+                counts[code]++;
+            }
+            return Arrays.stream(counts).filter(count -> count > 0).toArray();
+        }
+        return sortedPartition(codes);
+    }
+
+    /**
+     * Groups feedback codes by sorting them, for code spaces too large to count
+     * with a dense array.
+     */
+    private static int[] sortedPartition(int[] codes) {
+        Arrays.sort(codes);
+        int[] sizes = new int[codes.length];
+        int buckets = 0;
+        int start = 0;
+        for (int i = 1; i <= codes.length; i++) {
+            if (i == codes.length || codes[i] != codes[start]) {
+                sizes[buckets++] = i - start;
+                start = i;
+            }
+        }
+        return Arrays.copyOf(sizes, buckets);
+    }
+
+    /**
+     * Returns the number of candidates left in the worst case after the guess,
+     * i.e. the size of the largest bucket.
+     *
+     * @param guess The guess to score
+     * @return The worst-case number of remaining candidates
+     */
+    long worstCase(NGram guess) {
+        return Arrays.stream(partition(guess)).max().orElse(0);
+    }
+
+    /**
+     * Returns the expected number of candidates left after the guess, assuming
+     * every candidate is equally likely to be the key.
+     *
+     * @param guess The guess to score
+     * @return The average-case number of remaining candidates
+     */
+    double averageCase(NGram guess) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        long sumOfSquares = Arrays.stream(partition(guess))
+                .mapToLong(size -> (long) size * size)
+                .sum();
+        return (double) sumOfSquares / candidates.size();
+    }
+}
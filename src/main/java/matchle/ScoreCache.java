@@ -0,0 +1,220 @@
+package matchle;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded cache of scores keyed by a pair of word ordinals, with a fixed
+ * memory budget and least-recently-used eviction.
+ * <p>
+ * Entries live in primitive arrays, 24 bytes each (key, value and access stamp),
+ * so the cache holds no boxed keys or values. The arrays are allocated at full
+ * capacity when the cache is created, so its footprint is known up front and
+ * does not grow with the entries; {@link Stats#bytes()} reports it. The arrays
+ * are divided into sets of {@value #WAYS} entries; a pair of ordinals always
+ * maps to the same set, and inserting into a full set evicts its least recently
+ * used entry. A budget too small for one set gives a cache holding nothing,
+ * which computes every score. Sets are guarded by a fixed number of lock
+ * stripes, so concurrent scoring threads rarely contend.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class ScoreCache {
+    /** Bytes used by one entry: an 8-byte key, an 8-byte value and an 8-byte stamp */
+    static final int ENTRY_BYTES = 24;
+
+    /** Number of entries per set */
+    static final int WAYS = 8;
+
+    /** Number of lock stripes guarding the sets */
+    private static final int STRIPES = 64;
+
+    /** Key of an empty slot; packed ordinal pairs are never negative */
+    private static final long EMPTY = -1L;
+
+    /** Key of each slot, or {@link #EMPTY} */
+    private final long[] keys;
+
+    /** Value of each slot */
+    private final long[] values;
+
+    /** Access stamp of each slot, larger is more recent */
+    private final long[] stamps;
+
+    /** Number of sets minus one, the number of sets being a power of two */
+    private final int setMask;
+
+    /** Locks of the stripes, set {@code s} being guarded by {@code locks[s % STRIPES]} */
+    private final Object[] locks;
+
+    /** Access clock of each stripe */
+    private final long[] clocks;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder entries = new LongAdder();
+
+    /**
+     * Counters describing the use of a score cache.
+     *
+     * @param hits Number of lookups answered from the cache
+     * @param misses Number of lookups that had to compute the score
+     * @param evictions Number of entries evicted to make room for others
+     * @param entries Number of entries currently held
+     * @param capacity Maximum number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, long entries, long capacity) {
+        /**
+         * Returns the memory allocated for the entries, full or not.
+         *
+         * @return The size of the entry arrays in bytes
+         */
+        public long bytes() {
+            return capacity * ENTRY_BYTES;
+        }
+
+        /**
+         * Returns the part of the allocated memory holding current entries.
+         *
+         * @return The size of the current entries in bytes
+         */
+        public long usedBytes() {
+            return entries * ENTRY_BYTES;
+        }
+
+        /**
+         * Returns the fraction of lookups answered from the cache.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private ScoreCache(int sets) {
+        int slots = sets * WAYS;
+        this.keys = new long[slots];
+        this.values = new long[slots];
+        this.stamps = new long[slots];
+        this.setMask = sets - 1;
+        int stripes = Math.min(STRIPES, sets);
+        this.locks = new Object[stripes];
+        this.clocks = new long[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Creates a cache that uses at most the given number of bytes, and never more
+     * than needed to hold the given number of entries, though at least one set.
+     * A budget below one set, {@value #WAYS} times {@value #ENTRY_BYTES} bytes,
+     * gives a cache holding nothing.
+     *
+     * @param budgetBytes The memory budget in bytes
+     * @param maxEntries The largest number of entries worth holding
+     * @return A new ScoreCache
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    static ScoreCache withBudget(long budgetBytes, long maxEntries) {
+        if (budgetBytes < 0) {
+            throw new IllegalArgumentException("Cache budget cannot be negative: " + budgetBytes);
+        }
+        long capacity = Math.min(budgetBytes / ENTRY_BYTES, Math.max(WAYS, maxEntries));
+        // round the number of sets down to a power of two, keeping within budget
+        long sets = Long.highestOneBit(capacity / WAYS);
+        return new ScoreCache((int) Math.min(sets, 1 << 26));
+    }
+
+    /**
+     * Returns the cached score of a pair of ordinals, computing and caching it if
+     * absent. The score is computed outside any lock, so two threads missing on the
+     * same pair may both compute it.
+     *
+     * @param first The first ordinal, non-negative
+     * @param second The second ordinal, non-negative
+     * @param compute Computes the score on a miss
+     * @return The score
+     */
+    long computeIfAbsent(int first, int second, LongSupplier compute) {
+        if (keys.length == 0) {
+            misses.increment();
+            return compute.getAsLong();
+        }
+        long key = ((long) first << 32) | second;
+        int set = set(key);
+        int stripe = set % locks.length;
+        int start = set * WAYS;
+        synchronized (locks[stripe]) {
+            for (int i = start; i < start + WAYS; i++) {
+                if (keys[i] == key) {
+                    stamps[i] = ++clocks[stripe];
+                    hits.increment();
+                    return values[i];
+                }
+            }
+        }
+        misses.increment();
+        long value = compute.getAsLong();
+        synchronized (locks[stripe]) {
+            int victim = victim(key, start);
+            if (keys[victim] == EMPTY) {
+                entries.increment();
+            } else if (keys[victim] != key) {
+                evictions.increment();
+            }
+            keys[victim] = key;
+            values[victim] = value;
+            stamps[victim] = ++clocks[stripe];
+        }
+        return value;
+    }
+
+    /**
+     * the slot of a set to store a key in: the slot already holding it if another
+     * thread cached it meanwhile, else an empty slot, else the least recently used
+     */
+    private int victim(long key, int start) {
+        int empty = -1;
+        int oldest = start;
+        for (int i = start; i < start + WAYS; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+            if (keys[i] == EMPTY && empty < 0) {
+                empty = i;
+            } else if (stamps[i] < stamps[oldest]) {
+                oldest = i;
+            }
+        }
+        return empty >= 0 ? empty : oldest;
+    }
+
+    private int set(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & setMask;
+    }
+
+    /**
+     * Returns the maximum number of entries of this cache.
+     *
+     * @return The capacity in entries
+     */
+    long capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns a snapshot of the counters of this cache.
+     *
+     * @return The current statistics
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.sum(), capacity());
+    }
+}
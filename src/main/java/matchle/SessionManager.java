@@ -0,0 +1,347 @@
+package matchle;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import matchle.exception.CorpusException.EmptyCorpusException;
+import matchle.scoring.BestGuessCache;
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
+
+/**
+ * Hosts many concurrent games against one shared corpus.
+ * <p>
+ * A {@link GameLogic} owns the whole state of a single game, including its
+ * candidate corpus. A session of this manager holds only what distinguishes one
+ * game from another: the ordinal of its secret key, the ordinals of its remaining
+ * candidates as a bitset, and its guesses. Everything else is shared by the
+ * sessions: the corpus, its index answering the feedback of a guess, its feedback
+ * matrix and its score caches. Narrowing the candidates of a session after a guess
+ * is a selection on the index of the corpus, and scoring the candidates of a
+ * session uses a view of the corpus that shares its index and matrix; a session
+ * whose candidates are still the whole corpus is scored on the corpus itself, so
+ * the opening guess is computed once for all sessions.
+ * <p>
+ * Sessions follow the rules of {@link GameLogic}: a guess must have the size of
+ * the words of the corpus, and a session is over once its key is guessed or at
+ * most one candidate remains. This class is thread-safe; operations on distinct
+ * sessions proceed in parallel.
+ */
+public final class SessionManager {
+
+    /**
+     * The outcome of a guess in a session.
+     *
+     * @param guess The guess
+     * @param feedback The feedback pattern of the guess as by {@link NGramMatcher#feedback()}
+     * @param remaining The number of remaining candidates
+     * @param solved Whether the guess is the secret key
+     */
+    public record GuessResult(NGram guess, String feedback, int remaining, boolean solved) {
+    }
+
+    /**
+     * Thrown when an operation names a session that does not exist or was closed.
+     */
+    public static final class UnknownSessionException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        UnknownSessionException(long sessionId) {
+            super("No session with id " + sessionId);
+        }
+    }
+
+    private final Corpus corpus;
+    private final ScoringStrategy scoringStrategy;
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Creates a manager of sessions on a corpus, suggesting guesses with the
+     * default scoring strategy.
+     *
+     * @param corpus The corpus shared by the sessions
+     * @throws NullPointerException if corpus is null
+     */
+    public SessionManager(Corpus corpus) {
+        this(corpus, StrategyRegistry.get(StrategyRegistry.DEFAULT));
+    }
+
+    /**
+     * Creates a manager of sessions on a corpus.
+     *
+     * @param corpus The corpus shared by the sessions
+     * @param scoringStrategy The strategy suggesting guesses
+     * @throws NullPointerException if corpus or scoringStrategy is null
+     */
+    public SessionManager(Corpus corpus, ScoringStrategy scoringStrategy) {
+        this.corpus = Objects.requireNonNull(corpus, "Corpus cannot be null");
+        this.scoringStrategy = Objects.requireNonNull(scoringStrategy, "Scoring strategy cannot be null");
+    }
+
+    /**
+     * The state of one game: everything but the shared corpus. Guarded by its own lock.
+     */
+    private static final class Session {
+        private final int key;
+        private BitSet candidates;
+        private NGram[] guesses = new NGram[0];
+        private boolean solved;
+
+        Session(int key, BitSet candidates) {
+            this.key = key;
+            this.candidates = candidates;
+        }
+    }
+
+    /**
+     * Gets the corpus shared by the sessions.
+     *
+     * @return The corpus
+     */
+    public Corpus getCorpus() {
+        return corpus;
+    }
+
+    /**
+     * Creates a session whose secret key is chosen at random from the corpus.
+     *
+     * @return The id of the new session
+     * @throws EmptyCorpusException if the corpus is empty
+     */
+    public long create() {
+        if (corpus.size() == 0) {
+            throw new EmptyCorpusException();
+        }
+        return create(ThreadLocalRandom.current().nextInt(corpus.size()));
+    }
+
+    /**
+     * Creates a session with the given secret key.
+     *
+     * @param secretKey The secret key, a word of the corpus
+     * @return The id of the new session
+     * @throws IllegalArgumentException if the corpus does not contain the key
+     */
+    public long create(NGram secretKey) {
+        Objects.requireNonNull(secretKey, "Secret key cannot be null");
+        int key = corpus.ordinal(secretKey);
+        if (key < 0) {
+            throw new IllegalArgumentException("Secret key is not in the corpus: " + secretKey);
+        }
+        return create(key);
+    }
+
+    private long create(int key) {
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new Session(key, corpus.allOrdinals()));
+        return id;
+    }
+
+    /**
+     * Plays a guess in a session and narrows its candidates to those consistent
+     * with the feedback.
+     *
+     * @param sessionId The id of the session
+     * @param guess The guess
+     * @return The outcome of the guess
+     * @throws UnknownSessionException if there is no such session
+     * @throws IllegalArgumentException if the guess does not have the size of
+     *         the words of the corpus
+     * @throws IllegalStateException if the session is over
+     */
+    public GuessResult guess(long sessionId, NGram guess) {
+        Objects.requireNonNull(guess, "Guess cannot be null");
+        if (guess.size() != corpus.wordSize()) {
+            throw new IllegalArgumentException("Guess must have " + corpus.wordSize() + " letters: " + guess);
+        }
+        Session session = session(sessionId);
+        synchronized (session) {
+            if (isOver(session)) {
+                throw new IllegalStateException("Session " + sessionId + " is over");
+            }
+            NGram key = corpus.get(session.key);
+            int code = NGramMatcher.feedbackCode(key, guess);
+            session.candidates = corpus.select(NGramMatcher.toFilter(guess, code), session.candidates);
+            session.guesses = Arrays.copyOf(session.guesses, session.guesses.length + 1);
+            session.guesses[session.guesses.length - 1] = guess;
+            session.solved = key.equals(guess);
+            return new GuessResult(guess, NGramMatcher.displayPattern(guess, code),
+                    session.candidates.cardinality(), session.solved);
+        }
+    }
+
+    /**
+     * Suggests the next guess of a session with the scoring strategy of this
+     * manager, through the {@link BestGuessCache#shared() shared cache}.
+     *
+     * @param sessionId The id of the session
+     * @return The best guess among the remaining candidates
+     * @throws UnknownSessionException if there is no such session
+     */
+    public NGram bestGuess(long sessionId) {
+        return BestGuessCache.shared().findBestGuess(scoringStrategy, candidateCorpus(sessionId));
+    }
+
+    /**
+     * Returns the remaining candidates of a session as a corpus, which is the
+     * shared corpus itself until the first guess narrows them.
+     *
+     * @param sessionId The id of the session
+     * @return The remaining candidates, sharing the index and matrix of the corpus
+     * @throws UnknownSessionException if there is no such session
+     */
+    public Corpus candidateCorpus(long sessionId) {
+        return candidateCorpus(candidateOrdinals(sessionId));
+    }
+
+    /**
+     * Returns the words of the shared corpus at the given ordinals as a corpus,
+     * which is the shared corpus itself if all ordinals are set.
+     *
+     * @param ordinals The ordinals in the shared corpus, such as the
+     *                 {@link #candidateOrdinals} of a session
+     * @return The words at the ordinals, sharing the index and matrix of the
+     *         corpus, or null if no ordinal is set
+     */
+    public Corpus candidateCorpus(BitSet ordinals) {
+        return ordinals.cardinality() == corpus.size() ? corpus : corpus.subset(ordinals);
+    }
+
+    /**
+     * Returns the ordinals in the shared corpus of the remaining candidates of a
+     * session. Sessions with equal candidate ordinals get the same suggestions.
+     *
+     * @param sessionId The id of the session
+     * @return A copy of the candidate ordinals
+     * @throws UnknownSessionException if there is no such session
+     */
+    public BitSet candidateOrdinals(long sessionId) {
+        Session session = session(sessionId);
+        synchronized (session) {
+            return (BitSet) session.candidates.clone();
+        }
+    }
+
+    /**
+     * Gets the strategy suggesting guesses.
+     *
+     * @return The scoring strategy of this manager
+     */
+    public ScoringStrategy getScoringStrategy() {
+        return scoringStrategy;
+    }
+
+    /**
+     * Returns the number of remaining candidates of a session.
+     *
+     * @param sessionId The id of the session
+     * @return The number of words consistent with the guesses so far
+     * @throws UnknownSessionException if there is no such session
+     */
+    public int remaining(long sessionId) {
+        Session session = session(sessionId);
+        synchronized (session) {
+            return session.candidates.cardinality();
+        }
+    }
+
+    /**
+     * Returns the first remaining candidates of a session.
+     *
+     * @param sessionId The id of the session
+     * @param limit The maximum number of candidates to return
+     * @return The words consistent with the guesses so far, in corpus order
+     * @throws UnknownSessionException if there is no such session
+     */
+    public List<NGram> candidates(long sessionId, int limit) {
+        return candidateOrdinals(sessionId).stream().limit(limit).mapToObj(corpus::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the guesses played in a session.
+     *
+     * @param sessionId The id of the session
+     * @return The guesses in the order they were played
+     * @throws UnknownSessionException if there is no such session
+     */
+    public List<NGram> guesses(long sessionId) {
+        Session session = session(sessionId);
+        synchronized (session) {
+            return List.of(session.guesses);
+        }
+    }
+
+    /**
+     * Returns the secret key of a session.
+     *
+     * @param sessionId The id of the session
+     * @return The secret key
+     * @throws UnknownSessionException if there is no such session
+     */
+    public NGram secretKey(long sessionId) {
+        return corpus.get(session(sessionId).key);
+    }
+
+    /**
+     * Checks whether a session is over, the key having been guessed or at most
+     * one candidate remaining.
+     *
+     * @param sessionId The id of the session
+     * @return true if no more guesses can be played
+     * @throws UnknownSessionException if there is no such session
+     */
+    public boolean isOver(long sessionId) {
+        Session session = session(sessionId);
+        synchronized (session) {
+            return isOver(session);
+        }
+    }
+
+    private static boolean isOver(Session session) {
+        return session.solved || session.candidates.cardinality() <= 1;
+    }
+
+    /**
+     * Checks whether a session is open.
+     *
+     * @param sessionId The id of the session
+     * @return true if the session was created and not closed
+     */
+    public boolean contains(long sessionId) {
+        return sessions.containsKey(sessionId);
+    }
+
+    /**
+     * Removes a session.
+     *
+     * @param sessionId The id of the session
+     * @return true if the session existed
+     */
+    public boolean close(long sessionId) {
+        return sessions.remove(sessionId) != null;
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return The number of sessions created and not closed
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private Session session(long sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            throw new UnknownSessionException(sessionId);
+        }
+        return session;
+    }
+}
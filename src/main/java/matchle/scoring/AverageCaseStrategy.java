@@ -0,0 +1,42 @@
+package matchle.scoring;
+
+import java.util.Objects;
+
+import matchle.Corpus;
+import matchle.NGram;
+
+/**
+ * Scores guesses by the expected number of candidates left, assuming every
+ * candidate is equally likely to be the key.
+ * <p>
+ * Scoring a guess takes one pass over the candidates, so finding the best guess
+ * is quadratic in the number of candidates.
+ */
+public final class AverageCaseStrategy implements ScoringStrategy {
+
+    /**
+     * Calculates the negated expected number of remaining candidates, so that
+     * higher scores are better.
+     *
+     * @param corpus The corpus of candidate words to evaluate against
+     * @param guess The potential guess to evaluate
+     * @return Minus the average-case number of remaining candidates
+     */
+    @Override
+    public double calculateScore(Corpus corpus, NGram guess) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return -corpus.scoreAverageCase(guess);
+    }
+
+    /**
+     * Finds the candidate that minimizes the average case.
+     *
+     * @param corpus The corpus of candidate words to search within
+     * @return The best average-case guess
+     */
+    @Override
+    public NGram findBestGuess(Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return corpus.bestAverageCaseGuess();
+    }
+}
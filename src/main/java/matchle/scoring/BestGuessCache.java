@@ -0,0 +1,203 @@
+package matchle.scoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import matchle.Corpus;
+import matchle.NGram;
+
+/**
+ * A bounded cache of best guesses, keyed by scoring strategy and candidate set.
+ * <p>
+ * Every game on a dictionary starts from the same candidates, and many games
+ * narrow them down to the same candidates after a round or two, so the same
+ * suggestions are computed again and again. The best guess a strategy finds
+ * depends only on the candidate words, which this cache identifies by their
+ * {@link Corpus#fingerprint() fingerprint} and number, so a suggestion computed
+ * for one game answers every other game with the same candidates, whether their
+ * corpus is a separate instance, a subset view or the dictionary itself.
+ * Strategies are compared by identity, so the shared instances of the
+ * {@link StrategyRegistry} share their entries.
+ * <p>
+ * The cache holds at most a fixed number of entries and evicts the least
+ * recently used one when full. {@link #shared()} is the process-wide instance,
+ * whose capacity is set by the system property {@value #CAPACITY_PROPERTY}.
+ * <p>
+ * Instances are thread-safe. A best guess missing from the cache is computed
+ * outside its lock, so concurrent lookups of the same candidates may both
+ * compute it.
+ */
+public final class BestGuessCache {
+    /** System property setting the number of entries of the shared cache */
+    public static final String CAPACITY_PROPERTY = "matchle.bestGuessCache.entries";
+
+    /** Number of entries of the shared cache unless set by {@link #CAPACITY_PROPERTY} */
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private static final BestGuessCache SHARED =
+            new BestGuessCache(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    private final int capacity;
+    private final Map<Key, NGram> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * The identity of a lookup: the strategy, and the fingerprint and size of the candidates.
+     */
+    private record Key(ScoringStrategy strategy, long fingerprint, int size) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && strategy == other.strategy
+                    && fingerprint == other.fingerprint && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(strategy), fingerprint, size);
+        }
+    }
+
+    /**
+     * Counters describing the use of a best-guess cache.
+     *
+     * @param hits Number of lookups answered from the cache
+     * @param misses Number of lookups that had to compute the best guess
+     * @param evictions Number of entries evicted to make room
+     * @param entries Number of entries held
+     * @param capacity Maximum number of entries
+     */
+    public record Stats(long hits, long misses, long evictions, long entries, long capacity) {
+        /**
+         * Returns the fraction of lookups answered from the cache.
+         *
+         * @return The hit rate between 0 and 1, or 0 if there was no lookup
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries.
+     *
+     * @param capacity The maximum number of entries
+     * @throws IllegalArgumentException if capacity is not positive
+     */
+    public BestGuessCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, NGram> eldest) {
+                if (size() > BestGuessCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the process-wide cache.
+     *
+     * @return The shared cache
+     */
+    public static BestGuessCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the best guess of a strategy among candidates, from the cache if a
+     * lookup of the same strategy on the same candidate words was made before.
+     *
+     * @param strategy The strategy finding the best guess
+     * @param candidates The candidate words
+     * @return The best guess, as by {@link ScoringStrategy#findBestGuess}
+     * @throws NullPointerException if strategy or candidates is null
+     */
+    public NGram findBestGuess(ScoringStrategy strategy, Corpus candidates) {
+        Objects.requireNonNull(strategy, "Strategy cannot be null");
+        Objects.requireNonNull(candidates, "Corpus cannot be null");
+        Key key = new Key(strategy, candidates.fingerprint(), candidates.size());
+        synchronized (this) {
+            NGram cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        NGram best = strategy.findBestGuess(candidates);
+        synchronized (this) {
+            entries.put(key, best);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the best guess of a strategy among candidates if it is in the
+     * cache, without computing it. A found entry counts as a hit.
+     *
+     * @param strategy The strategy finding the best guess
+     * @param candidates The candidate words
+     * @return The cached best guess, or empty if none is cached
+     * @throws NullPointerException if strategy or candidates is null
+     */
+    public Optional<NGram> lookup(ScoringStrategy strategy, Corpus candidates) {
+        Objects.requireNonNull(strategy, "Strategy cannot be null");
+        Objects.requireNonNull(candidates, "Corpus cannot be null");
+        Key key = new Key(strategy, candidates.fingerprint(), candidates.size());
+        synchronized (this) {
+            NGram cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+            }
+            return Optional.ofNullable(cached);
+        }
+    }
+
+    /**
+     * Records the best guess of a strategy among candidates computed elsewhere,
+     * such as by a search reporting its progress.
+     *
+     * @param strategy The strategy that found the best guess
+     * @param candidates The candidate words
+     * @param best The best guess, as by {@link ScoringStrategy#findBestGuess}
+     * @throws NullPointerException if an argument is null
+     */
+    public void put(ScoringStrategy strategy, Corpus candidates, NGram best) {
+        Objects.requireNonNull(strategy, "Strategy cannot be null");
+        Objects.requireNonNull(candidates, "Corpus cannot be null");
+        Objects.requireNonNull(best, "Best guess cannot be null");
+        Key key = new Key(strategy, candidates.fingerprint(), candidates.size());
+        synchronized (this) {
+            entries.put(key, best);
+        }
+    }
+
+    /**
+     * Removes every entry, keeping the counters.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the counters of this cache.
+     *
+     * @return The current counters
+     */
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), capacity);
+    }
+}
@@ -0,0 +1,77 @@
+package matchle.scoring;
+
+import java.util.Map;
+import java.util.Objects;
+
+import matchle.Corpus;
+import matchle.NGram;
+import matchle.exception.CorpusException.EmptyCorpusException;
+
+/**
+ * Scores guesses by the expected information their feedback reveals.
+ * <p>
+ * If the candidates are equally likely to be the secret key, the feedback of a
+ * guess is a random variable whose distribution is given by the sizes of the
+ * groups of candidates sharing a feedback pattern. The score of a guess is the
+ * Shannon entropy of that distribution, in bits:
+ * {@code H = log2(n) - (1/n) * sum(s * log2(s))} over the group sizes {@code s}.
+ * A guess of higher entropy splits the candidates more evenly on average, which
+ * tends to solve games in fewer rounds than minimizing the worst case.
+ * <p>
+ * The group sizes come from {@link Corpus#feedbackPartition}, so scoring a guess
+ * takes a single pass over the candidates.
+ */
+public final class EntropyStrategy implements ScoringStrategy {
+
+    /**
+     * Calculates the entropy of the feedback of a guess over the corpus.
+     *
+     * @param corpus The corpus of candidate words to evaluate against
+     * @param guess The potential guess to evaluate
+     * @return The expected information of the feedback in bits, higher is better
+     * @throws NullPointerException if corpus or guess is null
+     */
+    @Override
+    public double calculateScore(Corpus corpus, NGram guess) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return entropy(corpus.feedbackPartition(guess));
+    }
+
+    /**
+     * Returns the entropy in bits of the distribution given by the group sizes.
+     *
+     * @param sizes The sizes of the groups
+     * @return The entropy, 0 if there are no groups
+     */
+    static double entropy(int[] sizes) {
+        long n = 0;
+        double weighted = 0;
+        for (int size : sizes) {
+            n += size;
+            weighted += size * log2(size);
+        }
+        return n == 0 ? 0 : log2(n) - weighted / n;
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2);
+    }
+
+    /**
+     * Finds the candidate whose feedback has the highest entropy, scoring the
+     * candidates in parallel. Ties go to the first candidate in corpus order.
+     *
+     * @param corpus The corpus of candidate words to search within
+     * @return The guess of highest entropy
+     * @throws EmptyCorpusException if the corpus is empty
+     */
+    @Override
+    public NGram findBestGuess(Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return corpus.stream().parallel()
+                .map(guess -> Map.entry(guess, calculateScore(corpus, guess)))
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElseThrow(EmptyCorpusException::new);
+    }
+}
@@ -1,5 +1,7 @@
 package matchle.scoring;
 
+import java.util.function.ToDoubleFunction;
+
 import matchle.Corpus;
 import matchle.NGram;
 
@@ -43,4 +45,18 @@ public interface ScoringStrategy {
      * @return The NGram representing the best guess according to this strategy
      */
     NGram findBestGuess(Corpus corpus);
+
+    /**
+     * Returns a function scoring guesses against a corpus, as by
+     * {@link #calculateScore}. Strategies whose scores share work across
+     * guesses override this to do that work once, so that callers scoring
+     * many guesses themselves, such as to report progress, are not slower
+     * than {@link #findBestGuess}.
+     *
+     * @param corpus The corpus of candidate words to evaluate against
+     * @return A function giving the score of a guess
+     */
+    default ToDoubleFunction<NGram> scorer(Corpus corpus) {
+        return guess -> calculateScore(corpus, guess);
+    }
 } 
\ No newline at end of file
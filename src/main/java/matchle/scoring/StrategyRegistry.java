@@ -0,0 +1,93 @@
+package matchle.scoring;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A registry of scoring strategies keyed by name.
+ * <p>
+ * The built-in strategies trade suggestion quality for latency:
+ * <ul>
+ *   <li>{@value #ENTROPY}: maximizes expected information, quadratic in the candidates</li>
+ *   <li>{@value #WORST_CASE}: minimizes the largest remaining group, quadratic</li>
+ *   <li>{@value #AVERAGE_CASE}: minimizes the expected remaining candidates, quadratic</li>
+ *   <li>{@value #HEURISTIC}: favors common letters, linear in the candidates</li>
+ * </ul>
+ * Further strategies can be registered under new names, or replace a built-in
+ * one. The registry is thread-safe.
+ */
+public final class StrategyRegistry {
+    /** Name of the {@link WorstCaseStrategy} */
+    public static final String WORST_CASE = "worst-case";
+
+    /** Name of the {@link AverageCaseStrategy} */
+    public static final String AVERAGE_CASE = "average-case";
+
+    /** Name of the {@link EntropyStrategy} */
+    public static final String ENTROPY = "entropy";
+
+    /** Name of the {@link HeuristicStrategy} */
+    public static final String HEURISTIC = "heuristic";
+
+    /** Name of the strategy used when none is selected */
+    public static final String DEFAULT = WORST_CASE;
+
+    private static final Map<String, ScoringStrategy> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put(WORST_CASE, new WorstCaseStrategy());
+        STRATEGIES.put(AVERAGE_CASE, new AverageCaseStrategy());
+        STRATEGIES.put(ENTROPY, new EntropyStrategy());
+        STRATEGIES.put(HEURISTIC, new HeuristicStrategy());
+    }
+
+    private StrategyRegistry() {
+        // static registry, not instantiable
+    }
+
+    /**
+     * Registers a strategy under a name, replacing any strategy of that name.
+     *
+     * @param name The name of the strategy
+     * @param strategy The strategy
+     * @throws NullPointerException if name or strategy is null
+     */
+    public static void register(String name, ScoringStrategy strategy) {
+        Objects.requireNonNull(name, "Name cannot be null");
+        Objects.requireNonNull(strategy, "Strategy cannot be null");
+        synchronized (STRATEGIES) {
+            STRATEGIES.put(name, strategy);
+        }
+    }
+
+    /**
+     * Returns the strategy registered under a name.
+     *
+     * @param name The name of the strategy
+     * @return The strategy
+     * @throws IllegalArgumentException if no strategy has that name
+     */
+    public static ScoringStrategy get(String name) {
+        ScoringStrategy strategy;
+        synchronized (STRATEGIES) {
+            strategy = STRATEGIES.get(name);
+        }
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unknown scoring strategy: " + name);
+        }
+        return strategy;
+    }
+
+    /**
+     * Returns the names of the registered strategies, in registration order.
+     *
+     * @return An immutable list of names
+     */
+    public static List<String> names() {
+        synchronized (STRATEGIES) {
+            return List.copyOf(STRATEGIES.keySet());
+        }
+    }
+}
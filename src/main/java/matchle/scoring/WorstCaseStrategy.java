@@ -0,0 +1,43 @@
+package matchle.scoring;
+
+import java.util.Objects;
+
+import matchle.Corpus;
+import matchle.NGram;
+
+/**
+ * Scores guesses by the number of candidates left in the worst case, i.e. the
+ * largest group of candidates sharing a feedback pattern.
+ * <p>
+ * Minimizing the worst case guarantees the most progress against an adversarial
+ * key. Scoring a guess takes one pass over the candidates, so finding the best
+ * guess is quadratic in the number of candidates.
+ */
+public final class WorstCaseStrategy implements ScoringStrategy {
+
+    /**
+     * Calculates the negated worst-case number of remaining candidates, so that
+     * higher scores are better.
+     *
+     * @param corpus The corpus of candidate words to evaluate against
+     * @param guess The potential guess to evaluate
+     * @return Minus the size of the largest feedback group
+     */
+    @Override
+    public double calculateScore(Corpus corpus, NGram guess) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return -corpus.scoreWorstCase(guess);
+    }
+
+    /**
+     * Finds the candidate that minimizes the worst case.
+     *
+     * @param corpus The corpus of candidate words to search within
+     * @return The best worst-case guess
+     */
+    @Override
+    public NGram findBestGuess(Corpus corpus) {
+        Objects.requireNonNull(corpus, "Corpus cannot be null");
+        return corpus.bestWorstCaseGuess();
+    }
+}
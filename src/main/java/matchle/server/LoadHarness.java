@@ -0,0 +1,224 @@
+package matchle.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the throughput and latency of a {@link MatchleServer}.
+ * <p>
+ * A number of concurrent clients play games against the server until a duration
+ * elapses: each starts a game, then repeatedly asks for a suggestion and plays it
+ * until the game is over, and ends the game. The clients share one HTTP client,
+ * which keeps its connections alive across requests. The report gives the number
+ * of requests per second and percentiles of their latency.
+ * <p>
+ * Run it from the command line with
+ * {@code java matchle.server.LoadHarness [base-url] [clients] [seconds]}, such as
+ * {@code java matchle.server.LoadHarness http://localhost:8080 64 30}.
+ */
+public final class LoadHarness {
+
+    private static final Pattern ID_FIELD = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern GUESS_FIELD = Pattern.compile("\"guess\":\"([^\"]*)\"");
+    private static final Pattern OVER_FIELD = Pattern.compile("\"over\":true");
+
+    /** Pause of a client after a failed request to start a game, so errors do not spin */
+    private static final long ERROR_BACKOFF_MILLIS = 10;
+
+    private LoadHarness() {
+        // static utility, not instantiable
+    }
+
+    /**
+     * The outcome of a load test.
+     *
+     * @param requests The number of successful requests
+     * @param errors The number of failed requests
+     * @param games The number of games played to the end
+     * @param elapsed The duration of the test
+     * @param latenciesNanos The sorted latencies of the successful requests
+     */
+    public record Report(long requests, long errors, long games, Duration elapsed, long[] latenciesNanos) {
+
+        /**
+         * Returns the number of successful requests per second.
+         *
+         * @return The throughput of the server
+         */
+        public double requestsPerSecond() {
+            return requests / (elapsed.toNanos() / 1e9);
+        }
+
+        /**
+         * Returns a percentile of the latency of the successful requests.
+         *
+         * @param percentile The percentile, between 0 and 100
+         * @return The latency, zero if no request succeeded
+         */
+        public Duration latency(double percentile) {
+            if (latenciesNanos.length == 0) {
+                return Duration.ZERO;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+            return Duration.ofNanos(latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d errors), %d games in %.1f s: %.0f requests/s, "
+                            + "latency p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    requests, errors, games, elapsed.toNanos() / 1e9, requestsPerSecond(),
+                    millis(latency(50)), millis(latency(90)), millis(latency(99)), millis(latency(100)));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+
+    /**
+     * Runs a load test.
+     *
+     * @param base The base URL of the server, such as {@code http://localhost:8080}
+     * @param clients The number of concurrent clients
+     * @param duration How long the clients keep starting games
+     * @return The report of the test
+     * @throws InterruptedException If interrupted while waiting for the clients
+     * @throws IllegalArgumentException if clients is not positive
+     */
+    public static Report run(URI base, int clients, Duration duration) throws InterruptedException {
+        if (clients <= 0) {
+            throw new IllegalArgumentException("Number of clients must be positive: " + clients);
+        }
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<Client>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(pool.submit(() -> new Client(http, base).play(deadline)));
+        }
+        long requests = 0;
+        long errors = 0;
+        long games = 0;
+        List<long[]> latencies = new ArrayList<>();
+        try {
+            for (Future<Client> future : futures) {
+                Client client = future.get();
+                requests += client.count;
+                errors += client.errors;
+                games += client.games;
+                latencies.add(Arrays.copyOf(client.latencies, client.count));
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load test client failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Report(requests, errors, games, Duration.ofNanos(System.nanoTime() - start), all);
+    }
+
+    /**
+     * One client playing games in a loop, recording the latency of its requests.
+     */
+    private static final class Client {
+        private final HttpClient http;
+        private final URI base;
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+        private long games;
+
+        Client(HttpClient http, URI base) {
+            this.http = http;
+            this.base = base;
+        }
+
+        Client play(long deadline) throws InterruptedException {
+            while (System.nanoTime() < deadline) {
+                String created = send("POST", "/games", "");
+                Matcher id = created == null ? null : ID_FIELD.matcher(created);
+                if (id == null || !id.find()) {
+                    Thread.sleep(ERROR_BACKOFF_MILLIS);
+                    continue;
+                }
+                String game = "/games/" + id.group(1);
+                boolean over = false;
+                while (!over && System.nanoTime() < deadline) {
+                    String best = send("GET", game + "/best", "");
+                    Matcher guess = best == null ? null : GUESS_FIELD.matcher(best);
+                    if (guess == null || !guess.find()) {
+                        break;
+                    }
+                    String played = send("POST", game + "/guesses", "{\"guess\":\"" + guess.group(1) + "\"}");
+                    if (played == null) {
+                        break;
+                    }
+                    over = OVER_FIELD.matcher(played).find();
+                }
+                if (over) {
+                    games++;
+                }
+                send("DELETE", game, "");
+            }
+            return this;
+        }
+
+        /**
+         * Sends a request and records its latency.
+         *
+         * @return The body of a successful response, or null on failure
+         */
+        private String send(String method, String path, String body) throws InterruptedException {
+            HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .header("Content-Type", "application/json")
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                long latency = System.nanoTime() - start;
+                if (response.statusCode() != 200) {
+                    errors++;
+                    return null;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+                return response.body();
+            } catch (IOException e) {
+                errors++;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Runs a load test and prints its report.
+     *
+     * @param args The base URL of the server, the number of clients and the
+     *             duration in seconds
+     * @throws InterruptedException If interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:" + MatchleServer.DEFAULT_PORT);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        System.out.println(run(base, clients, Duration.ofSeconds(seconds)));
+    }
+}
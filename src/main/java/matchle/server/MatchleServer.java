@@ -0,0 +1,270 @@
+package matchle.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import matchle.Corpus;
+import matchle.CorpusLoader;
+import matchle.CorpusSnapshot;
+import matchle.GameLogic;
+import matchle.NGram;
+import matchle.SessionManager;
+
+/**
+ * An HTTP server exposing games as a JSON API, built on the HTTP server of the
+ * JDK so that it needs no other dependency.
+ * <p>
+ * The games are sessions of a {@link SessionManager} sharing one corpus, and
+ * requests are handled on the request executor of a {@link SessionExecutor}, so
+ * suggestions are computed on its bounded pool and coalesced. The endpoints are:
+ * <ul>
+ *   <li>{@code POST /games} starts a game with a random key and returns its id</li>
+ *   <li>{@code GET /games/{id}} returns the number of candidates, the guesses and
+ *       whether the game is over</li>
+ *   <li>{@code POST /games/{id}/guesses} with a body {@code {"guess":"hello"}}
+ *       plays a guess and returns its feedback</li>
+ *   <li>{@code GET /games/{id}/best} suggests the next guess</li>
+ *   <li>{@code DELETE /games/{id}} ends the game</li>
+ * </ul>
+ * Errors are returned as {@code {"error":"..."}} with status 400 for an invalid
+ * request, 404 for an unknown game or path, 405 for an unsupported method, 409
+ * for a guess in a game that is over and 500 for any other failure. Responses
+ * have a fixed length, so clients can keep connections alive across requests.
+ * <p>
+ * The server can be started from the command line with
+ * {@code java matchle.server.MatchleServer [port] [word-list-or-snapshot word-length]}.
+ */
+public final class MatchleServer implements AutoCloseable {
+
+    /** Port the server listens on by default */
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final Pattern GUESS_FIELD = Pattern.compile("\"guess\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final HttpServer server;
+    private final SessionExecutor executor;
+
+    private MatchleServer(HttpServer server, SessionExecutor executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server on an address.
+     *
+     * @param address The address to listen on, with port 0 for any free port
+     * @param executor The executor running the requests; it is not closed with the server
+     * @return The started server
+     * @throws IOException If the server cannot listen on the address
+     */
+    public static MatchleServer start(InetSocketAddress address, SessionExecutor executor) throws IOException {
+        Objects.requireNonNull(address, "Address cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        HttpServer server = HttpServer.create(address, 0);
+        MatchleServer matchleServer = new MatchleServer(server, executor);
+        server.createContext("/games", matchleServer::handle);
+        server.setExecutor(executor.requests());
+        server.start();
+        return matchleServer;
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return The bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the server, closing its connections.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            Response response;
+            try {
+                response = route(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                        new String(body, StandardCharsets.UTF_8));
+            } catch (IllegalStateException e) {
+                response = Response.error(409, e.getMessage());
+            } catch (SessionManager.UnknownSessionException e) {
+                // the game may have been deleted by a concurrent request
+                response = Response.error(404, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                response = Response.error(500, e.getMessage());
+            }
+            byte[] json = response.json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(response.status, json.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(json);
+            }
+        }
+    }
+
+    /**
+     * A status and a JSON body.
+     */
+    private record Response(int status, String json) {
+        static Response ok(String json) {
+            return new Response(200, json);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(String.valueOf(message)) + "}");
+        }
+    }
+
+    private Response route(String method, String path, String body) {
+        SessionManager sessions = executor.getSessions();
+        String[] segments = path.replaceAll("^/+|/+$", "").split("/+");
+        if (!"games".equals(segments[0])) {
+            return Response.error(404, "No resource " + path);
+        }
+        if (segments.length == 1) {
+            if (!"POST".equals(method)) {
+                return Response.error(405, "Use POST to start a game");
+            }
+            long id = sessions.create();
+            return Response.ok("{\"id\":" + id + ",\"wordSize\":" + sessions.getCorpus().wordSize()
+                    + ",\"remaining\":" + sessions.remaining(id) + "}");
+        }
+        long id;
+        try {
+            id = Long.parseLong(segments[1]);
+        } catch (NumberFormatException e) {
+            return Response.error(404, "No game " + segments[1]);
+        }
+        String action = segments.length == 2 ? "" : segments[2];
+        if (segments.length > 3) {
+            return Response.error(404, "No resource " + path);
+        }
+        switch (action) {
+            case "":
+                if ("GET".equals(method)) {
+                    return Response.ok(describe(sessions, id));
+                }
+                if ("DELETE".equals(method)) {
+                    if (!sessions.close(id)) {
+                        return Response.error(404, "No game " + id);
+                    }
+                    return Response.ok("{\"id\":" + id + ",\"closed\":true}");
+                }
+                return Response.error(405, "Use GET or DELETE on a game");
+            case "guesses":
+                if (!"POST".equals(method)) {
+                    return Response.error(405, "Use POST to play a guess");
+                }
+                return Response.ok(guess(sessions, id, body));
+            case "best":
+                if (!"GET".equals(method)) {
+                    return Response.error(405, "Use GET to get a suggestion");
+                }
+                return Response.ok("{\"guess\":" + quote(bestGuess(id).toString()) + "}");
+            default:
+                return Response.error(404, "No resource " + path);
+        }
+    }
+
+    private static String describe(SessionManager sessions, long id) {
+        List<NGram> guesses = sessions.guesses(id);
+        return "{\"id\":" + id + ",\"remaining\":" + sessions.remaining(id)
+                + ",\"guesses\":" + guesses.stream().map(g -> quote(g.toString()))
+                        .collect(Collectors.joining(",", "[", "]"))
+                + ",\"over\":" + sessions.isOver(id) + "}";
+    }
+
+    private static String guess(SessionManager sessions, long id, String body) {
+        Matcher field = GUESS_FIELD.matcher(body);
+        if (!field.find()) {
+            throw new IllegalArgumentException("Expected a body {\"guess\":\"word\"}");
+        }
+        String word = field.group(1).trim().toLowerCase(Locale.ROOT);
+        if (word.isEmpty()) {
+            throw new IllegalArgumentException("Guess cannot be empty");
+        }
+        SessionManager.GuessResult result = sessions.guess(id, NGram.from(word));
+        return "{\"guess\":" + quote(word) + ",\"feedback\":" + quote(result.feedback())
+                + ",\"remaining\":" + result.remaining() + ",\"solved\":" + result.solved()
+                + ",\"over\":" + sessions.isOver(id) + "}";
+    }
+
+    private NGram bestGuess(long id) {
+        try {
+            return executor.bestGuess(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Quotes a string as a JSON string literal.
+     */
+    static String quote(String s) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Starts a server until the process is stopped.
+     *
+     * @param args The port, then optionally a word list or corpus snapshot and
+     *             the word length; without a word list, English words are
+     *             downloaded, or the default corpus is used
+     * @throws IOException If the server cannot start or the word list cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        Corpus corpus;
+        if (args.length > 1) {
+            Path file = Paths.get(args[1]);
+            corpus = file.toString().endsWith(".snapshot")
+                    ? CorpusSnapshot.load(file)
+                    : CorpusLoader.loadMapped(file, args.length > 2 ? Integer.parseInt(args[2]) : 5);
+        } else {
+            corpus = CorpusLoader.loadEnglishWords(5);
+        }
+        if (corpus == null) {
+            corpus = new GameLogic().createDefaultCorpus();
+        }
+        SessionExecutor executor = new SessionExecutor(new SessionManager(corpus));
+        MatchleServer server = start(new InetSocketAddress(port), executor);
+        System.out.println("Serving " + corpus.size() + " words on http://localhost:"
+                + server.getAddress().getPort() + "/games"
+                + (executor.usesVirtualThreads() ? " with virtual threads" : ""));
+    }
+}
@@ -0,0 +1,226 @@
+package matchle.server;
+
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import matchle.Corpus;
+import matchle.NGram;
+import matchle.SessionManager;
+import matchle.scoring.BestGuessCache;
+
+/**
+ * Runs the requests of many players against a {@link SessionManager}.
+ * <p>
+ * Each request runs on its own thread of a request executor. On Java 21 and
+ * later that executor starts a virtual thread per request, so the number of
+ * requests in flight is not limited by the number of platform threads; on older
+ * runtimes, where virtual threads are unavailable, it falls back to a cached pool
+ * of daemon platform threads. The executor is looked up reflectively so that the
+ * code still compiles for Java 17.
+ * <p>
+ * Best-guess suggestions, the only CPU-heavy requests, run on a bounded
+ * fork-join pool instead, whose parallelism also bounds the parallel streams of
+ * the scoring strategies. A suggestion depends only on the candidate ordinals of
+ * a session, so concurrent requests for sessions with equal candidates, such as
+ * every session that has not guessed yet, share a single computation, whose
+ * result is kept in the {@link BestGuessCache#shared() shared cache}.
+ */
+public final class SessionExecutor implements AutoCloseable {
+
+    private final SessionManager sessions;
+    private final ExecutorService requests;
+    private final boolean virtualThreads;
+    private final ForkJoinPool scoring;
+    // the suggestions being computed, by candidate ordinals
+    private final Map<BitSet, CompletableFuture<NGram>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    /**
+     * Creates an executor scoring on as many threads as there are processors.
+     *
+     * @param sessions The sessions to run requests against
+     */
+    public SessionExecutor(SessionManager sessions) {
+        this(sessions, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an executor.
+     *
+     * @param sessions The sessions to run requests against
+     * @param scoringParallelism The number of threads computing suggestions
+     * @throws IllegalArgumentException if scoringParallelism is not positive
+     */
+    public SessionExecutor(SessionManager sessions, int scoringParallelism) {
+        this.sessions = Objects.requireNonNull(sessions, "Sessions cannot be null");
+        if (scoringParallelism <= 0) {
+            throw new IllegalArgumentException("Scoring parallelism must be positive: " + scoringParallelism);
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.requests = virtual != null ? virtual : Executors.newCachedThreadPool(daemonThreads());
+        this.scoring = new ForkJoinPool(scoringParallelism);
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task, or null if the
+     * runtime does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "matchle-request-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Gets the sessions requests run against.
+     *
+     * @return The session manager
+     */
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    /**
+     * the executor requests run on, which a server may also run its handlers on
+     */
+    ExecutorService requests() {
+        return requests;
+    }
+
+    /**
+     * Checks whether requests run on virtual threads.
+     *
+     * @return true on runtimes supporting virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns the number of suggestions that were answered by joining a
+     * computation already in flight for the same candidates.
+     *
+     * @return The number of coalesced suggestions
+     */
+    public int coalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Creates a session with a random secret key.
+     *
+     * @return The id of the new session
+     */
+    public CompletableFuture<Long> create() {
+        return CompletableFuture.supplyAsync(sessions::create, requests);
+    }
+
+    /**
+     * Creates a session with the given secret key.
+     *
+     * @param secretKey The secret key, a word of the corpus
+     * @return The id of the new session
+     */
+    public CompletableFuture<Long> create(NGram secretKey) {
+        return CompletableFuture.supplyAsync(() -> sessions.create(secretKey), requests);
+    }
+
+    /**
+     * Plays a guess in a session.
+     *
+     * @param sessionId The id of the session
+     * @param guess The guess
+     * @return The outcome of the guess, completed exceptionally as by
+     *         {@link SessionManager#guess}
+     */
+    public CompletableFuture<SessionManager.GuessResult> guess(long sessionId, NGram guess) {
+        return CompletableFuture.supplyAsync(() -> sessions.guess(sessionId, guess), requests);
+    }
+
+    /**
+     * Returns the number of remaining candidates of a session.
+     *
+     * @param sessionId The id of the session
+     * @return The number of remaining candidates
+     */
+    public CompletableFuture<Integer> remaining(long sessionId) {
+        return CompletableFuture.supplyAsync(() -> sessions.remaining(sessionId), requests);
+    }
+
+    /**
+     * Suggests the next guess of a session, joining the computation in flight for
+     * another session with the same candidates if there is one.
+     *
+     * @param sessionId The id of the session
+     * @return The best guess among the remaining candidates
+     */
+    public CompletableFuture<NGram> bestGuess(long sessionId) {
+        return CompletableFuture.supplyAsync(() -> sessions.candidateOrdinals(sessionId), requests)
+                .thenCompose(this::bestGuess);
+    }
+
+    private CompletableFuture<NGram> bestGuess(BitSet candidates) {
+        CompletableFuture<NGram> started = new CompletableFuture<>();
+        CompletableFuture<NGram> running = inFlight.putIfAbsent(candidates, started);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return running;
+        }
+        scoring.execute(() -> {
+            NGram best = null;
+            Throwable failure = null;
+            try {
+                Corpus corpus = sessions.candidateCorpus(candidates);
+                best = BestGuessCache.shared().findBestGuess(sessions.getScoringStrategy(), corpus);
+            } catch (RuntimeException | Error e) {
+                failure = e;
+            }
+            // no longer in flight once complete, so later requests compute afresh
+            inFlight.remove(candidates, started);
+            if (failure == null) {
+                started.complete(best);
+            } else {
+                started.completeExceptionally(failure);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Stops accepting requests and waits briefly for those in flight to finish.
+     */
+    @Override
+    public void close() {
+        requests.shutdown();
+        scoring.shutdown();
+        try {
+            requests.awaitTermination(1, TimeUnit.SECONDS);
+            scoring.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package matchle.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Compares JMH results with a stored baseline and reports regressions.
+ * <p>
+ * Both files are JMH results in its JSON format, the baseline being the results
+ * of an earlier run on the same machine. Each benchmark, with its parameter
+ * values, is compared with the same benchmark of the baseline if it is one of
+ * the gated benchmarks, which are given by the end of their names, such as
+ * {@code MatcherBenchmark.match}, and are all the benchmarks of the baseline
+ * unless named. A gated benchmark of the baseline missing from the run fails
+ * the gate, as it may have failed to run. A benchmark regresses when its
+ * primary score is worse than the baseline's by more than the time tolerance,
+ * a fraction of the baseline score, or when it allocates more per operation, as
+ * measured by the GC profiler, by more than the allocation tolerance.
+ * Throughput is worse when lower, other modes when higher. A difference within
+ * the sum of the two runs' score errors is noise and never a regression.
+ * <p>
+ * Run it from the command line with
+ * {@code java matchle.util.BenchmarkGate <results> <baseline> [--tolerance 0.10]
+ * [--alloc-tolerance 0.10] [--benchmarks name,name]}; it exits with status 1 if
+ * a gated benchmark regressed, and 2 if the files cannot be compared. With
+ * {@code --jmh-args name,name} it prints the JMH arguments running the gated
+ * benchmarks instead, so that the gate runs what it compares.
+ */
+public final class BenchmarkGate {
+
+    /** Default allowed slowdown, as a fraction of the baseline score */
+    public static final double DEFAULT_TOLERANCE = 0.10;
+
+    /** Default allowed growth of the allocation per operation, as a fraction of the baseline */
+    public static final double DEFAULT_ALLOC_TOLERANCE = 0.10;
+
+    /** Allocation growth, in bytes per operation, always treated as noise */
+    static final double ALLOC_SLACK_BYTES = 16;
+
+    /** Names of the GC profiler metric of allocation per operation, by JMH version */
+    private static final List<String> ALLOC_METRICS = List.of("gc.alloc.rate.norm", "·gc.alloc.rate.norm");
+
+    private BenchmarkGate() {
+        // static utility, not instantiable
+    }
+
+    /**
+     * The result of one benchmark with given parameter values.
+     *
+     * @param name The benchmark and its parameter values
+     * @param mode The JMH mode, such as {@code thrpt} or {@code avgt}
+     * @param score The primary score
+     * @param error The error of the primary score, 0 if unknown
+     * @param unit The unit of the primary score
+     * @param allocation The bytes allocated per operation, or NaN if not profiled
+     */
+    public record Result(String name, String mode, double score, double error, String unit, double allocation) {
+    }
+
+    /**
+     * The comparison of a benchmark with its baseline.
+     *
+     * @param current The result of the run
+     * @param baseline The result of the baseline
+     * @param scoreChange The relative change of the score, positive when worse
+     * @param allocationChange The relative change of the allocation, positive when more, NaN if not profiled
+     * @param regressed Whether the change exceeds a tolerance
+     */
+    public record Comparison(Result current, Result baseline, double scoreChange, double allocationChange,
+                             boolean regressed) {
+    }
+
+    /**
+     * The comparisons of a run with its baseline.
+     *
+     * @param comparisons The comparisons of the gated benchmarks found in both
+     * @param missing The gated benchmarks of the baseline missing from the run
+     */
+    public record Report(List<Comparison> comparisons, List<String> missing) {
+
+        /**
+         * Returns whether the run passes the gate.
+         *
+         * @return true if something was compared, nothing regressed and nothing is missing
+         */
+        public boolean passed() {
+            return !comparisons.isEmpty() && missing.isEmpty()
+                    && comparisons.stream().noneMatch(Comparison::regressed);
+        }
+    }
+
+    /**
+     * Reads the results of a JMH run.
+     *
+     * @param json The results in the JMH JSON format
+     * @return The results by benchmark and parameter values, in name order
+     * @throws IllegalArgumentException if the text is not JMH results
+     */
+    public static Map<String, Result> parse(String json) {
+        Object root = new JsonParser(json).parseDocument();
+        if (!(root instanceof List<?> runs)) {
+            throw new IllegalArgumentException("JMH results should be a JSON array");
+        }
+        Map<String, Result> results = new TreeMap<>();
+        for (Object run : runs) {
+            Map<?, ?> benchmark = object(run, "benchmark");
+            String name = string(benchmark.get("benchmark"), "benchmark");
+            if (benchmark.get("params") instanceof Map<?, ?> params && !params.isEmpty()) {
+                name += new TreeMap<>(params).toString().replace(" ", "");
+            }
+            Map<?, ?> primary = object(benchmark.get("primaryMetric"), "primaryMetric");
+            double allocation = Double.NaN;
+            if (benchmark.get("secondaryMetrics") instanceof Map<?, ?> secondary) {
+                for (String metric : ALLOC_METRICS) {
+                    if (secondary.get(metric) instanceof Map<?, ?> alloc) {
+                        allocation = number(alloc.get("score"));
+                    }
+                }
+            }
+            double error = number(primary.get("scoreError"));
+            results.put(name, new Result(name, string(benchmark.get("mode"), "mode"),
+                    number(primary.get("score")), Double.isNaN(error) ? 0 : error,
+                    string(primary.get("scoreUnit"), "scoreUnit"), allocation));
+        }
+        return results;
+    }
+
+    /**
+     * Compares the gated benchmarks of a run with a baseline.
+     *
+     * @param current The results of the run
+     * @param baseline The results of the baseline
+     * @param tolerance The allowed relative worsening of the score
+     * @param allocTolerance The allowed relative growth of the allocation
+     * @param benchmarks The ends of the names of the gated benchmarks, all if empty
+     * @return The comparisons
+     * @throws IllegalArgumentException if a tolerance is negative, or a benchmark
+     *         changed its mode or unit since the baseline
+     */
+    public static Report compare(Map<String, Result> current, Map<String, Result> baseline,
+                                 double tolerance, double allocTolerance, List<String> benchmarks) {
+        if (!(tolerance >= 0) || !(allocTolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerances must be non-negative");
+        }
+        List<Comparison> comparisons = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Result before : baseline.values()) {
+            if (!isGated(before.name(), benchmarks)) {
+                continue;
+            }
+            Result after = current.get(before.name());
+            if (after == null) {
+                missing.add(before.name());
+                continue;
+            }
+            if (!after.mode().equals(before.mode()) || !after.unit().equals(before.unit())) {
+                throw new IllegalArgumentException(before.name() + " was measured in " + before.mode() + " "
+                        + before.unit() + " but now in " + after.mode() + " " + after.unit());
+            }
+            comparisons.add(compare(after, before, tolerance, allocTolerance));
+        }
+        return new Report(comparisons, missing);
+    }
+
+    private static Comparison compare(Result after, Result before, double tolerance, double allocTolerance) {
+        boolean higherIsBetter = "thrpt".equals(before.mode());
+        double worsening = higherIsBetter ? before.score() - after.score() : after.score() - before.score();
+        double scoreChange = worsening / before.score();
+        boolean slower = scoreChange > tolerance && worsening > after.error() + before.error();
+
+        double allocationChange = Double.NaN;
+        boolean heavier = false;
+        if (!Double.isNaN(after.allocation()) && !Double.isNaN(before.allocation())) {
+            double growth = after.allocation() - before.allocation();
+            allocationChange = before.allocation() == 0 ? (growth > 0 ? Double.POSITIVE_INFINITY : 0)
+                    : growth / before.allocation();
+            heavier = allocationChange > allocTolerance && growth > ALLOC_SLACK_BYTES;
+        }
+        return new Comparison(after, before, scoreChange, allocationChange, slower || heavier);
+    }
+
+    private static boolean isGated(String name, List<String> benchmarks) {
+        int params = name.indexOf('{');
+        String benchmark = params < 0 ? name : name.substring(0, params);
+        return benchmarks.isEmpty() || benchmarks.stream()
+                .anyMatch(gated -> benchmark.equals(gated) || benchmark.endsWith("." + gated));
+    }
+
+    /**
+     * Returns the JMH arguments running the gated benchmarks: a pattern matching
+     * the end of their names, and {@code -foe true} so that a benchmark that
+     * throws fails the run rather than being left out of its results.
+     *
+     * @param benchmarks The ends of the names of the gated benchmarks
+     * @return The arguments, separated by spaces
+     * @throws IllegalArgumentException if no benchmark is given
+     */
+    public static String jmhArguments(List<String> benchmarks) {
+        if (benchmarks.isEmpty()) {
+            throw new IllegalArgumentException("No gated benchmark");
+        }
+        StringJoiner names = new StringJoiner("|", "(^|\\.)(", ")$");
+        benchmarks.forEach(name -> names.add(name.replace(".", "\\.")));
+        return "-foe true " + names;
+    }
+
+    /**
+     * Formats a report as one line per comparison.
+     *
+     * @param report The report
+     * @return The text of the report
+     */
+    public static String format(Report report) {
+        StringBuilder text = new StringBuilder();
+        for (Comparison comparison : report.comparisons()) {
+            Result current = comparison.current();
+            text.append(String.format(Locale.ROOT, "%-10s %s: %.3f -> %.3f %s (%+.1f%%)",
+                    comparison.regressed() ? "REGRESSED" : "ok", current.name(),
+                    comparison.baseline().score(), current.score(), current.unit(),
+                    100 * comparison.scoreChange()));
+            if (!Double.isNaN(comparison.allocationChange())) {
+                text.append(String.format(Locale.ROOT, ", alloc %.0f -> %.0f B/op",
+                        comparison.baseline().allocation(), current.allocation()));
+            }
+            text.append('\n');
+        }
+        for (String name : report.missing()) {
+            text.append("missing    ").append(name).append('\n');
+        }
+        if (report.comparisons().isEmpty()) {
+            text.append("No gated benchmark was found in both the results and the baseline\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Compares a results file with a baseline file and exits with a failure
+     * status if a gated benchmark regressed.
+     *
+     * @param args The results file, the baseline file and the options
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkGate <results> <baseline> [--tolerance fraction]"
+                    + " [--alloc-tolerance fraction] [--benchmarks name,name]\n"
+                    + "       BenchmarkGate --jmh-args name,name");
+            System.exit(2);
+        }
+        if ("--jmh-args".equals(args[0])) {
+            try {
+                System.out.print(jmhArguments(names(args[1])));
+                System.exit(0);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                System.exit(2);
+            }
+        }
+        double tolerance = DEFAULT_TOLERANCE;
+        double allocTolerance = DEFAULT_ALLOC_TOLERANCE;
+        List<String> benchmarks = List.of();
+        try {
+            for (int i = 2; i < args.length; i += 2) {
+                String value = i + 1 < args.length ? args[i + 1] : "";
+                switch (args[i]) {
+                    case "--tolerance" -> tolerance = Double.parseDouble(value);
+                    case "--alloc-tolerance" -> allocTolerance = Double.parseDouble(value);
+                    case "--benchmarks" -> benchmarks = names(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            Map<String, Result> current = parse(read(Paths.get(args[0]), "results"));
+            Map<String, Result> baseline = parse(read(Paths.get(args[1]), "baseline"));
+            Report report = compare(current, baseline, tolerance, allocTolerance, benchmarks);
+            System.out.print(format(report));
+            System.exit(report.passed() ? 0 : 1);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    private static List<String> names(String list) {
+        return Arrays.stream(list.split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+    }
+
+    private static String read(Path file, String what) throws IOException {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            throw new NoSuchFileException(file.toString(), null,
+                    "no " + what + " file, record a baseline with ant jmh-baseline");
+        }
+    }
+
+    private static Map<?, ?> object(Object value, String field) {
+        if (value instanceof Map<?, ?> map) {
+            return map;
+        }
+        throw new IllegalArgumentException("JMH results should have an object " + field);
+    }
+
+    private static String string(Object value, String field) {
+        if (value instanceof String text) {
+            return text;
+        }
+        throw new IllegalArgumentException("JMH results should have a string " + field);
+    }
+
+    /**
+     * a JSON number, or a string JMH writes for special values such as "NaN"
+     */
+    private static double number(Object value) {
+        if (value instanceof Double number) {
+            return number;
+        }
+        if (value instanceof String text) {
+            try {
+                return Double.parseDouble(text);
+            } catch (NumberFormatException e) {
+                // not a number, fall through
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * A parser of the JSON subset JMH writes: objects become maps, arrays lists,
+     * numbers doubles.
+     */
+    private static final class JsonParser {
+        private final String text;
+        private int position;
+
+        JsonParser(String text) {
+            this.text = text;
+        }
+
+        Object parseDocument() {
+            Object value = parseValue();
+            skipWhitespace();
+            if (position != text.length()) {
+                throw error("Unexpected content");
+            }
+            return value;
+        }
+
+        private Object parseValue() {
+            skipWhitespace();
+            if (position == text.length()) {
+                throw error("Unexpected end");
+            }
+            char c = text.charAt(position);
+            switch (c) {
+                case '{':
+                    return parseObject();
+                case '[':
+                    return parseArray();
+                case '"':
+                    return parseString();
+                default:
+                    if (text.startsWith("true", position)) {
+                        position += 4;
+                        return Boolean.TRUE;
+                    }
+                    if (text.startsWith("false", position)) {
+                        position += 5;
+                        return Boolean.FALSE;
+                    }
+                    if (text.startsWith("null", position)) {
+                        position += 4;
+                        return null;
+                    }
+                    return parseNumber();
+            }
+        }
+
+        private Map<String, Object> parseObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if (consume('}')) {
+                return object;
+            }
+            do {
+                skipWhitespace();
+                if (position == text.length() || text.charAt(position) != '"') {
+                    throw error("Expected a field name");
+                }
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, parseValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect('}');
+            return object;
+        }
+
+        private List<Object> parseArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if (consume(']')) {
+                return array;
+            }
+            do {
+                array.add(parseValue());
+                skipWhitespace();
+            } while (consume(','));
+            expect(']');
+            return array;
+        }
+
+        private String parseString() {
+            StringBuilder value = new StringBuilder();
+            position++;
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position == text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> value.append('\n');
+                    case 't' -> value.append('\t');
+                    case 'r' -> value.append('\r');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error("Truncated escape");
+                        }
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> value.append(escaped);
+                }
+            }
+            throw error("Unterminated string");
+        }
+
+        private Double parseNumber() {
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return Double.valueOf(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Expected a value");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + position + " of the JMH results");
+        }
+    }
+}
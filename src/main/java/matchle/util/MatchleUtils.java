@@ -1,5 +1,14 @@
 package matchle.util;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -8,11 +17,13 @@ import java.util.Set;
  * Utility class providing common functions for the Matchle game.
  * <p>
  * This class contains static utility methods for various game-related operations
- * such as collection manipulation and string distance calculations. These methods
- * are used across different components of the game to provide consistent behavior.
+ * such as collection manipulation and string distance calculations, and for the
+ * binary files of the game: writing a file atomically and encoding integers in
+ * a variable number of bytes. These methods are used across different
+ * components of the game to provide consistent behavior.
  * <p>
- * All methods in this class are designed to be thread-safe and side-effect free.
- * This class cannot be instantiated as all methods are static.
+ * All methods in this class are thread-safe, and only the file methods have
+ * side effects. This class cannot be instantiated as all methods are static.
  */
 public final class MatchleUtils {
     
@@ -71,4 +82,123 @@ public final class MatchleUtils {
         }
         return distance;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Writes the contents of a file to a channel.
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+        /**
+         * Writes the contents.
+         *
+         * @param channel The channel of the file being written
+         * @throws IOException If an I/O error occurs during writing
+         */
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /**
+     * Writes a file atomically.
+     * <p>
+     * The contents are written to a temporary file next to the destination and
+     * forced to disk, then the temporary file is moved into place and the
+     * directory is forced, so that readers never see a partial file and the new
+     * file survives a crash once this method returns.
+     *
+     * @param file The file to write
+     * @param contents Writes the contents
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public static void writeAtomically(Path file, ChannelWriter contents) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            contents.write(channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(absolute.getParent());
+    }
+
+    /**
+     * Writes a file atomically, as by {@link #writeAtomically(Path, ChannelWriter)}.
+     *
+     * @param file The file to write
+     * @param contents The contents, from their position to their limit
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public static void writeAtomically(Path file, ByteBuffer contents) throws IOException {
+        writeAtomically(file, channel -> writeFully(channel, contents));
+    }
+
+    /**
+     * Writes a buffer to a channel, from its position to its limit.
+     *
+     * @param channel The channel
+     * @param buffer The buffer
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so that a file created or
+     * renamed in it survives a crash. Windows cannot open directories, and makes
+     * renames durable by itself.
+     *
+     * @param directory The directory
+     * @throws IOException If the directory cannot be forced
+     */
+    public static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Writes an int in 7-bit groups, least significant first, so that small
+     * non-negative values take one byte; a negative value takes five.
+     *
+     * @param out The output
+     * @param value The value
+     * @throws IOException If an I/O error occurs during writing
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads an int written by {@link #writeVarInt}.
+     *
+     * @param in The input
+     * @return The value
+     * @throws IOException If an I/O error occurs during reading, or the bytes
+     *         are not an int written by {@link #writeVarInt}
+     */
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
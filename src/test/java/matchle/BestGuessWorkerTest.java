@@ -0,0 +1,132 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+import matchle.scoring.BestGuessCache;
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
+
+/**
+ * Tests for the background search of the best guess
+ */
+public class BestGuessWorkerTest {
+
+    /**
+     * a corpus of every word over a few letters, large enough to take several chunks
+     */
+    private static Corpus corpus() {
+        Corpus.Builder builder = Corpus.Builder.of();
+        String letters = "abcdefg";
+        for (char a : letters.toCharArray()) {
+            for (char b : letters.toCharArray()) {
+                for (char c : letters.toCharArray()) {
+                    for (char d : "aeiou".toCharArray()) {
+                        builder.add(NGram.from("" + a + b + c + d));
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testFindsStrategyBestGuess() throws Exception {
+        Corpus corpus = corpus();
+        assertTrue(corpus.size() > 3 * BestGuessWorker.CHUNK_SIZE);
+        for (String name : StrategyRegistry.names()) {
+            ScoringStrategy strategy = StrategyRegistry.get(name);
+            List<NGram> provisional = new CopyOnWriteArrayList<>();
+            List<Integer> progress = new CopyOnWriteArrayList<>();
+            AtomicReference<NGram> result = new AtomicReference<>();
+            CountDownLatch done = new CountDownLatch(1);
+            BestGuessWorker worker = new BestGuessWorker(strategy, corpus, provisional::add, best -> {
+                assertTrue(SwingUtilities.isEventDispatchThread());
+                result.set(best);
+                done.countDown();
+            });
+            worker.addPropertyChangeListener(event -> {
+                if ("progress".equals(event.getPropertyName())) {
+                    progress.add((Integer) event.getNewValue());
+                }
+            });
+            worker.execute();
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            assertEquals(name, strategy.findBestGuess(corpus), result.get());
+            assertFalse("Provisional guesses should be published", provisional.isEmpty());
+            assertEquals(result.get(), provisional.get(provisional.size() - 1));
+            SwingUtilities.invokeAndWait(() -> { });
+            assertEquals(Integer.valueOf(100), progress.get(progress.size() - 1));
+            assertEquals("The result should be cached", result.get(),
+                    BestGuessCache.shared().lookup(strategy, corpus).orElseThrow());
+        }
+    }
+
+    @Test
+    public void testCancellationStopsSearch() throws Exception {
+        Corpus corpus = corpus();
+        ScoringStrategy defaultStrategy = StrategyRegistry.get(StrategyRegistry.DEFAULT);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger scored = new AtomicInteger();
+        ScoringStrategy slow = new ScoringStrategy() {
+            @Override
+            public double calculateScore(Corpus corpus, NGram guess) {
+                scored.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return defaultStrategy.calculateScore(corpus, guess);
+            }
+
+            @Override
+            public NGram findBestGuess(Corpus corpus) {
+                return defaultStrategy.findBestGuess(corpus);
+            }
+        };
+        AtomicInteger callbacks = new AtomicInteger();
+        BestGuessWorker worker = new BestGuessWorker(slow, corpus,
+                best -> callbacks.incrementAndGet(), best -> callbacks.incrementAndGet());
+        worker.execute();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(worker.cancel(true));
+        release.countDown();
+        while (!worker.isDone()) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals("A cancelled search should report nothing", 0, callbacks.get());
+        assertTrue("A cancelled search should stop after its chunk",
+                scored.get() <= BestGuessWorker.CHUNK_SIZE);
+    }
+
+    @Test
+    public void testKnownBestGuess() {
+        Corpus corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("sable"))
+                .build();
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus, NGram.from("hello"));
+        gameLogic.setScoringStrategy(StrategyRegistry.AVERAGE_CASE);
+        BestGuessCache.shared().clear();
+        assertFalse(gameLogic.findKnownBestGuess().isPresent());
+        NGram best = gameLogic.getBestGuess();
+        assertEquals(best, gameLogic.findKnownBestGuess().orElseThrow());
+    }
+}
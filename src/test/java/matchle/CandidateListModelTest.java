@@ -0,0 +1,158 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * Tests for the list model of remaining candidates
+ */
+public class CandidateListModelTest {
+
+    private Corpus corpus;
+    private CandidateListModel model;
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (char c = 'a'; c <= 'z'; c++) {
+            builder.add(NGram.from("ab" + c));
+        }
+        corpus = builder.build();
+        model = new CandidateListModel();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("changed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+        });
+    }
+
+    private Corpus subset(int... ordinals) {
+        return corpus.subset(bits(ordinals));
+    }
+
+    @Test
+    public void testRowsComeFromCandidates() {
+        assertEquals(0, model.getSize());
+        model.setCandidates(corpus);
+        assertEquals(List.of("added 0-25"), events);
+        assertEquals(26, model.getSize());
+        assertEquals(NGram.from("abc"), model.getElementAt(2));
+    }
+
+    @Test
+    public void testEliminationRemovesRuns() {
+        model.setCandidates(corpus);
+        events.clear();
+        Corpus remaining = subset(0, 3, 4, 10, 25);
+        model.setCandidates(remaining);
+        assertEquals("Runs should be removed from the last",
+                List.of("removed 11-24", "removed 5-9", "removed 1-2"), events);
+        assertEquals(5, model.getSize());
+        assertEquals(NGram.from("abk"), model.getElementAt(3));
+
+        events.clear();
+        model.setCandidates(remaining.subset(bits(1, 2)));
+        assertEquals(List.of("removed 3-4", "removed 0-0"), events);
+        assertEquals(NGram.from("abd"), model.getElementAt(0));
+        events.clear();
+        model.setCandidates(null);
+        assertEquals(List.of("removed 0-1"), events);
+        assertEquals(0, model.getSize());
+    }
+
+    @Test
+    public void testModelShrinksOneRunAtATime() {
+        model.setCandidates(corpus);
+        List<String> rows = new ArrayList<>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                fail("Nothing should be added");
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                StringBuilder shown = new StringBuilder();
+                for (int i = 0; i < model.getSize(); i++) {
+                    shown.append(model.getElementAt(i).toString().charAt(2));
+                }
+                rows.add(shown.toString());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                fail("Nothing should change");
+            }
+        });
+        model.setCandidates(subset(0, 3, 4, 10, 25));
+        assertEquals("Each event should see the rows left by the runs removed so far",
+                List.of("abcdefghijkz", "abcdekz", "adekz"), rows);
+    }
+
+    @Test
+    public void testCandidatesOfAnotherCorpusChangeWholeList() {
+        model.setCandidates(corpus);
+        events.clear();
+        Corpus other = Corpus.Builder.of().add(NGram.from("abc")).add(NGram.from("abd")).build();
+        model.setCandidates(other);
+        assertEquals(List.of("removed 2-25", "changed 0-1"), events);
+        assertEquals(NGram.from("abd"), model.getElementAt(1));
+    }
+
+    private static BitSet bits(int... ordinals) {
+        BitSet bits = new BitSet();
+        for (int ordinal : ordinals) {
+            bits.set(ordinal);
+        }
+        return bits;
+    }
+
+    @Test
+    public void testManyRunsChangeWholeList() {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (char a = 'a'; a <= 'z'; a++) {
+            for (char b = 'a'; b <= 'c'; b++) {
+                builder.add(NGram.from("" + a + b));
+            }
+        }
+        Corpus words = builder.build();
+        model.setCandidates(words);
+        events.clear();
+        // every other word removed makes more runs than are reported one by one
+        BitSet everyOther = new BitSet();
+        for (int i = 0; i < words.size(); i += 2) {
+            everyOther.set(i);
+        }
+        assertTrue(words.size() / 2 > CandidateListModel.MAX_REMOVAL_EVENTS);
+        model.setCandidates(words.subset(everyOther));
+        assertEquals(List.of("removed 39-77", "changed 0-38"), events);
+    }
+
+    @Test
+    public void testOtherCandidatesChangeWholeList() {
+        model.setCandidates(subset(0, 1));
+        events.clear();
+        model.setCandidates(subset(2, 3, 4));
+        assertEquals(List.of("added 2-2", "changed 0-1"), events);
+        assertEquals(NGram.from("abe"), model.getElementAt(2));
+    }
+}
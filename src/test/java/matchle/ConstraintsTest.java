@@ -0,0 +1,128 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests for structured filter constraints
+ */
+public class ConstraintsTest {
+
+    private static final List<String> WORDS = List.of(
+            "apple", "ample", "lapel", "hello", "rebus", "route", "eerie", "geese", "abbey", "ebbed");
+
+    @Test
+    public void testFromFeedback() {
+        NGram guess = NGram.from("geese");
+        NGram key = NGram.from("eerie");
+        Constraints constraints = Constraints.fromFeedback(guess, NGramMatcher.feedbackCode(key, guess));
+
+        assertEquals("Green positions should be required", Map.of(1, 'e', 4, 'e'), constraints.correct());
+        assertEquals("A misplaced letter should be excluded at its position", Set.of('e'), constraints.excluded().get(2));
+        assertEquals("Three e's were confirmed", Integer.valueOf(3), constraints.minCounts().get('e'));
+        assertFalse("Without a gray e the count is not capped", constraints.maxCounts().containsKey('e'));
+        assertEquals("An absent letter should not occur", Integer.valueOf(0), constraints.maxCounts().get('g'));
+    }
+
+    @Test
+    public void testMatchesFeedbackExactly() {
+        for (String g : WORDS) {
+            for (String k : WORDS) {
+                NGram guess = NGram.from(g);
+                int code = NGramMatcher.feedbackCode(NGram.from(k), guess);
+                Constraints constraints = Constraints.fromFeedback(guess, code);
+                for (String w : WORDS) {
+                    NGram word = NGram.from(w);
+                    assertEquals("Constraints of " + g + "/" + k + " on " + w,
+                            NGramMatcher.feedbackCode(word, guess) == code, constraints.test(word));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAndMergesConstraints() {
+        NGram key = NGram.from("apple");
+        Constraints first = Constraints.fromFeedback(NGram.from("hello"),
+                NGramMatcher.feedbackCode(key, NGram.from("hello")));
+        Constraints second = Constraints.fromFeedback(NGram.from("lapel"),
+                NGramMatcher.feedbackCode(key, NGram.from("lapel")));
+        Constraints merged = first.and(second);
+
+        assertFalse("Consistent feedback should not contradict", merged.isContradictory());
+        for (String w : WORDS) {
+            NGram word = NGram.from(w);
+            assertEquals("Merged constraints should accept the words accepted by both",
+                    first.test(word) && second.test(word), merged.test(word));
+        }
+    }
+
+    @Test
+    public void testContradiction() {
+        NGram guess = NGram.from("hello");
+        Constraints allGreen = Constraints.fromFeedback(guess, NGramMatcher.feedbackCode(guess, guess));
+        Constraints allGray = Constraints.fromFeedback(guess, 0);
+        Constraints merged = allGreen.and(allGray);
+        assertTrue("Conflicting feedback should contradict", merged.isContradictory());
+        assertFalse("Contradictory constraints should accept nothing", merged.test(guess));
+
+        Constraints other = Constraints.fromFeedback(NGram.from("abc"), 0);
+        assertTrue("Constraints on different sizes should contradict", allGreen.and(other).isContradictory());
+    }
+
+    @Test
+    public void testFilterAndKeepsConstraints() {
+        NGram key = NGram.from("apple");
+        Filter filter = NGramMatcher.of(key, NGram.from("hello")).match();
+        for (int i = 0; i < 50; i++) {
+            filter = filter.and(Optional.of(NGramMatcher.of(key, NGram.from("lapel")).match()));
+        }
+        assertTrue("Combined feedback filters should stay structured", filter.constraints().isPresent());
+        assertTrue("The key should pass", filter.test(key));
+        assertTrue("Words consistent with both rounds should pass", filter.test(NGram.from("ample")));
+        assertFalse("Words failing one round should not", filter.test(NGram.from("ppale")));
+    }
+
+    @Test
+    public void testDeserializedFilterStillFilters() throws IOException, ClassNotFoundException {
+        NGram key = NGram.from("apple");
+        Filter filter = NGramMatcher.of(key, NGram.from("hello")).match();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(filter);
+        }
+        Filter restored;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            restored = (Filter) in.readObject();
+        }
+        assertTrue("The key should still pass", restored.test(key));
+        assertFalse("The guess should still be rejected", restored.test(NGram.from("hello")));
+        assertEquals("Constraints should survive serialization", filter.constraints(), restored.constraints());
+    }
+
+    @Test
+    public void testCorpusUsesConstraints() {
+        Corpus.Builder builder = Corpus.Builder.of();
+        WORDS.forEach(w -> builder.add(NGram.from(w)));
+        Corpus corpus = builder.build();
+        NGram key = NGram.from("apple");
+        Filter filter = NGramMatcher.of(key, NGram.from("hello")).match()
+                .and(Optional.of(NGramMatcher.of(key, NGram.from("rebus")).match()));
+
+        long expected = corpus.stream().filter(filter::test).count();
+        assertEquals("Index evaluation should agree with testing each word", expected, corpus.size(filter));
+        assertEquals("Filtered corpus should hold the same words",
+                expected, Corpus.Builder.of(corpus).filter(filter).build().size());
+    }
+}
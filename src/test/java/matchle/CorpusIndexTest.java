@@ -0,0 +1,101 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Tests for the bitset inverted index of a corpus
+ */
+public class CorpusIndexTest {
+
+    private Corpus corpus;
+    private CorpusIndex index;
+
+    @Before
+    public void setUp() {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("apple"))
+                .add(NGram.from("ppale"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("llama"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .build();
+        index = corpus.index();
+    }
+
+    private BitSet ordinalsOf(String... words) {
+        BitSet set = new BitSet();
+        for (String word : words) {
+            set.set(corpus.ordinal(NGram.from(word)));
+        }
+        return set;
+    }
+
+    @Test
+    public void testPositionConstraints() {
+        BitSet set = index.all();
+        index.retainAt(set, 0, 'r');
+        assertEquals(ordinalsOf("rebus", "redux", "route"), set);
+
+        index.removeAt(set, 1, 'e');
+        assertEquals(ordinalsOf("route"), set);
+
+        index.retainAt(set, 0, 'q');
+        assertTrue("No word starts with q", set.isEmpty());
+    }
+
+    @Test
+    public void testCountConstraints() {
+        BitSet set = index.all();
+        index.retainAtLeast(set, 'l', 2);
+        assertEquals(ordinalsOf("hello", "llama"), set);
+
+        set = index.all();
+        index.retainAtLeast(set, 'e', 1);
+        index.retainAtMost(set, 'e', 1);
+        assertEquals(ordinalsOf("apple", "ppale", "hello", "rebus", "redux", "route"), set);
+
+        set = index.all();
+        index.retainAtMost(set, 'e', 0);
+        assertEquals(ordinalsOf("llama"), set);
+    }
+
+    @Test
+    public void testSelectMatchesFeedbackCodes() {
+        // the index selection must be exactly the words giving the same feedback
+        List<NGram> words = corpus.words();
+        for (NGram guess : words) {
+            for (NGram key : words) {
+                int code = NGramMatcher.feedbackCode(key, guess);
+                BitSet expected = new BitSet();
+                for (int i = 0; i < words.size(); i++) {
+                    if (NGramMatcher.feedbackCode(words.get(i), guess) == code) {
+                        expected.set(i);
+                    }
+                }
+                assertEquals("Selection for key " + key + " and guess " + guess,
+                        expected, index.select(guess, code));
+            }
+        }
+    }
+
+    @Test
+    public void testCorpusUsesIndexForFeedbackFilters() {
+        NGram guess = NGram.from("hello");
+        Filter filter = NGramMatcher.toFilter(guess, NGramMatcher.feedbackCode(NGram.from("apple"), guess));
+        assertEquals("Indexed size should match testing every word",
+                corpus.stream().filter(filter::test).count(), corpus.size(filter));
+
+        Corpus filtered = Corpus.Builder.of(corpus).filter(filter).build();
+        assertEquals("Indexed filtering should match testing every word",
+                corpus.stream().filter(filter::test).count(), filtered.size());
+        assertTrue("The key should survive its own feedback", filtered.contains(NGram.from("apple")));
+    }
+}
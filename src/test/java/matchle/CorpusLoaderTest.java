@@ -4,6 +4,21 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 import org.junit.Before;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import matchle.exception.CorpusException;
+
 public class CorpusLoaderTest {
     
     @Test
@@ -35,4 +50,117 @@ public class CorpusLoaderTest {
             }
         }
     }
-} 
\ No newline at end of file
+
+    private static final String WORD_LIST = "Hello\nworld\n  apple \nhello\ncafé\nab-cd\nlonger\nrebus\n";
+
+    private static InputStream wordList() {
+        return new ByteArrayInputStream(WORD_LIST.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLoadFromStream() throws IOException {
+        Corpus corpus = CorpusLoader.load(wordList(), 5, CorpusLoader.NO_LIMIT);
+        // 小写、去空白、去重，并剔除非字母和长度不符的行
+        assertEquals(4, corpus.size());
+        assertTrue(corpus.contains(NGram.from("hello")));
+        assertTrue(corpus.contains(NGram.from("apple")));
+        assertFalse(corpus.contains(NGram.from("ab-cd")));
+    }
+
+    @Test
+    public void testLoadWithLimit() throws IOException {
+        Corpus corpus = CorpusLoader.load(wordList(), 5, 2);
+        assertEquals("Limit should count distinct words", 2, corpus.size());
+        assertTrue(corpus.contains(NGram.from("hello")));
+        assertTrue(corpus.contains(NGram.from("world")));
+    }
+
+    @Test
+    public void testLoadWithoutMatchingWords() throws IOException {
+        assertNull("No word of that length should give no corpus",
+                CorpusLoader.load(wordList(), 9, CorpusLoader.NO_LIMIT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimit() throws IOException {
+        CorpusLoader.load(wordList(), 5, 0);
+    }
+
+    @Test
+    public void testLoadFileAndResource() throws IOException {
+        Path dir = Files.createTempDirectory("words");
+        Path file = dir.resolve("words.txt");
+        try {
+            Files.write(file, WORD_LIST.getBytes(StandardCharsets.UTF_8));
+            assertEquals(4, CorpusLoader.loadFile(file, 5, CorpusLoader.NO_LIMIT).size());
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[] {dir.toUri().toURL()}, null)) {
+                assertEquals(4, CorpusLoader.loadResource(loader, "words.txt", 5, CorpusLoader.NO_LIMIT).size());
+                try {
+                    CorpusLoader.loadResource(loader, "missing.txt", 5, CorpusLoader.NO_LIMIT);
+                    fail("A missing resource should throw");
+                } catch (FileNotFoundException e) {
+                    // expected
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testLoadMappedMatchesStreamingLoad() throws IOException {
+        Path file = Files.createTempFile("words", ".txt");
+        try {
+            StringBuilder list = new StringBuilder(WORD_LIST);
+            for (int i = 0; i < 5000; i++) {
+                // 生成大量重复和大小写混合的五字母单词
+                list.append((char) ('a' + i % 26)).append((char) ('A' + i / 26 % 26))
+                        .append("xy").append((char) ('a' + i / 676 % 26)).append(i % 3 == 0 ? "\r\n" : "\n");
+            }
+            Files.write(file, list.toString().getBytes(StandardCharsets.UTF_8));
+
+            Corpus streamed = CorpusLoader.loadFile(file, 5, CorpusLoader.NO_LIMIT);
+            Corpus mapped = CorpusLoader.loadMapped(file, 5);
+            assertEquals("Mapped load should find the same words", streamed.corpus(), mapped.corpus());
+            assertEquals("Words should be in the same order", streamed.stream().toList(), mapped.stream().toList());
+            assertEquals(streamed.fingerprint(), mapped.fingerprint());
+            NGram word = streamed.get(streamed.size() / 2);
+            assertTrue(mapped.corpus().contains(word));
+            assertEquals(streamed.ordinal(word), mapped.ordinal(word));
+            assertFalse(mapped.corpus().contains(NGram.from("zzzzz")));
+
+            long[] chunked = MappedWordParser.parse(file, 5, ForkJoinPool.commonPool(), 64);
+            assertEquals("Small chunks should not split or lose words", streamed.size(), chunked.length);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testLoadFileAsync() throws Exception {
+        Path file = Files.createTempFile("words", ".txt");
+        try {
+            Files.write(file, WORD_LIST.getBytes(StandardCharsets.UTF_8));
+            Corpus corpus = CorpusLoader.loadFileAsync(file, 5).get(10, TimeUnit.SECONDS);
+            assertEquals(CorpusLoader.loadFile(file, 5, CorpusLoader.NO_LIMIT).corpus(), corpus.corpus());
+            assertSame(corpus, CorpusLoader.prepareAsync(corpus).get(10, TimeUnit.SECONDS));
+
+            try {
+                CorpusLoader.loadFileAsync(file, 7).get(10, TimeUnit.SECONDS);
+                fail("A list without words of the length should fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CorpusException);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        try {
+            CorpusLoader.loadFileAsync(file, 5).get(10, TimeUnit.SECONDS);
+            fail("A missing file should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+}
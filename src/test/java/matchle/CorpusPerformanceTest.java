@@ -82,4 +82,31 @@ public class CorpusPerformanceTest {
         // ensure memory growth is within a reasonable range
         assertTrue("Memory growth should be less than 100MB", memoryGrowth < 100 * 1024 * 1024);
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testNGramFootprint() {
+        // five-letter words are packed into a long, so each NGram should take a few dozen bytes
+        int count = 50000;
+        Random random = new Random(7);
+        Runtime runtime = Runtime.getRuntime();
+        runtime.gc();
+        long usedMemoryBefore = runtime.totalMemory() - runtime.freeMemory();
+
+        NGram[] words = new NGram[count];
+        char[] letters = new char[WORD_LENGTH];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < WORD_LENGTH; j++) {
+                letters[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = NGram.from(new String(letters));
+        }
+
+        runtime.gc();
+        long usedMemoryAfter = runtime.totalMemory() - runtime.freeMemory();
+        long bytesPerWord = (usedMemoryAfter - usedMemoryBefore) / count;
+        System.out.println("NGram footprint: about " + bytesPerWord + " bytes per " + WORD_LENGTH + "-letter word");
+
+        assertNotNull(words[count - 1]);
+        assertTrue("A packed NGram should take less than 100 bytes", bytesPerWord < 100);
+    }
+}
@@ -0,0 +1,127 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+import matchle.exception.CorpusException;
+
+/**
+ * Tests for the binary corpus snapshot format
+ */
+public class CorpusSnapshotTest {
+
+    private Corpus corpus;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("geese"))
+                .build();
+        file = Files.createTempFile("corpus", ".snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static void assertSameCorpus(Corpus expected, Corpus actual) {
+        assertEquals("Size should be preserved", expected.size(), actual.size());
+        assertEquals("Fingerprint should be preserved", expected.fingerprint(), actual.fingerprint());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals("Ordinals should be preserved", expected.get(i), actual.get(i));
+            assertTrue("Every word should be contained", actual.contains(expected.get(i)));
+        }
+    }
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        CorpusSnapshot.write(corpus, file, false);
+        Corpus loaded = CorpusSnapshot.load(file);
+        assertSameCorpus(corpus, loaded);
+        assertFalse(loaded.contains(NGram.from("zzzzz")));
+        assertFalse(loaded.contains(NGram.from("abc")));
+        assertEquals("Scores should match",
+                corpus.score(NGram.from("hello"), NGram.from("eerie")),
+                loaded.score(NGram.from("hello"), NGram.from("eerie")));
+    }
+
+    @Test
+    public void testWriteAndLoadWithIndex() throws IOException {
+        CorpusSnapshot.write(corpus, file, true);
+        Corpus loaded = CorpusSnapshot.load(file);
+        assertSameCorpus(corpus, loaded);
+        for (NGram key : corpus) {
+            for (NGram guess : corpus) {
+                Filter filter = NGramMatcher.of(key, guess).match();
+                assertEquals("Indexed selection should match the filter",
+                        corpus.size(filter), loaded.size(filter));
+                BitSet expected = corpus.select(filter, corpus.allOrdinals());
+                assertEquals(expected, loaded.select(filter, loaded.allOrdinals()));
+            }
+        }
+    }
+
+    @Test
+    public void testWriteFromWordList() throws IOException {
+        Path list = Files.createTempFile("words", ".txt");
+        try {
+            Files.write(list, "Rebus\nredux\nroute\nhello\neerie\ngeese\nabc\nrebus\n".getBytes(StandardCharsets.UTF_8));
+            CorpusSnapshot.writeFromWordList(list, 5, file, true);
+            assertSameCorpus(corpus, CorpusSnapshot.load(file));
+        } finally {
+            Files.delete(list);
+        }
+    }
+
+    @Test(expected = CorpusException.class)
+    public void testWriteUnpackableWords() throws IOException {
+        Corpus longWords = Corpus.Builder.of().add(NGram.from("abcdefghijklm")).build();
+        CorpusSnapshot.write(longWords, file, false);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadInvalidFile() throws IOException {
+        Files.write(file, "not a snapshot at all, just some text".getBytes(StandardCharsets.UTF_8));
+        CorpusSnapshot.load(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadTruncatedFile() throws IOException {
+        CorpusSnapshot.write(corpus, file, true);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 8));
+        CorpusSnapshot.load(file);
+    }
+
+    @Test
+    public void testSerializeLoadedCorpus() throws IOException, ClassNotFoundException {
+        CorpusSnapshot.write(corpus, file, false);
+        Corpus loaded = CorpusSnapshot.load(file);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(loaded);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertSameCorpus(corpus, (Corpus) in.readObject());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
+
+/**
+ * Tests for the precomputed decision tree
+ */
+public class DecisionTreeTest {
+
+    private Corpus corpus;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("geese"))
+                .add(NGram.from("crane"))
+                .add(NGram.from("slate"))
+                .build();
+        file = Files.createTempFile("matchle", ".tree");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * plays a game with the solver's guesses and checks every one against the tree
+     */
+    private static int play(DecisionTree tree, Corpus corpus, NGram key, ScoringStrategy strategy) {
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus, key);
+        List<NGram> guesses = new ArrayList<>();
+        while (!gameLogic.hasGameTerminated()) {
+            NGram expected = gameLogic.getBestGuess();
+            assertEquals(expected, tree.nextGuess(key, guesses).orElseThrow());
+            assertEquals(strategy.findBestGuess(gameLogic.getCandidateCorpus()), expected);
+            gameLogic.processGuess(expected);
+            guesses.add(expected);
+            if (expected.equals(key)) {
+                break;
+            }
+        }
+        return guesses.size();
+    }
+
+    @Test
+    public void testTreeMatchesSolver() {
+        for (String name : StrategyRegistry.names()) {
+            ScoringStrategy strategy = StrategyRegistry.get(name);
+            DecisionTree tree = DecisionTree.build(corpus, name, new ForkJoinPool(2));
+            assertEquals(name, tree.getStrategyName());
+            assertSame(strategy, tree.getStrategy());
+            int deepest = 0;
+            for (NGram key : corpus) {
+                deepest = Math.max(deepest, play(tree, corpus, key, strategy));
+            }
+            assertTrue("The tree should be at least as deep as any game", tree.depth() >= deepest);
+            assertTrue(tree.size() >= corpus.size() / 2);
+        }
+    }
+
+    @Test
+    public void testLeavingTheTree() {
+        DecisionTree tree = DecisionTree.build(corpus, StrategyRegistry.DEFAULT);
+        NGram first = tree.nextGuess(List.of(), new int[0]).orElseThrow();
+        NGram other = corpus.stream().filter(word -> !word.equals(first)).findFirst().orElseThrow();
+        assertFalse("A guess off the tree has no move",
+                tree.nextGuess(NGram.from("hello"), List.of(other)).isPresent());
+        assertFalse("A solved game has no move",
+                tree.nextGuess(first, List.of(first)).isPresent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingCodes() {
+        DecisionTree tree = DecisionTree.build(corpus, StrategyRegistry.DEFAULT);
+        tree.nextGuess(List.of(NGram.from("hello")), new int[0]);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        DecisionTree tree = DecisionTree.build(corpus, StrategyRegistry.ENTROPY);
+        tree.save(file);
+        DecisionTree loaded = DecisionTree.load(file, corpus);
+        assertEquals(tree.size(), loaded.size());
+        assertEquals(tree.depth(), loaded.depth());
+        assertEquals(StrategyRegistry.ENTROPY, loaded.getStrategyName());
+        for (NGram key : corpus) {
+            play(loaded, corpus, key, loaded.getStrategy());
+        }
+    }
+
+    @Test
+    public void testGameLogicUsesTree() throws IOException {
+        DecisionTree tree = DecisionTree.build(corpus, StrategyRegistry.DEFAULT);
+        NGram key = NGram.from("geese");
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus, key);
+        gameLogic.setDecisionTree(tree);
+        assertSame(tree, gameLogic.getDecisionTree());
+        while (!gameLogic.hasGameTerminated()) {
+            NGram guess = gameLogic.getBestGuess();
+            assertEquals(tree.nextGuess(key, gameLogic.getGuesses()).orElseThrow(), guess);
+            gameLogic.processGuess(guess);
+        }
+        assertEquals(key, gameLogic.getCandidateCorpus().stream().findFirst().orElseThrow());
+
+        // another strategy scores instead of following the tree
+        gameLogic.initialize(corpus, key);
+        gameLogic.setScoringStrategy(StrategyRegistry.ENTROPY);
+        assertEquals(StrategyRegistry.get(StrategyRegistry.ENTROPY).findBestGuess(corpus),
+                gameLogic.getBestGuess());
+    }
+
+    @Test
+    public void testLoadRejectsOtherCorpus() throws IOException {
+        DecisionTree.build(corpus, StrategyRegistry.DEFAULT).save(file);
+        Corpus other = Corpus.Builder.of().add(NGram.from("hello")).add(NGram.from("world")).build();
+        try {
+            DecisionTree.load(file, other);
+            fail("A tree of another corpus should be rejected");
+        } catch (IOException expected) {
+            // expected
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            DecisionTree.load(file, corpus);
+            fail("A truncated tree should be rejected");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSingleWord() {
+        Corpus single = Corpus.Builder.of().add(NGram.from("hello")).build();
+        DecisionTree tree = DecisionTree.build(single, StrategyRegistry.DEFAULT);
+        assertEquals(1, tree.size());
+        assertEquals(1, tree.depth());
+        assertEquals(NGram.from("hello"), tree.nextGuess(List.of(), new int[0]).orElseThrow());
+    }
+}
@@ -0,0 +1,116 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import matchle.exception.CorpusException;
+
+/**
+ * Tests for the precomputed feedback matrix
+ */
+public class FeedbackMatrixTest {
+
+    private Corpus corpus;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .build();
+        file = Files.createTempFile("feedback", ".matrix");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testBuild() {
+        FeedbackMatrix matrix = FeedbackMatrix.build(corpus);
+        assertEquals("Matrix should cover every word", corpus.size(), matrix.size());
+        for (int g = 0; g < corpus.size(); g++) {
+            for (int k = 0; k < corpus.size(); k++) {
+                assertEquals("Cell should hold the feedback of the guess against the key",
+                        NGramMatcher.feedbackCode(corpus.get(k), corpus.get(g)), matrix.code(g, k));
+            }
+        }
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        FeedbackMatrix built = FeedbackMatrix.build(corpus);
+        built.save(file);
+
+        FeedbackMatrix loaded = FeedbackMatrix.load(file, corpus);
+        assertEquals("Fingerprint should be preserved", corpus.fingerprint(), loaded.fingerprint());
+        for (int g = 0; g < corpus.size(); g++) {
+            for (int k = 0; k < corpus.size(); k++) {
+                assertEquals("Loaded cell should match built cell", built.code(g, k), loaded.code(g, k));
+            }
+        }
+    }
+
+    @Test(expected = CorpusException.class)
+    public void testLoadForDifferentCorpus() throws IOException {
+        FeedbackMatrix.build(corpus).save(file);
+        Corpus other = Corpus.Builder.of(corpus).add(NGram.from("crane")).build();
+        FeedbackMatrix.load(file, other);
+    }
+
+    @Test
+    public void testLoadOrBuildReplacesStaleFile() throws IOException {
+        Files.write(file, new byte[] {1, 2, 3});
+        FeedbackMatrix matrix = FeedbackMatrix.loadOrBuild(file, corpus);
+        assertEquals("Stale file should be rebuilt for the corpus", corpus.fingerprint(), matrix.fingerprint());
+        assertEquals("Rebuilt file should load directly", corpus.size(), FeedbackMatrix.load(file, corpus).size());
+    }
+
+    @Test
+    public void testCorpusScoresWithMatrix() {
+        Corpus withMatrix = corpus.withFeedbackMatrix(FeedbackMatrix.build(corpus));
+        for (NGram guess : corpus) {
+            assertEquals("Worst case should not depend on the matrix",
+                    corpus.scoreWorstCase(guess), withMatrix.scoreWorstCase(guess));
+            assertEquals("Average case should not depend on the matrix",
+                    corpus.scoreAverageCase(guess), withMatrix.scoreAverageCase(guess), 0.0001);
+            for (NGram key : corpus) {
+                assertEquals("Score should not depend on the matrix",
+                        corpus.score(key, guess), withMatrix.score(key, guess));
+            }
+        }
+        assertEquals("Best guess should not depend on the matrix",
+                corpus.bestWorstCaseGuess(), withMatrix.bestWorstCaseGuess());
+    }
+
+    @Test
+    public void testFilteredCorpusKeepsMatrix() {
+        Corpus withMatrix = corpus.withFeedbackMatrix(FeedbackMatrix.build(corpus));
+        Corpus filtered = Corpus.Builder.of(withMatrix)
+                .filter(Filter.from(ngram -> ngram.get(0) == 'r'))
+                .build();
+        assertSame("A filtered corpus should reuse the matrix",
+                withMatrix.feedbackMatrix(), filtered.feedbackMatrix());
+
+        Corpus extended = Corpus.Builder.of(withMatrix).add(NGram.from("crane")).build();
+        assertNull("A corpus with words outside the matrix should not use it", extended.feedbackMatrix());
+    }
+
+    @Test(expected = CorpusException.class)
+    public void testMatrixMustCoverCorpus() {
+        Corpus other = Corpus.Builder.of(corpus).add(NGram.from("crane")).build();
+        other.withFeedbackMatrix(FeedbackMatrix.build(corpus));
+    }
+}
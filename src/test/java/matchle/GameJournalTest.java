@@ -0,0 +1,234 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the append-only game journal
+ */
+public class GameJournalTest {
+
+    private Corpus corpus;
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("geese"))
+                .add(NGram.from("world"))
+                .build();
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static void assertSameGame(GameLogic expected, GameLogic actual) {
+        assertEquals(expected.getSecretKey(), actual.getSecretKey());
+        assertEquals(expected.getGuesses(), actual.getGuesses());
+        assertEquals(expected.getCandidateCorpus().corpus(), actual.getCandidateCorpus().corpus());
+    }
+
+    @Test
+    public void testRecoverAfterReopen() throws IOException {
+        GameLogic first = new GameLogic();
+        first.initialize(corpus, NGram.from("redux"));
+        GameLogic second = new GameLogic();
+        second.initialize(corpus, NGram.from("hello"));
+        long firstId;
+        long secondId;
+        long endedId;
+        try (GameJournal journal = GameStateManager.openJournal(directory, corpus)) {
+            firstId = journal.startGame(first.getSecretKey());
+            secondId = journal.startGame(second.getSecretKey());
+            endedId = journal.startGame(NGram.from("route"));
+            for (String guess : new String[] {"hello", "route"}) {
+                first.processGuess(NGram.from(guess));
+                journal.recordGuess(firstId, NGram.from(guess));
+            }
+            second.processGuess(NGram.from("world"));
+            journal.recordGuess(secondId, NGram.from("world"));
+            journal.endGame(endedId);
+        }
+        assertEquals("A log record should take a fixed size",
+                32 + 7L * GameJournal.RECORD_BYTES, Files.size(directory.resolve(GameJournal.LOG_FILE)));
+
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            Map<Long, GameLogic> games = journal.recover();
+            assertEquals("Ended games should not be recovered", List.of(firstId, secondId),
+                    new ArrayList<>(games.keySet()));
+            assertSameGame(first, games.get(firstId));
+            assertSameGame(second, games.get(secondId));
+            assertTrue("New games should get fresh ids", journal.startGame(NGram.from("eerie")) > endedId);
+        }
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        long gameId;
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            gameId = journal.startGame(NGram.from("redux"));
+            journal.recordGuess(gameId, NGram.from("hello"));
+            journal.recordGuess(gameId, NGram.from("route"));
+        }
+        Path log = directory.resolve(GameJournal.LOG_FILE);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            assertEquals("The torn guess should be dropped",
+                    List.of(NGram.from("hello")), journal.recover().get(gameId).getGuesses());
+            journal.recordGuess(gameId, NGram.from("world"));
+        }
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            assertEquals("Records should be appended after the last intact record",
+                    List.of(NGram.from("hello"), NGram.from("world")), journal.recover().get(gameId).getGuesses());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (GameJournal journal = GameJournal.open(directory, corpus, 4)) {
+            for (NGram key : corpus) {
+                long gameId = journal.startGame(key);
+                journal.recordGuess(gameId, NGram.from("eerie"));
+                ids.add(gameId);
+            }
+            journal.endGame(ids.remove(0));
+            assertTrue("The log should be compacted",
+                    Files.size(directory.resolve(GameJournal.LOG_FILE)) < 32 + 4L * GameJournal.RECORD_BYTES);
+            assertTrue(Files.exists(directory.resolve(GameJournal.SNAPSHOT_FILE)));
+        }
+        try (GameJournal journal = GameJournal.open(directory, corpus, 4)) {
+            Map<Long, GameLogic> games = journal.recover();
+            assertEquals(ids, new ArrayList<>(games.keySet()));
+            for (GameLogic game : games.values()) {
+                assertEquals(List.of(NGram.from("eerie")), game.getGuesses());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentCommitsCompactOnce() throws Exception {
+        int threads = 8;
+        int guesses = 20;
+        int compactionRecords = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (GameJournal journal = GameJournal.open(directory, corpus, compactionRecords)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long gameId = journal.startGame(NGram.from("redux"));
+                    for (int i = 0; i < guesses; i++) {
+                        journal.recordGuess(gameId, NGram.from("hello"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(GameJournal.SNAPSHOT_FILE)))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long records = (long) threads * (1 + guesses);
+        assertTrue("Each snapshot should follow at least the threshold of records",
+                snapshot.getLong(8) <= records / compactionRecords);
+    }
+
+    @Test
+    public void testStaleLogIsIgnored() throws IOException {
+        long gameId;
+        Path log = directory.resolve(GameJournal.LOG_FILE);
+        byte[] staleLog;
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            gameId = journal.startGame(NGram.from("redux"));
+            journal.recordGuess(gameId, NGram.from("hello"));
+            staleLog = Files.readAllBytes(log);
+            journal.snapshot();
+        }
+        // a crash after writing the snapshot but before starting the new log
+        Files.write(log, staleLog);
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            assertEquals("The guesses should not be replayed twice",
+                    List.of(NGram.from("hello")), journal.recover().get(gameId).getGuesses());
+        }
+    }
+
+    @Test
+    public void testConcurrentGames() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (GameJournal journal = GameJournal.open(directory, corpus, 16)) {
+            List<Future<Long>> ids = new ArrayList<>();
+            for (NGram key : corpus) {
+                ids.add(executor.submit(() -> {
+                    long gameId = journal.startGame(key);
+                    for (NGram guess : corpus) {
+                        journal.recordGuess(gameId, guess);
+                    }
+                    return gameId;
+                }));
+            }
+            for (Future<Long> id : ids) {
+                id.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            Map<Long, GameLogic> games = journal.recover();
+            assertEquals(corpus.size(), games.size());
+            for (GameLogic game : games.values()) {
+                assertEquals(corpus.stream().toList(), game.getGuesses());
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenWithAnotherCorpus() throws IOException {
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            journal.startGame(NGram.from("redux"));
+        }
+        Corpus other = Corpus.Builder.of().add(NGram.from("hello")).add(NGram.from("world")).build();
+        GameJournal.open(directory, other).close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGuessInUnknownGame() throws IOException {
+        try (GameJournal journal = GameJournal.open(directory, corpus)) {
+            journal.recordGuess(42, NGram.from("hello"));
+        }
+    }
+}
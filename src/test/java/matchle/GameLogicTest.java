@@ -82,6 +82,24 @@ public class GameLogicTest {
                 updatedCorpus.size() <= testCorpus.size());
     }
     
+    @Test
+    public void testIncrementalNarrowingMatchesFullFilter() {
+        Corpus corpus = Corpus.Builder.of()
+                .addAll(List.of(NGram.from("rebus"), NGram.from("redux"), NGram.from("route"),
+                        NGram.from("hello"), NGram.from("rates"), NGram.from("tubes"), NGram.from("rebut")))
+                .build();
+        NGram key = NGram.from("rebut");
+        gameLogic.initialize(corpus, key);
+        for (String guess : List.of("route", "tubes", "rebus")) {
+            gameLogic.processGuess(NGram.from(guess));
+            Corpus expected = Corpus.Builder.of(corpus).filter(gameLogic.getAccumulatedFilter()).build();
+            assertEquals("Narrowing by the newest round should match the accumulated filter after " + guess,
+                    expected.corpus(), gameLogic.getCandidateCorpus().corpus());
+        }
+        assertEquals("Candidates should still be scored",
+                key, gameLogic.getCandidateCorpus().bestWorstCaseGuess());
+    }
+
     @Test
     public void testLoadAndCreateGameState() {
         gameLogic.initialize(testCorpus, testKey);
@@ -12,6 +12,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 
 public class GameStateManagerTest {
     
@@ -54,7 +55,7 @@ public class GameStateManagerTest {
         assertTrue("File should be created", savedFile.exists());
         
         // 加载游戏状态
-        GameState loadedState = GameStateManager.loadGame(testFilename);
+        GameState loadedState = GameStateManager.loadGame(testFilename, testCorpus);
         
         // 验证加载的状态与保存的状态一致
         assertNotNull("Loaded state should not be null", loadedState);
@@ -69,7 +70,7 @@ public class GameStateManagerTest {
     @Test(expected = IOException.class)
     public void testLoadNonExistentFile() throws IOException, ClassNotFoundException {
         // 尝试加载不存在的文件，应抛出IOException
-        GameStateManager.loadGame("non_existent_file.dat");
+        GameStateManager.loadGame("non_existent_file.dat", testCorpus);
     }
     
     @Test
@@ -119,4 +120,115 @@ public class GameStateManagerTest {
                 testState.getCandidateCorpus().size(), 
                 deserializedState.getCandidateCorpus().size());
     }
-} 
\ No newline at end of file
+
+    private static Corpus largerCorpus() {
+        return Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("geese"))
+                .add(NGram.from("world"))
+                .build();
+    }
+
+    @Test
+    public void testSaveAndLoadRestoresExactState() throws IOException {
+        Corpus corpus = largerCorpus();
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus, NGram.from("redux"));
+        gameLogic.processGuess(NGram.from("hello"));
+        gameLogic.processGuess(NGram.from("route"));
+        GameStateManager.saveGame(gameLogic.createGameState(), testFilename);
+        assertTrue("A save should take a few hundred bytes at most",
+                Files.size(Paths.get(testFilename)) < 100);
+
+        GameState loadedState = GameStateManager.loadGame(testFilename, corpus);
+        assertEquals(NGram.from("redux"), loadedState.getSecretKey());
+        assertEquals(List.of(NGram.from("hello"), NGram.from("route")), loadedState.getGuesses());
+        assertEquals(gameLogic.getCandidateCorpus().corpus(), loadedState.getCandidateCorpus().corpus());
+        for (NGram word : corpus) {
+            assertEquals("The accumulated filter should be rebuilt for " + word,
+                    gameLogic.getAccumulatedFilter().test(word), loadedState.getAccumulatedFilter().test(word));
+        }
+
+        GameLogic resumed = new GameLogic();
+        resumed.loadState(loadedState);
+        assertSame(corpus, resumed.getCorpus());
+        assertEquals(gameLogic.getGuesses(), resumed.getGuesses());
+        resumed.processGuess(NGram.from("rebus"));
+        gameLogic.processGuess(NGram.from("rebus"));
+        assertEquals("A resumed game should narrow like the original",
+                gameLogic.getCandidateCorpus().corpus(), resumed.getCandidateCorpus().corpus());
+    }
+
+    @Test
+    public void testSaveAndLoadWithoutGuesses() throws IOException {
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(testCorpus, testKey);
+        GameStateManager.saveGame(gameLogic.createGameState(), testFilename);
+        GameState loadedState = GameStateManager.loadGame(testFilename, testCorpus);
+        assertTrue(loadedState.getGuesses().isEmpty());
+        assertNull("No round was played", loadedState.getAccumulatedFilter());
+        assertEquals(testCorpus.size(), loadedState.getCandidateCorpus().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadWithAnotherCorpus() throws IOException {
+        GameStateManager.saveGame(testState, testFilename);
+        GameStateManager.loadGame(testFilename, largerCorpus());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadCorruptFile() throws IOException {
+        byte[] bytes = GameStateManager.toBytes(testState);
+        Files.write(Paths.get(testFilename), java.util.Arrays.copyOf(bytes, bytes.length - 1));
+        GameStateManager.loadGame(testFilename, testCorpus);
+    }
+
+    @Test
+    public void testLoadOnTheCorpusTheGameWasSavedOn() throws IOException {
+        Corpus dictionary = largerCorpus();
+        GameLogic saved = new GameLogic();
+        saved.initialize(dictionary, NGram.from("redux"));
+        saved.processGuess(NGram.from("hello"));
+        GameStateManager.saveGame(saved.createGameState(), testFilename);
+        assertTrue(GameStateManager.isSavedOn(testFilename, dictionary));
+        assertFalse(GameStateManager.isSavedOn(testFilename, testCorpus));
+
+        // the game now runs on the default corpus, the save is on the dictionary
+        GameLogic current = new GameLogic();
+        current.initialize(testCorpus, testKey);
+        GameState loadedState = GameStateManager.loadGame(testFilename, List.of(testCorpus, dictionary));
+        current.loadState(loadedState);
+        assertSame(dictionary, current.getCorpus());
+        assertEquals(saved.getCandidateCorpus().corpus(), current.getCandidateCorpus().corpus());
+
+        // and the other way around
+        current.initialize(testCorpus, testKey);
+        GameStateManager.saveGame(current.createGameState(), testFilename);
+        current.initialize(dictionary, NGram.from("redux"));
+        current.loadState(GameStateManager.loadGame(testFilename, List.of(dictionary, testCorpus)));
+        assertSame(testCorpus, current.getCorpus());
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadWithNoneOfTheCorpora() throws IOException {
+        GameStateManager.saveGame(testState, testFilename);
+        GameStateManager.loadGame(testFilename, List.of(largerCorpus()));
+    }
+
+    @Test
+    public void testLoadGameSavedWithJavaSerialization() throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(Paths.get(testFilename)))) {
+            oos.writeObject(testState);
+        }
+        try {
+            GameStateManager.loadGame(testFilename, testCorpus);
+            fail("A game saved by an older version should not load");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("older version"));
+        }
+    }
+}
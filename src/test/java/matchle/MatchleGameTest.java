@@ -10,6 +10,8 @@ import java.util.HashSet;
 import java.util.Set;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Tests for MatchleGame class
@@ -505,4 +507,35 @@ public class MatchleGameTest {
                 output.contains("Maximum rounds reached") || 
                 output.contains("Correct guess"));
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testInitializeOnLoadedDictionary() {
+        Corpus dictionary = Corpus.Builder.of()
+                .add(NGram.from("crane"))
+                .add(NGram.from("slate"))
+                .build();
+        game.initialize(CompletableFuture.completedFuture(dictionary), Duration.ZERO);
+        assertTrue("The key should come from the dictionary",
+                dictionary.corpus().contains(gameLogic().getSecretKey()));
+    }
+
+    @Test
+    public void testInitializeWithoutWaitingForDictionary() {
+        game.initialize(new CompletableFuture<>(), Duration.ofMillis(10));
+        assertTrue(outContent.toString().contains("playing on the default corpus"));
+        assertEquals(new GameLogic().createDefaultCorpus().corpus(), gameLogic().getCorpus().corpus());
+
+        game.initialize(CompletableFuture.failedFuture(new IllegalStateException()), Duration.ZERO);
+        assertEquals(new GameLogic().createDefaultCorpus().corpus(), gameLogic().getCorpus().corpus());
+    }
+
+    private GameLogic gameLogic() {
+        try {
+            Field gameLogicField = MatchleGame.class.getDeclaredField("gameLogic");
+            gameLogicField.setAccessible(true);
+            return (GameLogic) gameLogicField.get(game);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
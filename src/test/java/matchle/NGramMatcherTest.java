@@ -33,8 +33,11 @@ public class NGramMatcherTest {
         // 由于Filter的实现，key一定会匹配自己生成的过滤器
         assertTrue("apple should match", filter.test(NGram.from("apple")));
         
+        // "ppale" 对 "hello" 给出与 "apple" 完全相同的反馈，因此应当匹配
+        assertTrue("ppale gives the same feedback as apple", filter.test(NGram.from("ppale")));
+
         // 测试其他不应匹配的词
-        assertFalse("ppale should not match", filter.test(NGram.from("ppale")));
+        assertFalse("lapel should not match", filter.test(NGram.from("lapel")));
     }
 
     @Test
@@ -88,4 +91,46 @@ public class NGramMatcherTest {
         assertTrue("rebus may match based on implementation", filter.test(NGram.from("rebus"))); 
         assertFalse("linux should not match", filter.test(NGram.from("linux"))); // 有'x'但没有'r'，'e'位置错误
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFeedbackCode() {
+        // apple vs hello: h absent, e misplaced, first l absent, second l correct, o absent
+        int code = NGramMatcher.feedbackCode(NGram.from("apple"), NGram.from("hello"));
+        assertEquals("Feedback code should be base-3 per position", 1 * 3 + 2 * 27, code);
+        assertEquals(".Y.G.", NGramMatcher.displayPattern(NGram.from("hello"), code));
+
+        int allCorrect = NGramMatcher.feedbackCode(NGram.from("hello"), NGram.from("hello"));
+        assertEquals("All correct should be the largest code", NGramMatcher.codeCount(5) - 1, allCorrect);
+        assertEquals("Nothing in common should be code 0", 0,
+                NGramMatcher.feedbackCode(NGram.from("abcde"), NGram.from("fghij")));
+    }
+
+    @Test
+    public void testFeedbackCodeDuplicateLetters() {
+        // only one of the guessed 'e's can be matched against the single 'e' in the key
+        assertEquals("Y....", NGramMatcher.displayPattern(NGram.from("eerie"),
+                NGramMatcher.feedbackCode(NGram.from("xxxex"), NGram.from("eerie"))));
+        // the correct 'b' is matched first, leaving one key 'b' for the leftmost misplaced one
+        assertEquals(".Y.G.", NGramMatcher.displayPattern(NGram.from("abbba"),
+                NGramMatcher.feedbackCode(NGram.from("xxxbb"), NGram.from("abbba"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFeedbackCodeSizeMismatch() {
+        NGramMatcher.feedbackCode(NGram.from("apple"), NGram.from("pear"));
+    }
+
+    @Test
+    public void testToFilter() {
+        NGram key = NGram.from("redux");
+        NGram guess = NGram.from("hello");
+        Filter filter = NGramMatcher.toFilter(guess, NGramMatcher.feedbackCode(key, guess));
+
+        assertTrue("The key should match the rebuilt filter", filter.test(key));
+        assertTrue("rebus gives the same feedback for hello", filter.test(NGram.from("rebus")));
+        assertFalse("linux gives different feedback for hello", filter.test(NGram.from("linux")));
+        assertFalse("Words of another size should not match", filter.test(NGram.from("red")));
+        assertEquals("The rebuilt filter should describe the feedback like match()",
+                NGramMatcher.of(key, guess).match().toString(), filter.toString());
+    }
+}
@@ -1,10 +1,20 @@
 package matchle;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 public class NGramTest {
@@ -58,4 +68,98 @@ public class NGramTest {
         }
         assertEquals("Null string should throw NullPointerException", true, exceptionThrown);
     }
+
+    @Test
+    public void testPackedEquality() {
+        NGram fromString = NGram.from("hello");
+        NGram fromList = NGram.from(List.of('h', 'e', 'l', 'l', 'o'));
+        assertEquals("Packed NGrams with the same letters should be equal", fromString, fromList);
+        assertEquals("Equal NGrams should have the same hash code", fromString.hashCode(), fromList.hashCode());
+        assertEquals("hello", fromString.toString());
+        assertEquals("Packed value should round trip", fromString, NGram.fromPacked(fromString.packed()));
+        assertFalse("A prefix should not equal the longer word", NGram.from("hell").equals(fromString));
+    }
+
+    @Test
+    public void testUnpackedWords() {
+        // uppercase letters and words longer than 12 letters are stored as characters
+        NGram mixedCase = NGram.from("HeLLo");
+        NGram longWord = NGram.from("internationalization");
+        assertEquals(NGram.NOT_PACKED, mixedCase.packed());
+        assertEquals(NGram.NOT_PACKED, longWord.packed());
+        assertEquals("HeLLo", mixedCase.toString());
+        assertEquals(20, longWord.size());
+        assertEquals((Character) 'z', longWord.get(14));
+        assertEquals(NGram.from("HeLLo"), mixedCase);
+        assertTrue(mixedCase.contains('L'));
+        assertTrue(mixedCase.contains('e'));
+        assertFalse(mixedCase.contains('l'));
+    }
+
+    @Test
+    public void testContains() {
+        NGram ngram = NGram.from("apple");
+        assertTrue(ngram.contains('a'));
+        assertTrue(ngram.contains('p'));
+        assertFalse(ngram.contains('z'));
+        assertFalse(ngram.contains('A'));
+        assertTrue(ngram.containsElsewhere(new IndexedCharacter(0, 'p')));
+        assertFalse(ngram.containsElsewhere(new IndexedCharacter(1, 'p')));
+    }
+
+    @Test
+    public void testCompareTo() {
+        assertTrue(NGram.from("apple").compareTo(NGram.from("apply")) < 0);
+        assertTrue(NGram.from("hell").compareTo(NGram.from("hello")) < 0);
+        assertTrue(NGram.from("zebra").compareTo(NGram.from("Zebra")) > 0);
+        assertEquals(0, NGram.from("route").compareTo(NGram.from("route")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPackedIndexOutOfBounds() {
+        NGram.from("hello").get(5);
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        for (NGram word : List.of(NGram.from("hello"), NGram.from("Hello!"), NGram.from("abcdefghijklmnop"))) {
+            NGram read = (NGram) deserialize(serialize(word));
+            assertEquals(word, read);
+            assertEquals(word.hashCode(), read.hashCode());
+            assertEquals(word.packed(), read.packed());
+            assertTrue(read.contains(word.charAt(0)));
+        }
+    }
+
+    @Test
+    public void testInconsistentStreamIsRejected() throws Exception {
+        NGram word = NGram.from("hello");
+        byte[] bytes = serialize(word);
+        byte[] packed = ByteBuffer.allocate(8).putLong(word.packed()).array();
+        int at = -1;
+        for (int i = 0; i + 8 <= bytes.length && at < 0; i++) {
+            if (Arrays.equals(bytes, i, i + 8, packed, 0, 8)) {
+                at = i;
+            }
+        }
+        assertTrue("The stream should hold the packed word", at >= 0);
+        // a letter group of 31 is no letter
+        bytes[at + 7] |= 31;
+        byte[] forged = bytes;
+        assertThrows(InvalidObjectException.class, () -> deserialize(forged));
+    }
 }
@@ -0,0 +1,77 @@
+package matchle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the partition-based scoring engine
+ */
+public class PartitionScorerTest {
+
+    private List<NGram> words;
+    private PartitionScorer scorer;
+
+    @Before
+    public void setUp() {
+        words = List.of(
+                NGram.from("rebus"),
+                NGram.from("redux"),
+                NGram.from("route"),
+                NGram.from("hello"));
+        scorer = PartitionScorer.of(words);
+    }
+
+    @Test
+    public void testFeedback() {
+        assertEquals("G.Y.Y", NGramMatcher.of(NGram.from("rebus"), NGram.from("route")).feedback());
+        // 'l' at index 3 is correct, 'e' is misplaced, the first 'l' is absent since the key has a single 'l'
+        assertEquals(".Y.G.", NGramMatcher.of(NGram.from("apple"), NGram.from("hello")).feedback());
+        assertEquals("GGGGG", NGramMatcher.of(NGram.from("hello"), NGram.from("hello")).feedback());
+    }
+
+    @Test
+    public void testPartition() {
+        int[] buckets = scorer.partition(NGram.from("route"));
+        assertEquals("route should split the corpus into three buckets", 3, buckets.length);
+        assertEquals("Buckets should cover every candidate", 4, Arrays.stream(buckets).sum());
+    }
+
+    @Test
+    public void testWorstAndAverageCase() {
+        assertEquals("Worst case for route should be 2", 2, scorer.worstCase(NGram.from("route")));
+        assertEquals("Average case for route should be 1.5", 1.5, scorer.averageCase(NGram.from("route")), 0.0001);
+    }
+
+    @Test
+    public void testMatchesPerKeyDefinition() {
+        // worst case is the largest number of candidates sharing a key's feedback,
+        // average case is the mean of that number over all keys
+        for (NGram guess : words) {
+            long worst = 0;
+            long total = 0;
+            for (NGram key : words) {
+                String feedback = NGramMatcher.of(key, guess).feedback();
+                long same = words.stream()
+                        .filter(other -> NGramMatcher.of(other, guess).feedback().equals(feedback))
+                        .count();
+                worst = Math.max(worst, same);
+                total += same;
+            }
+            assertEquals("Worst case should match for " + guess, worst, scorer.worstCase(guess));
+            assertEquals("Average case should match for " + guess,
+                    (double) total / words.size(), scorer.averageCase(guess), 0.0001);
+        }
+    }
+
+    @Test
+    public void testSizeMismatch() {
+        assertTrue("A guess of the wrong size should not partition the candidates",
+                scorer.partition(NGram.from("abc")).length == 0);
+        assertEquals("A guess of the wrong size should score 0", 0, scorer.worstCase(NGram.from("abc")));
+    }
+}
@@ -0,0 +1,114 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the bounded score cache
+ */
+public class ScoreCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        ScoreCache cache = ScoreCache.withBudget(1 << 16, Long.MAX_VALUE);
+        AtomicInteger computed = new AtomicInteger();
+        assertEquals(42, cache.computeIfAbsent(1, 2, () -> { computed.incrementAndGet(); return 42; }));
+        assertEquals(42, cache.computeIfAbsent(1, 2, () -> { computed.incrementAndGet(); return 0; }));
+        assertEquals(7, cache.computeIfAbsent(2, 1, () -> { computed.incrementAndGet(); return 7; }));
+
+        ScoreCache.Stats stats = cache.stats();
+        assertEquals("Each pair should be computed once", 2, computed.get());
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.entries());
+        assertEquals(2 * ScoreCache.ENTRY_BYTES, stats.usedBytes());
+        assertEquals("The arrays are allocated at full capacity",
+                cache.capacity() * ScoreCache.ENTRY_BYTES, stats.bytes());
+    }
+
+    @Test
+    public void testBudgetBoundsEntries() {
+        long budget = 64 * ScoreCache.ENTRY_BYTES;
+        ScoreCache cache = ScoreCache.withBudget(budget, Long.MAX_VALUE);
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < 10; j++) {
+                cache.computeIfAbsent(i, j, () -> 1);
+            }
+        }
+        ScoreCache.Stats stats = cache.stats();
+        assertTrue("The cache should stay within the budget", stats.bytes() <= budget);
+        assertEquals("The cache should be full", stats.bytes(), stats.usedBytes());
+        assertEquals("Every insertion beyond capacity should evict",
+                stats.misses() - stats.entries(), stats.evictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        // a single set: every pair competes for the same WAYS slots
+        ScoreCache cache = ScoreCache.withBudget(ScoreCache.WAYS * ScoreCache.ENTRY_BYTES, 0);
+        for (int i = 0; i < ScoreCache.WAYS; i++) {
+            cache.computeIfAbsent(0, i, () -> 1);
+        }
+        cache.computeIfAbsent(0, 0, () -> 1);
+        cache.computeIfAbsent(0, ScoreCache.WAYS, () -> 1);
+
+        AtomicInteger computed = new AtomicInteger();
+        cache.computeIfAbsent(0, 0, () -> computed.incrementAndGet());
+        assertEquals("The recently used entry should survive", 0, computed.get());
+        cache.computeIfAbsent(0, 1, () -> computed.incrementAndGet());
+        assertEquals("The least recently used entry should be evicted", 1, computed.get());
+    }
+
+    @Test
+    public void testBudgetBelowOneSetHoldsNothing() {
+        ScoreCache cache = ScoreCache.withBudget(ScoreCache.WAYS * ScoreCache.ENTRY_BYTES - 1, Long.MAX_VALUE);
+        AtomicInteger computed = new AtomicInteger();
+        cache.computeIfAbsent(1, 2, () -> computed.incrementAndGet());
+        cache.computeIfAbsent(1, 2, () -> computed.incrementAndGet());
+        assertEquals("Every score should be computed", 2, computed.get());
+        assertEquals(0, cache.stats().bytes());
+        assertEquals(2, cache.stats().misses());
+        assertEquals(0, ScoreCache.withBudget(0, Long.MAX_VALUE).capacity());
+        assertEquals(ScoreCache.WAYS, ScoreCache.withBudget(1 << 16, 1).capacity());
+    }
+
+    @Test
+    public void testViewsGetAFractionOfTheBudget() {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (char a = 'a'; a <= 'z'; a++) {
+            for (char b = 'a'; b <= 'z'; b++) {
+                for (char c = 'a'; c <= 'z'; c++) {
+                    builder.add(NGram.from("" + a + b + c));
+                }
+            }
+        }
+        Corpus corpus = builder.build();
+        BitSet half = new BitSet();
+        half.set(0, corpus.size() / 2);
+        Corpus view = corpus.subset(half);
+        view.score(view.get(0), view.get(1));
+        assertTrue("A view should stay within its share of the budget", view.scoreCacheStats().bytes()
+                <= Corpus.DEFAULT_SCORE_CACHE_BYTES / Corpus.VIEW_SCORE_CACHE_DIVISOR);
+    }
+
+    @Test
+    public void testCorpusScoreUsesCache() {
+        Corpus corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .build();
+        NGram key = NGram.from("rebus");
+        NGram guess = NGram.from("route");
+        long first = corpus.score(key, guess);
+        assertEquals("A cached score should not change", first, corpus.score(key, guess));
+
+        ScoreCache.Stats stats = corpus.scoreCacheStats();
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.hits());
+        assertTrue("The cache should not exceed the pairs of words", stats.capacity() <= 9 + ScoreCache.WAYS);
+    }
+}
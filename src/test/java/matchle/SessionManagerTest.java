@@ -0,0 +1,108 @@
+package matchle;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for the manager of concurrent game sessions
+ */
+public class SessionManagerTest {
+
+    private Corpus corpus;
+    private SessionManager manager;
+
+    @Before
+    public void setUp() {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .add(NGram.from("geese"))
+                .add(NGram.from("world"))
+                .build();
+        manager = new SessionManager(corpus);
+    }
+
+    @Test
+    public void testSessionsMatchGameLogic() {
+        for (NGram key : corpus) {
+            GameLogic gameLogic = new GameLogic();
+            gameLogic.initialize(corpus, key);
+            long id = manager.create(key);
+            assertSame("Unnarrowed sessions should be scored on the shared corpus",
+                    corpus, manager.candidateCorpus(id));
+            assertEquals(gameLogic.getBestGuess(), manager.bestGuess(id));
+            for (String word : new String[] {"hello", "route"}) {
+                if (manager.isOver(id)) {
+                    break;
+                }
+                NGram guess = NGram.from(word);
+                gameLogic.processGuess(guess);
+                SessionManager.GuessResult result = manager.guess(id, guess);
+                assertEquals(NGramMatcher.of(key, guess).feedback(), result.feedback());
+                assertEquals(gameLogic.getCandidateCorpus().size(), result.remaining());
+                assertEquals(key.equals(guess), result.solved());
+                assertEquals(gameLogic.getCandidateCorpus().corpus(), manager.candidateCorpus(id).corpus());
+                assertEquals(gameLogic.getGuesses(), manager.guesses(id));
+            }
+        }
+        assertEquals(corpus.size(), manager.size());
+    }
+
+    @Test
+    public void testSessionLifecycle() {
+        long id = manager.create(NGram.from("redux"));
+        assertEquals(NGram.from("redux"), manager.secretKey(id));
+        assertEquals(corpus.size(), manager.remaining(id));
+        assertEquals(List.of(NGram.from("eerie"), NGram.from("geese")), manager.candidates(id, 2));
+        SessionManager.GuessResult result = manager.guess(id, NGram.from("redux"));
+        assertTrue(result.solved());
+        assertEquals("GGGGG", result.feedback());
+        assertTrue(manager.isOver(id));
+        assertThrows(IllegalStateException.class, () -> manager.guess(id, NGram.from("hello")));
+        assertTrue(manager.close(id));
+        assertFalse(manager.close(id));
+        assertThrows(SessionManager.UnknownSessionException.class, () -> manager.remaining(id));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> manager.create(NGram.from("zzzzz")));
+        long id = manager.create();
+        assertTrue(corpus.contains(manager.secretKey(id)));
+        assertThrows(IllegalArgumentException.class, () -> manager.guess(id, NGram.from("abc")));
+    }
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> remaining = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                NGram key = corpus.get(i % corpus.size());
+                remaining.add(executor.submit(() -> {
+                    long id = manager.create(key);
+                    while (!manager.isOver(id)) {
+                        manager.guess(id, manager.bestGuess(id));
+                    }
+                    return manager.remaining(id);
+                }));
+            }
+            for (Future<Integer> result : remaining) {
+                assertEquals("Every session should narrow down to its key", 1, result.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(100, manager.size());
+    }
+}
@@ -0,0 +1,102 @@
+package matchle.scoring;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import matchle.Corpus;
+import matchle.GameLogic;
+import matchle.NGram;
+
+/**
+ * Tests for the cache of best guesses
+ */
+public class BestGuessCacheTest {
+
+    private static Corpus corpus(String... words) {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (String word : words) {
+            builder.add(NGram.from(word));
+        }
+        return builder.build();
+    }
+
+    /**
+     * a strategy counting how many times it searches for a best guess
+     */
+    private static final class CountingStrategy implements ScoringStrategy {
+        private final ScoringStrategy delegate = StrategyRegistry.get(StrategyRegistry.DEFAULT);
+        private final AtomicInteger searches = new AtomicInteger();
+
+        @Override
+        public double calculateScore(Corpus corpus, NGram guess) {
+            return delegate.calculateScore(corpus, guess);
+        }
+
+        @Override
+        public NGram findBestGuess(Corpus corpus) {
+            searches.incrementAndGet();
+            return delegate.findBestGuess(corpus);
+        }
+    }
+
+    @Test
+    public void testSameCandidatesAreScoredOnce() {
+        BestGuessCache cache = new BestGuessCache(8);
+        CountingStrategy strategy = new CountingStrategy();
+        Corpus corpus = corpus("rebus", "redux", "route", "hello");
+        NGram best = cache.findBestGuess(strategy, corpus);
+        assertEquals(strategy.delegate.findBestGuess(corpus), best);
+        assertEquals("Another corpus with the same words should hit", best,
+                cache.findBestGuess(strategy, corpus("hello", "route", "redux", "rebus")));
+        assertEquals(1, strategy.searches.get());
+        assertEquals(new BestGuessCache.Stats(1, 1, 0, 1, 8), cache.stats());
+        assertEquals(0.5, cache.stats().hitRate(), 1e-9);
+
+        cache.findBestGuess(strategy, corpus("rebus", "redux", "route"));
+        assertEquals("Other candidates should miss", 2, strategy.searches.get());
+        cache.findBestGuess(new CountingStrategy(), corpus);
+        assertEquals("Other strategies should miss", 3, cache.stats().misses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        BestGuessCache cache = new BestGuessCache(2);
+        CountingStrategy strategy = new CountingStrategy();
+        Corpus first = corpus("rebus", "redux");
+        Corpus second = corpus("route", "hello");
+        Corpus third = corpus("eerie", "geese");
+        cache.findBestGuess(strategy, first);
+        cache.findBestGuess(strategy, second);
+        cache.findBestGuess(strategy, first);
+        cache.findBestGuess(strategy, third);
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().entries());
+        cache.findBestGuess(strategy, first);
+        assertEquals("The recently used entry should be kept", 3, strategy.searches.get());
+        cache.findBestGuess(strategy, second);
+        assertEquals("The least recently used entry should be evicted", 4, strategy.searches.get());
+
+        cache.clear();
+        assertEquals(0, cache.stats().entries());
+    }
+
+    @Test
+    public void testGamesShareSuggestions() {
+        CountingStrategy strategy = new CountingStrategy();
+        Corpus corpus = corpus("rebus", "redux", "route", "hello", "eerie");
+        for (NGram key : corpus) {
+            GameLogic gameLogic = new GameLogic();
+            gameLogic.initialize(corpus, key);
+            gameLogic.setScoringStrategy(strategy);
+            gameLogic.getBestGuess();
+        }
+        assertEquals("The opening should be computed once for all games", 1, strategy.searches.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new BestGuessCache(0);
+    }
+}
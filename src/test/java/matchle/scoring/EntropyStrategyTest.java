@@ -0,0 +1,57 @@
+package matchle.scoring;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import matchle.Corpus;
+import matchle.GameLogic;
+import matchle.NGram;
+
+/**
+ * Tests for the entropy scoring strategy
+ */
+public class EntropyStrategyTest {
+
+    private final EntropyStrategy strategy = new EntropyStrategy();
+
+    private static Corpus corpus(String... words) {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (String word : words) {
+            builder.add(NGram.from(word));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testEntropyOfPartitions() {
+        assertEquals("A single group carries no information", 0.0, EntropyStrategy.entropy(new int[] {4}), 1e-9);
+        assertEquals("Four singletons carry two bits", 2.0, EntropyStrategy.entropy(new int[] {1, 1, 1, 1}), 1e-9);
+        assertEquals(1.5, EntropyStrategy.entropy(new int[] {2, 1, 1}), 1e-9);
+        assertEquals("No groups carry no information", 0.0, EntropyStrategy.entropy(new int[0]), 1e-9);
+    }
+
+    @Test
+    public void testCalculateScore() {
+        Corpus corpus = corpus("abc", "abd", "xyz");
+        // "abc" tells apart all three words, "xyz" only itself from the rest
+        assertEquals(Math.log(3) / Math.log(2), strategy.calculateScore(corpus, NGram.from("abc")), 1e-9);
+        assertTrue("A guess splitting evenly should score higher",
+                strategy.calculateScore(corpus, NGram.from("abc")) > strategy.calculateScore(corpus, NGram.from("xyz")));
+    }
+
+    @Test
+    public void testFindBestGuess() {
+        Corpus corpus = corpus("abc", "abd", "xyz");
+        assertEquals(NGram.from("abc"), strategy.findBestGuess(corpus));
+    }
+
+    @Test
+    public void testGameLogicUsesStrategy() {
+        Corpus corpus = corpus("abc", "abd", "xyz");
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus, NGram.from("xyz"));
+        gameLogic.setScoringStrategy(strategy);
+        assertSame(strategy, gameLogic.getScoringStrategy());
+        assertEquals(NGram.from("abc"), gameLogic.getBestGuess());
+    }
+}
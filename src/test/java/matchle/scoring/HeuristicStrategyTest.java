@@ -0,0 +1,47 @@
+package matchle.scoring;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import matchle.Corpus;
+import matchle.NGram;
+
+/**
+ * Tests for the letter-frequency scoring strategy
+ */
+public class HeuristicStrategyTest {
+
+    private final HeuristicStrategy strategy = new HeuristicStrategy();
+
+    private static Corpus corpus(String... words) {
+        Corpus.Builder builder = Corpus.Builder.of();
+        for (String word : words) {
+            builder.add(NGram.from(word));
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testCalculateScore() {
+        Corpus corpus = corpus("abb", "abc", "xyz");
+        // a and b occur in two candidates each, c in one; repeated letters count once
+        assertEquals(5.0, strategy.calculateScore(corpus, NGram.from("abc")), 0.0);
+        assertEquals(4.0, strategy.calculateScore(corpus, NGram.from("aab")), 0.0);
+        assertEquals(0.0, strategy.calculateScore(corpus, NGram.from("qqq")), 0.0);
+    }
+
+    @Test
+    public void testCharactersOutsideTheAlphabet() {
+        Corpus corpus = corpus("a-b", "c-d", "AaA");
+        assertEquals(2.0 + 2.0, strategy.calculateScore(corpus, NGram.from("a--")), 0.0);
+        assertEquals(1.0 + 2.0, strategy.calculateScore(corpus, NGram.from("AAa")), 0.0);
+    }
+
+    @Test
+    public void testFindBestGuessAndScorerAgree() {
+        Corpus corpus = corpus("abc", "abd", "xyz", "abz");
+        NGram best = strategy.findBestGuess(corpus);
+        assertEquals(NGram.from("abz"), best);
+        assertEquals(strategy.calculateScore(corpus, best), strategy.scorer(corpus).applyAsDouble(best), 0.0);
+    }
+}
@@ -0,0 +1,86 @@
+package matchle.scoring;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+
+import matchle.Corpus;
+import matchle.GameLogic;
+import matchle.NGram;
+
+/**
+ * Tests for the scoring strategy registry and the built-in strategies
+ */
+public class StrategyRegistryTest {
+
+    private static Corpus corpus() {
+        return Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .build();
+    }
+
+    @Test
+    public void testBuiltInStrategies() {
+        assertTrue(StrategyRegistry.names().containsAll(List.of(
+                StrategyRegistry.WORST_CASE, StrategyRegistry.AVERAGE_CASE,
+                StrategyRegistry.ENTROPY, StrategyRegistry.HEURISTIC)));
+        assertTrue(StrategyRegistry.get(StrategyRegistry.ENTROPY) instanceof EntropyStrategy);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStrategy() {
+        StrategyRegistry.get("no-such-strategy");
+    }
+
+    @Test
+    public void testStrategiesAgreeWithCorpus() {
+        Corpus corpus = corpus();
+        assertEquals(corpus.bestWorstCaseGuess(),
+                StrategyRegistry.get(StrategyRegistry.WORST_CASE).findBestGuess(corpus));
+        assertEquals(corpus.bestAverageCaseGuess(),
+                StrategyRegistry.get(StrategyRegistry.AVERAGE_CASE).findBestGuess(corpus));
+        NGram guess = NGram.from("route");
+        assertEquals(-corpus.scoreWorstCase(guess),
+                StrategyRegistry.get(StrategyRegistry.WORST_CASE).calculateScore(corpus, guess), 1e-9);
+    }
+
+    @Test
+    public void testHeuristicFavorsCommonLetters() {
+        Corpus corpus = corpus();
+        ScoringStrategy heuristic = StrategyRegistry.get(StrategyRegistry.HEURISTIC);
+        // e is in four words, r and u in three, o in two: "route" scores 13, "rebus" 12
+        assertEquals(NGram.from("route"), heuristic.findBestGuess(corpus));
+        assertEquals(13.0, heuristic.calculateScore(corpus, NGram.from("route")), 1e-9);
+        assertTrue(heuristic.calculateScore(corpus, NGram.from("rebus"))
+                > heuristic.calculateScore(corpus, NGram.from("hello")));
+    }
+
+    @Test
+    public void testRegisterAndSelectByName() {
+        ScoringStrategy first = new ScoringStrategy() {
+            @Override
+            public double calculateScore(Corpus corpus, NGram guess) {
+                return 0;
+            }
+
+            @Override
+            public NGram findBestGuess(Corpus corpus) {
+                return corpus.get(0);
+            }
+        };
+        StrategyRegistry.register("first", first);
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.initialize(corpus(), NGram.from("route"));
+        gameLogic.setScoringStrategy("first");
+        assertSame(first, gameLogic.getScoringStrategy());
+        assertEquals(NGram.from("hello"), gameLogic.getBestGuess());
+
+        gameLogic.setScoringStrategy((ScoringStrategy) null);
+        assertSame("null should restore the default", StrategyRegistry.get(StrategyRegistry.DEFAULT),
+                gameLogic.getScoringStrategy());
+    }
+}
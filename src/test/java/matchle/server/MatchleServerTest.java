@@ -0,0 +1,148 @@
+package matchle.server;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import matchle.Corpus;
+import matchle.NGram;
+import matchle.SessionManager;
+import matchle.scoring.ScoringStrategy;
+
+/**
+ * Tests for the HTTP API and its load harness
+ */
+public class MatchleServerTest {
+
+    private SessionExecutor executor;
+    private MatchleServer server;
+    private URI base;
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Before
+    public void setUp() throws Exception {
+        Corpus corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .build();
+        executor = new SessionExecutor(new SessionManager(corpus), 2);
+        server = MatchleServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor);
+        base = URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        executor.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String field(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":\"?([^\",}]*)").matcher(json);
+        assertTrue("Response should have " + name + ": " + json, matcher.find());
+        return matcher.group(1);
+    }
+
+    @Test
+    public void testPlayGame() throws Exception {
+        HttpResponse<String> created = send("POST", "/games", "");
+        assertEquals(200, created.statusCode());
+        assertEquals("application/json", created.headers().firstValue("Content-Type").orElse(""));
+        String game = "/games/" + field(created.body(), "id");
+        assertEquals("5", field(created.body(), "wordSize"));
+        assertEquals("5", field(created.body(), "remaining"));
+
+        boolean over = false;
+        for (int round = 0; round < 5 && !over; round++) {
+            String best = field(send("GET", game + "/best", "").body(), "guess");
+            HttpResponse<String> played = send("POST", game + "/guesses", "{\"guess\": \"" + best + "\"}");
+            assertEquals(200, played.statusCode());
+            assertEquals(5, field(played.body(), "feedback").length());
+            over = Boolean.parseBoolean(field(played.body(), "over"));
+        }
+        assertTrue("The game should end", over);
+        String state = send("GET", game, "").body();
+        assertEquals("true", field(state, "over"));
+        assertEquals("1", field(state, "remaining"));
+
+        assertEquals(409, send("POST", game + "/guesses", "{\"guess\":\"hello\"}").statusCode());
+        assertEquals(200, send("DELETE", game, "").statusCode());
+        assertEquals(404, send("GET", game, "").statusCode());
+        assertEquals(404, send("POST", game + "/guesses", "{\"guess\":\"hello\"}").statusCode());
+        assertEquals(404, send("GET", game + "/best", "").statusCode());
+        assertEquals(404, send("DELETE", game, "").statusCode());
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        String game = "/games/" + field(send("POST", "/games", "").body(), "id");
+        HttpResponse<String> wrongSize = send("POST", game + "/guesses", "{\"guess\":\"abc\"}");
+        assertEquals(400, wrongSize.statusCode());
+        assertTrue(wrongSize.body().startsWith("{\"error\":"));
+        assertEquals(400, send("POST", game + "/guesses", "{}").statusCode());
+        assertEquals(405, send("GET", "/games", "").statusCode());
+        assertEquals(405, send("POST", game + "/best", "").statusCode());
+        assertEquals(404, send("GET", "/games/unknown", "").statusCode());
+        assertEquals(404, send("GET", game + "/unknown", "").statusCode());
+    }
+
+    @Test
+    public void testInternalError() throws Exception {
+        ScoringStrategy failing = new ScoringStrategy() {
+            @Override
+            public double calculateScore(Corpus corpus, NGram guess) {
+                throw new UnsupportedOperationException("Scoring failed");
+            }
+
+            @Override
+            public NGram findBestGuess(Corpus corpus) {
+                throw new UnsupportedOperationException("Scoring failed");
+            }
+        };
+        try (SessionExecutor failingExecutor = new SessionExecutor(
+                new SessionManager(executor.getSessions().getCorpus(), failing), 1);
+             MatchleServer failingServer = MatchleServer.start(
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), failingExecutor)) {
+            base = URI.create("http://localhost:" + failingServer.getAddress().getPort());
+            String game = "/games/" + field(send("POST", "/games", "").body(), "id");
+            HttpResponse<String> failed = send("GET", game + "/best", "");
+            assertEquals(500, failed.statusCode());
+            assertEquals("{\"error\":\"Scoring failed\"}", failed.body());
+        }
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"a\\\"b\\\\c\\u000a\"", MatchleServer.quote("a\"b\\c\n"));
+    }
+
+    @Test
+    public void testLoadHarness() throws Exception {
+        LoadHarness.Report report = LoadHarness.run(base, 4, Duration.ofMillis(500));
+        assertEquals("No request should fail: " + report, 0, report.errors());
+        assertTrue("Games should be played: " + report, report.games() > 0);
+        assertTrue(report.requestsPerSecond() > 0);
+        assertTrue(report.latency(50).compareTo(report.latency(99)) <= 0);
+        assertEquals("No session should be left open", 0, executor.getSessions().size());
+    }
+}
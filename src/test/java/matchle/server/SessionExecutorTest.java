@@ -0,0 +1,125 @@
+package matchle.server;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import matchle.Corpus;
+import matchle.NGram;
+import matchle.SessionManager;
+import matchle.scoring.ScoringStrategy;
+import matchle.scoring.StrategyRegistry;
+
+/**
+ * Tests for the executor running session requests
+ */
+public class SessionExecutorTest {
+
+    private Corpus corpus;
+    private SessionExecutor executor;
+
+    @Before
+    public void setUp() {
+        corpus = Corpus.Builder.of()
+                .add(NGram.from("rebus"))
+                .add(NGram.from("redux"))
+                .add(NGram.from("route"))
+                .add(NGram.from("hello"))
+                .add(NGram.from("eerie"))
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    @Test
+    public void testPlaySessions() throws Exception {
+        executor = new SessionExecutor(new SessionManager(corpus), 2);
+        assertEquals("Virtual threads should be used exactly when the runtime has them",
+                Runtime.version().feature() >= 21, executor.usesVirtualThreads());
+        List<CompletableFuture<Integer>> games = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            NGram key = corpus.get(i % corpus.size());
+            games.add(executor.create(key).thenCompose(id -> play(id)));
+        }
+        for (CompletableFuture<Integer> game : games) {
+            assertEquals("Every session should narrow down to its key", 1, game.get(10, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    private CompletableFuture<Integer> play(long id) {
+        return executor.remaining(id).thenCompose(remaining -> remaining <= 1
+                ? CompletableFuture.completedFuture(remaining)
+                : executor.bestGuess(id)
+                        .thenCompose(guess -> executor.guess(id, guess))
+                        .thenCompose(result -> result.solved()
+                                ? CompletableFuture.completedFuture(result.remaining())
+                                : play(id)));
+    }
+
+    @Test
+    public void testCoalescesIdenticalSuggestions() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        ScoringStrategy defaultStrategy = StrategyRegistry.get(StrategyRegistry.DEFAULT);
+        ScoringStrategy slow = new ScoringStrategy() {
+            @Override
+            public double calculateScore(Corpus corpus, NGram guess) {
+                return defaultStrategy.calculateScore(corpus, guess);
+            }
+
+            @Override
+            public NGram findBestGuess(Corpus corpus) {
+                computations.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return defaultStrategy.findBestGuess(corpus);
+            }
+        };
+        SessionManager sessions = new SessionManager(corpus, slow);
+        executor = new SessionExecutor(sessions, 2);
+        long first = sessions.create(NGram.from("redux"));
+        long second = sessions.create(NGram.from("hello"));
+        CompletableFuture<NGram> firstGuess = executor.bestGuess(first);
+        while (computations.get() == 0) {
+            Thread.sleep(1);
+        }
+        CompletableFuture<NGram> secondGuess = executor.bestGuess(second);
+        while (executor.coalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        assertEquals(firstGuess.get(10, TimeUnit.SECONDS), secondGuess.get(10, TimeUnit.SECONDS));
+        assertEquals("Sessions with the same candidates should share the computation", 1, computations.get());
+
+        executor.bestGuess(first).get(10, TimeUnit.SECONDS);
+        assertEquals("Finished computations should be answered from the cache", 1, computations.get());
+    }
+
+    @Test
+    public void testFailedRequest() throws Exception {
+        executor = new SessionExecutor(new SessionManager(corpus));
+        try {
+            executor.guess(42, NGram.from("hello")).get(10, TimeUnit.SECONDS);
+            fail("A guess in an unknown session should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package matchle.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Tests for the comparison of benchmark results with a baseline
+ */
+public class BenchmarkGateTest {
+
+    private static final List<String> GATED = List.of(
+            "ColdCorpusBenchmark.bestWorstCaseGuess", "MatcherBenchmark.match", "CorpusBenchmark.processGuess");
+
+    /**
+     * JMH results in its JSON format, trimmed to the fields the gate reads
+     */
+    private static String results(double match, double matchAlloc, double guess, double best) {
+        return "[\n"
+                + run("matchle.MatcherBenchmark.match", "avgt", "{\"wordLength\" : \"5\"}", match, 0.5, "ns/op",
+                        ", \"secondaryMetrics\" : {\"gc.alloc.rate.norm\" : {\"score\" : " + matchAlloc
+                        + ", \"scoreUnit\" : \"B/op\"}}")
+                + ",\n"
+                + run("matchle.CorpusBenchmark.processGuess", "thrpt",
+                        "{\"wordLength\" : \"5\", \"corpusSize\" : \"1000\"}", guess, 10, "ops/s", "")
+                + ",\n"
+                + run("matchle.ColdCorpusBenchmark.bestWorstCaseGuess", "ss", "{\"corpusSize\" : \"100\"}",
+                        best, Double.NaN, "ms/op", "")
+                + ",\n"
+                + run("matchle.NGramBenchmark.from", "avgt", null, 1000, 1, "ns/op", "")
+                + "\n]";
+    }
+
+    private static String run(String benchmark, String mode, String params, double score, double error,
+                              String unit, String secondary) {
+        return "{\"jmhVersion\" : \"1.37\", \"benchmark\" : \"" + benchmark + "\", \"mode\" : \"" + mode + "\""
+                + (params == null ? "" : ", \"params\" : " + params)
+                + ", \"primaryMetric\" : {\"score\" : " + score + ", \"scoreError\" : "
+                + (Double.isNaN(error) ? "\"NaN\"" : String.valueOf(error))
+                + ", \"scoreConfidence\" : [1.0, 2.0], \"scoreUnit\" : \"" + unit + "\", \"rawData\" : [[1.5e0]]}"
+                + secondary + "}";
+    }
+
+    @Test
+    public void testParse() {
+        Map<String, BenchmarkGate.Result> results = BenchmarkGate.parse(results(20, 48, 500, 7));
+        assertEquals(4, results.size());
+        BenchmarkGate.Result match = results.get("matchle.MatcherBenchmark.match{wordLength=5}");
+        assertEquals(new BenchmarkGate.Result("matchle.MatcherBenchmark.match{wordLength=5}", "avgt",
+                20, 0.5, "ns/op", 48), match);
+        BenchmarkGate.Result guess = results.get("matchle.CorpusBenchmark.processGuess{corpusSize=1000,wordLength=5}");
+        assertTrue("Parameters should be named in order", guess != null);
+        assertTrue(Double.isNaN(guess.allocation()));
+        assertEquals("An unknown error should count as none", 0,
+                results.get("matchle.ColdCorpusBenchmark.bestWorstCaseGuess{corpusSize=100}").error(), 0);
+        assertNotNull(results.get("matchle.NGramBenchmark.from"));
+    }
+
+    @Test
+    public void testWithinTolerancePasses() {
+        BenchmarkGate.Report report = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(21, 48, 480, 7.5)), BenchmarkGate.parse(results(20, 48, 500, 7)),
+                0.10, 0.10, GATED);
+        assertEquals("Only gated benchmarks should be compared", 3, report.comparisons().size());
+        assertTrue(BenchmarkGate.format(report), report.passed());
+    }
+
+    @Test
+    public void testSlowerFails() {
+        Map<String, BenchmarkGate.Result> baseline = BenchmarkGate.parse(results(20, 48, 500, 7));
+        BenchmarkGate.Report slowerMatch = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(25, 48, 500, 7)), baseline, 0.10, 0.10, GATED);
+        assertFalse(slowerMatch.passed());
+        assertTrue(BenchmarkGate.format(slowerMatch).contains("REGRESSED  matchle.MatcherBenchmark.match"));
+
+        BenchmarkGate.Report lowerThroughput = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(20, 48, 400, 7)), baseline, 0.10, 0.10, GATED);
+        assertFalse("Lower throughput should regress", lowerThroughput.passed());
+        BenchmarkGate.Report higherThroughput = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(20, 48, 900, 7)), baseline, 0.10, 0.10, GATED);
+        assertTrue("Higher throughput should pass", higherThroughput.passed());
+
+        assertTrue("A looser tolerance should pass", BenchmarkGate.compare(
+                BenchmarkGate.parse(results(25, 48, 500, 7)), baseline, 0.30, 0.10, GATED).passed());
+    }
+
+    @Test
+    public void testNoiseWithinErrorPasses() {
+        // 15% slower, but within the 0.5 + 0.5 score error of the two runs
+        BenchmarkGate.Report report = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(4.6, 48, 500, 7)), BenchmarkGate.parse(results(4, 48, 500, 7)),
+                0.10, 0.10, GATED);
+        assertTrue(report.passed());
+    }
+
+    @Test
+    public void testMoreAllocationFails() {
+        Map<String, BenchmarkGate.Result> baseline = BenchmarkGate.parse(results(20, 480, 500, 7));
+        assertFalse(BenchmarkGate.compare(BenchmarkGate.parse(results(20, 600, 500, 7)), baseline,
+                0.10, 0.10, GATED).passed());
+        assertTrue("A few bytes more are noise", BenchmarkGate.compare(
+                BenchmarkGate.parse(results(20, 0, 500, 7)), BenchmarkGate.parse(results(20, 0.01, 500, 7)),
+                0.10, 0.10, GATED).passed());
+        assertTrue(BenchmarkGate.compare(BenchmarkGate.parse(results(20, 8, 500, 7)),
+                BenchmarkGate.parse(results(20, 0, 500, 7)), 0.10, 0.10, GATED).passed());
+    }
+
+    @Test
+    public void testMissingBenchmarks() {
+        Map<String, BenchmarkGate.Result> baseline = BenchmarkGate.parse(results(20, 48, 500, 7));
+        BenchmarkGate.Report report = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(20, 48, 500, 7)), baseline, 0.10, 0.10, List.of("MatcherBenchmark.match"));
+        assertEquals(1, report.comparisons().size());
+        assertTrue(report.missing().isEmpty());
+        assertTrue(report.passed());
+
+        String withoutMatch = results(20, 48, 500, 7).replace("MatcherBenchmark.match", "MatcherBenchmark.other");
+        BenchmarkGate.Report partial = BenchmarkGate.compare(
+                BenchmarkGate.parse(withoutMatch), baseline, 0.10, 0.10, GATED);
+        assertEquals(2, partial.comparisons().size());
+        assertEquals(List.of("matchle.MatcherBenchmark.match{wordLength=5}"), partial.missing());
+        assertFalse("A gated benchmark that did not run should not pass", partial.passed());
+        assertTrue(BenchmarkGate.format(partial).contains("missing    matchle.MatcherBenchmark.match"));
+
+        BenchmarkGate.Report nothing = BenchmarkGate.compare(BenchmarkGate.parse("[]"), baseline, 0.10, 0.10, GATED);
+        assertEquals(3, nothing.missing().size());
+        assertFalse("A run comparing nothing should not pass", nothing.passed());
+    }
+
+    @Test
+    public void testAllBaselineBenchmarksGatedByDefault() {
+        BenchmarkGate.Report report = BenchmarkGate.compare(
+                BenchmarkGate.parse(results(20, 48, 500, 7)), BenchmarkGate.parse(results(20, 48, 500, 7)),
+                0.10, 0.10, List.of());
+        assertEquals(4, report.comparisons().size());
+        assertTrue(report.passed());
+    }
+
+    @Test
+    public void testJmhArguments() {
+        String arguments = BenchmarkGate.jmhArguments(GATED);
+        assertTrue("A failing benchmark should fail the run", arguments.startsWith("-foe true "));
+        Pattern pattern = Pattern.compile(arguments.substring("-foe true ".length()));
+        for (String name : BenchmarkGate.parse(results(20, 48, 500, 7)).keySet()) {
+            String benchmark = name.replaceAll("\\{.*", "");
+            assertEquals(benchmark, !benchmark.endsWith(".from"), pattern.matcher(benchmark).find());
+        }
+        assertFalse(pattern.matcher("matchle.MatcherBenchmark.matchAll").find());
+        assertFalse(pattern.matcher("matchle.MatcherBenchmarkXmatch").find());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChangedUnit() {
+        BenchmarkGate.compare(BenchmarkGate.parse(results(20, 48, 500, 7)),
+                BenchmarkGate.parse(results(20, 48, 500, 7).replace("ns/op", "us/op")), 0.10, 0.10, GATED);
+    }
+
+    @Test
+    public void testMalformedResults() {
+        for (String json : List.of("", "{}", "[{\"benchmark\" : 1}]", "[1,]", "[\"unterminated]", "[] x")) {
+            try {
+                BenchmarkGate.parse(json);
+                fail("Should reject " + json);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
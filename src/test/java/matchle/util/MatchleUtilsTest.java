@@ -2,10 +2,19 @@ package matchle.util;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public class MatchleUtilsTest {
     
@@ -66,4 +75,52 @@ public class MatchleUtilsTest {
         
         MatchleUtils.hammingDistance(s1, s2);
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testVarIntRoundTrip() throws IOException {
+        int[] values = {0, 1, 127, 128, 300, 1 << 21, Integer.MAX_VALUE, -1};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            MatchleUtils.writeVarInt(out, value);
+        }
+        assertEquals("Small values should take one byte", 1 + 1 + 1 + 2 + 2 + 4 + 5 + 5, bytes.size());
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int value : values) {
+            assertEquals(value, MatchleUtils.readVarInt(in));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedVarInt() throws IOException {
+        byte[] tooLong = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 1};
+        MatchleUtils.readVarInt(new DataInputStream(new ByteArrayInputStream(tooLong)));
+    }
+
+    @Test
+    public void testWriteAtomically() throws IOException {
+        Path directory = Files.createTempDirectory("atomic");
+        Path file = directory.resolve("data.bin");
+        try {
+            MatchleUtils.writeAtomically(file, ByteBuffer.wrap(new byte[] {1, 2, 3}));
+            MatchleUtils.writeAtomically(file, ByteBuffer.wrap(new byte[] {4, 5}));
+            assertArrayEquals(new byte[] {4, 5}, Files.readAllBytes(file));
+            try {
+                MatchleUtils.writeAtomically(file, channel -> {
+                    throw new IOException("Failed write");
+                });
+                fail("The failure should be reported");
+            } catch (IOException expected) {
+                // expected
+            }
+            assertArrayEquals("A failed write should leave the file as it was",
+                    new byte[] {4, 5}, Files.readAllBytes(file));
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals("No temporary file should be left behind", 1, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(directory);
+        }
+    }
+}